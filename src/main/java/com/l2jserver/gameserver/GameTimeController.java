@@ -18,14 +18,25 @@
  */
 package com.l2jserver.gameserver;
 
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.l2jserver.gameserver.instancemanager.DayNightSpawnManager;
+import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.actor.L2Character;
 
 /**
@@ -46,10 +57,25 @@ public final class GameTimeController extends Thread {
 	public static final int TICKS_PER_IG_MINUTE = TICKS_PER_IG_HOUR / 60;
 	public static final int TICKS_SUN_STATE_CHANGE = TICKS_PER_IG_DAY / 4;
 	
+	/** Maximum number of moving creatures computed by a single movement task. */
+	private static final int MOVEMENT_BATCH_SIZE = 128;
+	/** Number of movement ticks kept for the statistics. */
+	private static final int MOVEMENT_STATS_TICKS = 600;
+	/** Groups the moving creatures by world region. */
+	private static final Comparator<L2Character> REGION_ORDER = Comparator.comparingInt(GameTimeController::getRegionIndex);
+	
 	private static GameTimeController _instance;
 	
 	private final Set<L2Character> _movingObjects = ConcurrentHashMap.newKeySet();
 	private final long _referenceTime;
+	private final ForkJoinPool _movementPool;
+	private final int _movementParallelThreshold;
+	
+	/** Movement tick durations in microseconds, only written by the game time thread. */
+	private final long[] _movementTickTimes = new long[MOVEMENT_STATS_TICKS];
+	private long _movementTicks = 0;
+	private volatile int _lastMovingCount = 0;
+	private volatile int _maxMovingCount = 0;
 	
 	private GameTimeController() {
 		super("GameTimeController");
@@ -63,9 +89,26 @@ public final class GameTimeController extends Thread {
 		c.set(Calendar.MILLISECOND, 0);
 		_referenceTime = c.getTimeInMillis();
 		
+		_movementPool = general().getMovementThreadCount() > 1 ? createMovementPool(general().getMovementThreadCount()) : null;
+		_movementParallelThreshold = Math.max(MOVEMENT_BATCH_SIZE, general().getMovementParallelThreshold());
+		
 		super.start();
 	}
 	
+	/**
+	 * Creates the movement fork-join pool, its workers being named like the other thread pools so they can be told apart in thread dumps.
+	 * @param threads the number of worker threads
+	 * @return the movement pool
+	 */
+	private static ForkJoinPool createMovementPool(int threads) {
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		return new ForkJoinPool(threads, pool -> {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("MovementPool-" + threadNumber.getAndIncrement());
+			return thread;
+		}, null, false);
+	}
+	
 	public static void init() {
 		_instance = new GameTimeController();
 	}
@@ -116,13 +159,121 @@ public final class GameTimeController extends Thread {
 	 * <li>If movement is finished, the L2Character is removed from movingObjects</li>
 	 * <li>Create a task to update the _knownObject and _knowPlayers of each L2Character that finished its movement and of their already known L2Object then notify AI with EVT_ARRIVED</li>
 	 * </ul>
+	 * When there are enough moving objects, the positions are computed in parallel, partitioned by world region.<br>
+	 * The region changes, zone revalidation and notifications are then applied by this thread, in region order.
 	 */
 	private void moveObjects() {
-		_movingObjects.removeIf(L2Character::updatePosition);
+		final long start = System.nanoTime();
+		final int count = _movingObjects.size();
+		if ((_movementPool == null) || (count < _movementParallelThreshold)) {
+			_movingObjects.removeIf(L2Character::updatePosition);
+		} else {
+			final List<L2Character> moving = new ArrayList<>(_movingObjects);
+			moving.sort(REGION_ORDER);
+			
+			// Compute the new positions.
+			final int[] status = new int[moving.size()];
+			_movementPool.invoke(new MovementTask(moving, status, 0, moving.size()));
+			
+			// Apply the world changes.
+			for (int i = 0; i < status.length; i++) {
+				final L2Character cha = moving.get(i);
+				try {
+					if (cha.applyMovement(status[i])) {
+						_movingObjects.remove(cha);
+					}
+				} catch (Exception e) {
+					LOG.warn("Unable to move {}!", cha, e);
+				}
+			}
+		}
+		
+		_movementTickTimes[(int) (_movementTicks++ % MOVEMENT_STATS_TICKS)] = (System.nanoTime() - start) / 1000;
+		_lastMovingCount = count;
+		if (count > _maxMovingCount) {
+			_maxMovingCount = count;
+		}
+	}
+	
+	private static int getRegionIndex(L2Character cha) {
+		final L2WorldRegion region = cha.getWorldRegion();
+		return region != null ? (region.getTileX() << 16) | region.getTileY() : -1;
+	}
+	
+	/**
+	 * Computes the positions of a range of moving creatures, splitting it on world region boundaries.
+	 */
+	private static final class MovementTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final List<L2Character> _moving;
+		private final int[] _status;
+		private final int _from;
+		private final int _to;
+		
+		protected MovementTask(List<L2Character> moving, int[] status, int from, int to) {
+			_moving = moving;
+			_status = status;
+			_from = from;
+			_to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if ((_to - _from) > MOVEMENT_BATCH_SIZE) {
+				// Move the split point to the next region boundary, so a region is computed by a single task.
+				int split = _from + ((_to - _from) >>> 1);
+				final int region = getRegionIndex(_moving.get(split - 1));
+				while ((split < _to) && (getRegionIndex(_moving.get(split)) == region)) {
+					split++;
+				}
+				
+				if (split < _to) {
+					invokeAll(new MovementTask(_moving, _status, _from, split), new MovementTask(_moving, _status, split, _to));
+					return;
+				}
+			}
+			
+			for (int i = _from; i < _to; i++) {
+				try {
+					_status[i] = _moving.get(i).updateMovement();
+				} catch (Exception e) {
+					_status[i] = L2Character.MOVE_UNCHANGED;
+					LOG.warn("Unable to compute the position of {}!", _moving.get(i), e);
+				}
+			}
+		}
+	}
+	
+	public String[] getStats() {
+		final int ticks = (int) Math.min(_movementTicks, MOVEMENT_STATS_TICKS);
+		final long[] times = Arrays.copyOf(_movementTickTimes, ticks);
+		Arrays.sort(times);
+		return new String[] {
+			"Movement:",
+			" |- Parallel:        " + (_movementPool != null ? _movementPool.getParallelism() + " threads over " + _movementParallelThreshold + " objects" : "disabled"),
+			" |- Moving:          " + _lastMovingCount,
+			" |- MaxMoving:       " + _maxMovingCount,
+			" + Tick time (us), last " + ticks + " ticks:",
+			" |- p50:             " + getPercentile(times, 50),
+			" |- p95:             " + getPercentile(times, 95),
+			" |- p99:             " + getPercentile(times, 99),
+			" |- Max:             " + getPercentile(times, 100)
+		};
+	}
+	
+	private static long getPercentile(long[] sorted, int percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[Math.max(0, (((sorted.length * percentile) + 99) / 100) - 1)];
 	}
 	
 	public void stopTimer() {
 		super.interrupt();
+		if (_movementPool != null) {
+			_movementPool.shutdown();
+		}
 		LOG.info("Stopping {}", getClass().getSimpleName());
 	}
 	
@@ -24,6 +24,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,8 +61,16 @@ public class GeoData {
 	private static final Map<String, Boolean> GEODATA_REGIONS = new HashMap<>();
 	
 	private final GeoDriver _driver = new GeoDriver();
+	/** Direct mapped line of sight cache, {@code null} if disabled. */
+	private final LosEntry[] _losCache;
+	private final AtomicInteger _doorEpoch = new AtomicInteger();
+	private final AtomicLong _losCacheHits = new AtomicLong();
+	private final AtomicLong _losCacheMisses = new AtomicLong();
 	
 	protected GeoData() {
+		final int losCacheSize = geodata().getLosCacheSize();
+		_losCache = losCacheSize > 0 ? new LosEntry[Integer.highestOneBit(Math.min(losCacheSize, 1 << 24) * 2 - 1)] : null;
+		
 		loadGeodataRegions();
 		
 		int loadedRegions = 0;
@@ -266,10 +276,62 @@ public class GeoData {
 	 * @return {@code true} if there is line of sight between the given coordinate sets, {@code false} otherwise
 	 */
 	public boolean canSeeTarget(int x, int y, int z, int instanceId, int tx, int ty, int tz) {
-		if (DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instanceId, true)) {
-			return false;
+		final int geoX = getGeoX(x);
+		final int geoY = getGeoY(y);
+		final int tGeoX = getGeoX(tx);
+		final int tGeoY = getGeoY(ty);
+		final int geoZ = getNearestZ(geoX, geoY, z);
+		final int tGeoZ = getNearestZ(tGeoX, tGeoY, tz);
+		if (_losCache == null) {
+			return !DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instanceId, true) && canSeeTargetGeo(geoX, geoY, geoZ, tGeoX, tGeoY, tGeoZ);
+		}
+		
+		// The geo walk only depends on the geo cells and their nearest layer, the door check is made stale by the door epoch.
+		final long key1 = (geoX & 0xFFFFL) | ((geoY & 0xFFFFL) << 16) | ((geoZ & 0xFFFFL) << 32) | ((tGeoX & 0xFFFFL) << 48);
+		final long key2 = (tGeoY & 0xFFFFL) | ((tGeoZ & 0xFFFFL) << 16) | ((instanceId & 0xFFFFFFFFL) << 32);
+		final int epoch = _doorEpoch.get();
+		long hash = (key1 * 0x9E3779B97F4A7C15L) ^ (key2 * 0xC2B2AE3D27D4EB4FL);
+		hash ^= hash >>> 32;
+		final int index = (int) hash & (_losCache.length - 1);
+		
+		final LosEntry entry = _losCache[index];
+		if ((entry != null) && (entry._key1 == key1) && (entry._key2 == key2) && (entry._epoch == epoch)) {
+			_losCacheHits.incrementAndGet();
+			return entry._result;
 		}
-		return canSeeTarget(x, y, z, tx, ty, tz);
+		
+		_losCacheMisses.incrementAndGet();
+		final boolean result = !DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instanceId, true) && canSeeTargetGeo(geoX, geoY, geoZ, tGeoX, tGeoY, tGeoZ);
+		_losCache[index] = new LosEntry(key1, key2, epoch, result);
+		return result;
+	}
+	
+	/**
+	 * Invalidates the cached line of sight results and paths, to be called when a door is opened, closed, destroyed or respawned.
+	 */
+	public void onDoorStateChange() {
+		_doorEpoch.incrementAndGet();
+	}
+	
+	/**
+	 * Gets the door epoch, incremented each time a door changes state.
+	 * @return the door epoch
+	 */
+	public int getDoorEpoch() {
+		return _doorEpoch.get();
+	}
+	
+	public String[] getStats() {
+		final long hits = _losCacheHits.get();
+		final long lookups = hits + _losCacheMisses.get();
+		return new String[] {
+			"LOS Cache:",
+			" |- Size:            " + (_losCache != null ? _losCache.length : 0),
+			" |- Hits:            " + hits,
+			" |- Lookups:         " + lookups,
+			" |- HitRate:         " + (lookups > 0 ? String.format("%1.1f%%", (hits * 100.0) / lookups) : "-"),
+			" |- DoorEpoch:       " + _doorEpoch.get()
+		};
 	}
 	
 	private int getLosGeoZ(int prevX, int prevY, int prevGeoZ, int curX, int curY, int nswe) {
@@ -294,14 +356,14 @@ public class GeoData {
 	 * @return {@code true} if there is line of sight between the given coordinate sets, {@code false} otherwise
 	 */
 	public boolean canSeeTarget(int x, int y, int z, int tx, int ty, int tz) {
-		int geoX = getGeoX(x);
-		int geoY = getGeoY(y);
-		int tGeoX = getGeoX(tx);
-		int tGeoY = getGeoY(ty);
-		
-		z = getNearestZ(geoX, geoY, z);
-		tz = getNearestZ(tGeoX, tGeoY, tz);
-		
+		final int geoX = getGeoX(x);
+		final int geoY = getGeoY(y);
+		final int tGeoX = getGeoX(tx);
+		final int tGeoY = getGeoY(ty);
+		return canSeeTargetGeo(geoX, geoY, getNearestZ(geoX, geoY, z), tGeoX, tGeoY, getNearestZ(tGeoX, tGeoY, tz));
+	}
+	
+	private boolean canSeeTargetGeo(int geoX, int geoY, int z, int tGeoX, int tGeoY, int tz) {
 		// fast path
 		if ((geoX == tGeoX) && (geoY == tGeoY)) {
 			if (hasGeoPos(tGeoX, tGeoY)) {
@@ -312,15 +374,7 @@ public class GeoData {
 		}
 		
 		if (tz > z) {
-			int tmp = tx;
-			tx = x;
-			x = tmp;
-			
-			tmp = ty;
-			ty = y;
-			y = tmp;
-			
-			tmp = tz;
+			int tmp = tz;
 			tz = z;
 			z = tmp;
 			
@@ -572,6 +626,23 @@ public class GeoData {
 		return hasGeoPos(getGeoX(x), getGeoY(y));
 	}
 	
+	/**
+	 * Cached line of sight result, immutable so it can be published through the cache array without locking.
+	 */
+	private static final class LosEntry {
+		protected final long _key1;
+		protected final long _key2;
+		protected final int _epoch;
+		protected final boolean _result;
+		
+		protected LosEntry(long key1, long key2, int epoch, boolean result) {
+			_key1 = key1;
+			_key2 = key2;
+			_epoch = epoch;
+			_result = result;
+		}
+	}
+	
 	public static GeoData getInstance() {
 		return SingletonHolder.INSTANCE;
 	}
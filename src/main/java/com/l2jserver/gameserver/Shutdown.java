@@ -49,6 +49,7 @@ import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.gameserverpackets.ServerStatus;
 import com.l2jserver.gameserver.network.serverpackets.ServerClose;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemUpdateTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 
 /**
@@ -436,6 +437,10 @@ public class Shutdown extends Thread {
 		GlobalVariablesManager.getInstance().storeMe();
 		LOG.info("Global Variables Manager: Variables saved({}ms).", tc.getEstimatedTimeAndRestartCounter());
 		
+		// Write the pending item updates
+		ItemUpdateTaskManager.getInstance().shutdown();
+		LOG.info("Item Update Task Manager: Item updates saved({}ms).", tc.getEstimatedTimeAndRestartCounter());
+		
 		// Save items on ground before closing
 		if (general().saveDroppedItem()) {
 			ItemsOnGroundManager.getInstance().saveInDb();
@@ -21,6 +21,7 @@ package com.l2jserver.gameserver;
 import static com.l2jserver.gameserver.config.Configuration.general;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
@@ -102,6 +103,8 @@ public class ThreadPoolManager {
 	private final ThreadPoolExecutor _ioPacketsThreadPool;
 	private final ThreadPoolExecutor _generalThreadPool;
 	private final ThreadPoolExecutor _eventThreadPool;
+	private final ThreadPoolExecutor _aiTickThreadPool;
+	private final ThreadPoolExecutor _characterLoadThreadPool;
 	
 	private boolean _shutdown;
 	
@@ -118,6 +121,9 @@ public class ThreadPoolManager {
 		_generalThreadPool = new ThreadPoolExecutor(general().getGeneralThreadCoreSize(), general().getGeneralThreadCoreSize() + 2, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new PriorityThreadFactory("General Pool", Thread.NORM_PRIORITY));
 		_aiScheduledThreadPool = new ScheduledThreadPoolExecutor(general().getAiMaxThread(), new PriorityThreadFactory("AISTPool", Thread.NORM_PRIORITY));
 		_eventThreadPool = new ThreadPoolExecutor(general().getEventsMaxThread(), general().getEventsMaxThread() + 2, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new PriorityThreadFactory("Event Pool", Thread.NORM_PRIORITY));
+		_aiTickThreadPool = new ThreadPoolExecutor(general().getAiTickThreadCoreSize(), general().getAiTickThreadCoreSize(), 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new PriorityThreadFactory("AI Tick Pool", Thread.NORM_PRIORITY));
+		final int characterLoadThreads = Math.max(1, general().getCharacterLoadThreadCoreSize());
+		_characterLoadThreadPool = new ThreadPoolExecutor(characterLoadThreads, characterLoadThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new PriorityThreadFactory("Character Load Pool", Thread.NORM_PRIORITY + 1));
 		
 		scheduleGeneralAtFixedRate(new PurgeTask(_effectsScheduledThreadPool, _generalScheduledThreadPool, _aiScheduledThreadPool, _eventThreadPool), 10, 5, TimeUnit.MINUTES);
 	}
@@ -379,6 +385,27 @@ public class ThreadPoolManager {
 		}
 	}
 	
+	/**
+	 * Executes a batch of AI ticks in the fixed AI tick pool.
+	 * @param task the task to execute
+	 */
+	public void executeAiTick(Runnable task) {
+		try {
+			_aiTickThreadPool.execute(new RunnableWrapper(task));
+		} catch (RejectedExecutionException e) {
+			/* shutdown, ignore */
+		}
+	}
+	
+	/**
+	 * Submits a character load task to the character load pool.
+	 * @param task the task to execute
+	 * @return a Future representing pending completion of the task
+	 */
+	public Future<?> submitCharacterLoad(Runnable task) {
+		return _characterLoadThreadPool.submit(task);
+	}
+	
 	public String[] getStats() {
 		return new String[] {
 			"STP:",
@@ -449,6 +476,24 @@ public class ThreadPoolManager {
 			" |- PoolSize:        " + _eventThreadPool.getPoolSize(),
 			" |- CompletedTasks:  " + _eventThreadPool.getCompletedTaskCount(),
 			" |- QueuedTasks:     " + _eventThreadPool.getQueue().size(),
+			" | -------",
+			" + AI Tick Tasks:",
+			" |- ActiveThreads:   " + _aiTickThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + _aiTickThreadPool.getCorePoolSize(),
+			" |- MaximumPoolSize: " + _aiTickThreadPool.getMaximumPoolSize(),
+			" |- LargestPoolSize: " + _aiTickThreadPool.getLargestPoolSize(),
+			" |- PoolSize:        " + _aiTickThreadPool.getPoolSize(),
+			" |- CompletedTasks:  " + _aiTickThreadPool.getCompletedTaskCount(),
+			" |- QueuedTasks:     " + _aiTickThreadPool.getQueue().size(),
+			" | -------",
+			" + Character Load Tasks:",
+			" |- ActiveThreads:   " + _characterLoadThreadPool.getActiveCount(),
+			" |- getCorePoolSize: " + _characterLoadThreadPool.getCorePoolSize(),
+			" |- MaximumPoolSize: " + _characterLoadThreadPool.getMaximumPoolSize(),
+			" |- LargestPoolSize: " + _characterLoadThreadPool.getLargestPoolSize(),
+			" |- PoolSize:        " + _characterLoadThreadPool.getPoolSize(),
+			" |- CompletedTasks:  " + _characterLoadThreadPool.getCompletedTaskCount(),
+			" |- QueuedTasks:     " + _characterLoadThreadPool.getQueue().size(),
 			" | -------"
 		};
 	}
@@ -486,12 +531,16 @@ public class ThreadPoolManager {
 			_ioPacketsThreadPool.awaitTermination(1, TimeUnit.SECONDS);
 			_generalThreadPool.awaitTermination(1, TimeUnit.SECONDS);
 			_eventThreadPool.awaitTermination(1, TimeUnit.SECONDS);
+			_aiTickThreadPool.awaitTermination(1, TimeUnit.SECONDS);
+			_characterLoadThreadPool.awaitTermination(1, TimeUnit.SECONDS);
 			_effectsScheduledThreadPool.shutdown();
 			_generalScheduledThreadPool.shutdown();
 			_generalPacketsThreadPool.shutdown();
 			_ioPacketsThreadPool.shutdown();
 			_generalThreadPool.shutdown();
 			_eventThreadPool.shutdown();
+			_aiTickThreadPool.shutdown();
+			_characterLoadThreadPool.shutdown();
 			LOG.info("All ThreadPools are now stopped");
 			
 		} catch (InterruptedException e) {
@@ -512,6 +561,8 @@ public class ThreadPoolManager {
 		_generalPacketsThreadPool.purge();
 		_generalThreadPool.purge();
 		_eventThreadPool.purge();
+		_aiTickThreadPool.purge();
+		_characterLoadThreadPool.purge();
 	}
 	
 	public String getPacketStats() {
@@ -22,13 +22,10 @@ import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_ATTACK;
 import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_FOLLOW;
 import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_IDLE;
 
-import java.util.concurrent.Future;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.l2jserver.gameserver.GameTimeController;
-import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.Location;
 import com.l2jserver.gameserver.model.actor.L2Character;
@@ -43,6 +40,8 @@ import com.l2jserver.gameserver.network.serverpackets.MoveToLocation;
 import com.l2jserver.gameserver.network.serverpackets.MoveToPawn;
 import com.l2jserver.gameserver.network.serverpackets.StopMove;
 import com.l2jserver.gameserver.network.serverpackets.StopRotation;
+import com.l2jserver.gameserver.taskmanager.AITaskManager;
+import com.l2jserver.gameserver.taskmanager.AITaskManager.AITask;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
 
 /**
@@ -137,7 +136,7 @@ public abstract class AbstractAI implements Ctrl {
 	/** Different internal state flags */
 	private int _moveToPawnTimeout;
 	
-	protected Future<?> _followTask = null;
+	protected AITask _followTask = null;
 	private static final int FOLLOW_INTERVAL = 1000;
 	private static final int ATTACK_FOLLOW_INTERVAL = 500;
 	
@@ -658,13 +657,13 @@ public abstract class AbstractAI implements Ctrl {
 	 */
 	public synchronized void startFollow(L2Character target) {
 		if (_followTask != null) {
-			_followTask.cancel(false);
+			_followTask.cancel();
 			_followTask = null;
 		}
 		
 		// Create and Launch an AI Follow Task to execute every 1s
 		_followTarget = target;
-		_followTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new FollowTask(), 5, FOLLOW_INTERVAL);
+		_followTask = AITaskManager.getInstance().schedule(new FollowTask(), 5, FOLLOW_INTERVAL);
 	}
 	
 	/**
@@ -674,12 +673,12 @@ public abstract class AbstractAI implements Ctrl {
 	 */
 	public synchronized void startFollow(L2Character target, int range) {
 		if (_followTask != null) {
-			_followTask.cancel(false);
+			_followTask.cancel();
 			_followTask = null;
 		}
 		
 		_followTarget = target;
-		_followTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new FollowTask(range), 5, ATTACK_FOLLOW_INTERVAL);
+		_followTask = AITaskManager.getInstance().schedule(new FollowTask(range), 5, ATTACK_FOLLOW_INTERVAL);
 	}
 	
 	/**
@@ -688,7 +687,7 @@ public abstract class AbstractAI implements Ctrl {
 	public synchronized void stopFollow() {
 		if (_followTask != null) {
 			// Stop the Follow Task
-			_followTask.cancel(false);
+			_followTask.cancel();
 			_followTask = null;
 		}
 		_followTarget = null;
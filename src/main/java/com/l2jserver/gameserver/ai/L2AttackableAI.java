@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,8 @@ import com.l2jserver.gameserver.enums.AISkillScope;
 import com.l2jserver.gameserver.enums.AIType;
 import com.l2jserver.gameserver.instancemanager.DimensionalRiftManager;
 import com.l2jserver.gameserver.model.L2Object;
+import com.l2jserver.gameserver.model.L2World;
+import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.Location;
 import com.l2jserver.gameserver.model.TeleportWhereType;
 import com.l2jserver.gameserver.model.actor.L2Attackable;
@@ -61,6 +64,7 @@ import com.l2jserver.gameserver.model.actor.instance.L2RiftInvaderInstance;
 import com.l2jserver.gameserver.model.actor.instance.L2StaticObjectInstance;
 import com.l2jserver.gameserver.model.effects.L2EffectType;
 import com.l2jserver.gameserver.model.events.EventDispatcher;
+import com.l2jserver.gameserver.model.events.EventType;
 import com.l2jserver.gameserver.model.events.impl.character.npc.attackable.OnAttackableFactionCall;
 import com.l2jserver.gameserver.model.events.impl.character.npc.attackable.OnAttackableHate;
 import com.l2jserver.gameserver.model.events.returns.TerminateReturn;
@@ -68,6 +72,8 @@ import com.l2jserver.gameserver.model.skills.AbnormalVisualEffect;
 import com.l2jserver.gameserver.model.skills.Skill;
 import com.l2jserver.gameserver.model.skills.targets.TargetType;
 import com.l2jserver.gameserver.model.zone.ZoneId;
+import com.l2jserver.gameserver.taskmanager.AITaskManager;
+import com.l2jserver.gameserver.taskmanager.AITaskManager.AITask;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -106,13 +112,17 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable {
 	// private static final int MAX_DRIFT_RANGE = 300;
 	private static final int MAX_ATTACK_TIMEOUT = 120 * GameTimeController.TICKS_PER_SECOND; // int ticks, i.e. 2min
 	/** The L2Attackable AI task executed every 1s (call onEvtThink method). */
-	private Future<?> _aiTask;
+	private AITask _aiTask;
 	/** The delay after which the attacked is stopped. */
 	private int _attackTimeout;
 	/** The L2Attackable aggro counter. */
 	private int _globalAggro;
 	/** The flag used to indicate that a thinking action is in progress, to prevent recursive thinking. */
 	private boolean _thinking;
+	/** The flag used to indicate that the AI is parked until a playable comes within its wake up range. */
+	private volatile boolean _sleeping;
+	/** Greatest wake up range of the attackables that went to sleep. */
+	private static final AtomicInteger MAX_WAKE_UP_RANGE = new AtomicInteger();
 	private int _chaosTime = 0;
 	private int _lastBuffTick;
 	// Fear parameters
@@ -285,21 +295,130 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable {
 	}
 	
 	public void startAITask() {
+		setSleeping(false);
+		
 		// If not idle - create an AI task (schedule onEvtThink repeatedly)
 		if (_aiTask == null) {
-			_aiTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, 1000, 1000);
+			_aiTask = AITaskManager.getInstance().schedule(this, 1000, 1000);
 		}
 	}
 	
 	@Override
 	public void stopAITask() {
 		if (_aiTask != null) {
-			_aiTask.cancel(false);
+			_aiTask.cancel();
 			_aiTask = null;
 		}
+		setSleeping(false);
 		super.stopAITask();
 	}
 	
+	public boolean hasAITask() {
+		return _aiTask != null;
+	}
+	
+	public boolean isSleeping() {
+		return _sleeping;
+	}
+	
+	/**
+	 * Wakes up this AI if it is sleeping, restarting its AI task.
+	 */
+	public synchronized void wakeUp() {
+		if (_sleeping) {
+			startAITask();
+		}
+	}
+	
+	/**
+	 * Parks this AI until a playable comes within its wake up range or a new intention is set.<br>
+	 * The intention is kept, only the AI task is stopped.
+	 */
+	private synchronized void sleep() {
+		if (_aiTask != null) {
+			_aiTask.cancel();
+			_aiTask = null;
+		}
+		setSleeping(true);
+		MAX_WAKE_UP_RANGE.accumulateAndGet(getWakeUpRange(getActiveChar()), Math::max);
+		
+		// A playable may have come close before the region knew about this AI
+		if (hasPlayableInWakeUpRange()) {
+			wakeUp();
+		}
+	}
+	
+	private void setSleeping(boolean sleeping) {
+		if (_sleeping == sleeping) {
+			return;
+		}
+		
+		_sleeping = sleeping;
+		final L2WorldRegion region = _actor.getWorldRegion();
+		if (region != null) {
+			if (sleeping) {
+				region.addSleepingAI(getActiveChar());
+			} else {
+				region.removeSleepingAI(getActiveChar());
+			}
+		}
+	}
+	
+	/**
+	 * Checks if this AI can be parked, that is an idle attackable without any playable in its wake up range.<br>
+	 * Guards, chaos mobs, minions and minion leaders keep thinking since they don't only react to playables.
+	 * @return {@code true} if this AI can sleep, {@code false} otherwise
+	 */
+	private boolean canSleep() {
+		if (!npc().attackableAiSleep() || (getIntention() != AI_INTENTION_ACTIVE) || (_globalAggro != 0)) {
+			return false;
+		}
+		
+		final L2Attackable npc = getActiveChar();
+		if ((npc instanceof L2GuardInstance) || npc.isChaos() || npc.isWalker() || npc.isMoving() || npc.isCastingNow() || npc.isReturningToSpawnPoint()) {
+			return false;
+		}
+		
+		if ((npc.getLeader() != null) || ((npc instanceof L2MonsterInstance) && ((L2MonsterInstance) npc).hasMinions()) || !npc.getAggroList().isEmpty()) {
+			return false;
+		}
+		return !hasPlayableInWakeUpRange();
+	}
+	
+	private boolean hasPlayableInWakeUpRange() {
+		final L2Attackable npc = getActiveChar();
+		final int range = getWakeUpRange(npc);
+		for (L2PcInstance player : npc.getKnownList().getKnownPlayers().values()) {
+			if (npc.isInsideRadius(player, range, true, false)) {
+				return true;
+			}
+		}
+		
+		for (L2Summon summon : npc.getKnownList().getKnownSummons().values()) {
+			if (npc.isInsideRadius(summon, range, true, false)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Gets the range in which playables wake up a sleeping attackable.
+	 * @param attackable the attackable
+	 * @return the wake up range
+	 */
+	public static int getWakeUpRange(L2Attackable attackable) {
+		return Math.max(attackable.getAggroRange(), npc().getAttackableAiSleepRange());
+	}
+	
+	/**
+	 * Gets the greatest wake up range of the attackables that went to sleep, no sleeping attackable can be woken up from farther.
+	 * @return the greatest wake up range
+	 */
+	public static int getMaxWakeUpRange() {
+		return MAX_WAKE_UP_RANGE.get();
+	}
+	
 	/**
 	 * Set the Intention of this L2CharacterAI and create an AI Task executed every 1s (call onEvtThink method) for this L2Attackable.<br>
 	 * <FONT COLOR=#FF0000><B> <U>Caution</U> : If actor _knowPlayer isn't EMPTY, AI_INTENTION_IDLE will be change in AI_INTENTION_ACTIVE</B></FONT>
@@ -430,6 +549,12 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable {
 			}
 		}
 		
+		// Park the AI while no playable is around, playables coming close wake it up
+		if (canSleep()) {
+			sleep();
+			return;
+		}
+		
 		// Add all autoAttackable L2Character in L2Attackable Aggro Range to its _aggroList with 0 damage and 1 hate
 		// A L2Attackable isn't aggressive during 10s after its spawn because _globalAggro is set to -10
 		if (_globalAggro >= 0) {
@@ -456,7 +581,7 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable {
 				// For each L2Character check if the target is autoattackable
 				if (autoAttackCondition(target)) // check aggression
 				{
-					if (target.isPlayable()) {
+					if (target.isPlayable() && EventDispatcher.getInstance().hasListener(EventType.ON_NPC_HATE, getActiveChar())) {
 						final TerminateReturn term = EventDispatcher.getInstance().notifyEvent(new OnAttackableHate(getActiveChar(), target.getActingPlayer(), target.isSummon()), getActiveChar(), TerminateReturn.class);
 						if ((term != null) && term.terminate()) {
 							continue;
@@ -713,40 +838,41 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable {
 			final int factionRange = npc.getTemplate().getClanHelpRange() + collision;
 			// Go through all L2Object that belong to its faction
 			try {
-				for (L2Object obj : npc.getKnownList().getKnownCharactersInRadius(factionRange)) {
-					if (obj instanceof L2Npc) {
-						L2Npc called = (L2Npc) obj;
-						
-						if (!getActiveChar().getTemplate().isClan(called.getTemplate().getClans())) {
-							continue;
-						}
-						
-						// Check if the L2Object is inside the Faction Range of the actor
-						if (called.hasAI()) {
-							if ((Math.abs(originalAttackTarget.getZ() - called.getZ()) < 600) && npc.getAttackByList().contains(originalAttackTarget) && ((called.getAI()._intention == CtrlIntention.AI_INTENTION_IDLE) || (called.getAI()._intention == CtrlIntention.AI_INTENTION_ACTIVE))
-								&& (called.getInstanceId() == npc.getInstanceId())) {
-								if (originalAttackTarget.isPlayable()) {
-									if (originalAttackTarget.isInParty() && originalAttackTarget.getParty().isInDimensionalRift()) {
-										byte riftType = originalAttackTarget.getParty().getDimensionalRift().getType();
-										byte riftRoom = originalAttackTarget.getParty().getDimensionalRift().getCurrentRoom();
-										
-										if ((npc instanceof L2RiftInvaderInstance) && !DimensionalRiftManager.getInstance().getRoom(riftType, riftRoom).checkIfInZone(npc.getX(), npc.getY(), npc.getZ())) {
-											continue;
-										}
-									}
+				L2World.getInstance().forEachCharacterInRadius(npc, factionRange + collision, obj -> {
+					if (!(obj instanceof L2Npc) || !Util.checkIfInRange(factionRange, npc, obj, true)) {
+						return;
+					}
+					
+					final L2Npc called = (L2Npc) obj;
+					if (!getActiveChar().getTemplate().isClan(called.getTemplate().getClans())) {
+						return;
+					}
+					
+					// Check if the L2Object is inside the Faction Range of the actor
+					if (called.hasAI()) {
+						if ((Math.abs(originalAttackTarget.getZ() - called.getZ()) < 600) && npc.getAttackByList().contains(originalAttackTarget) && ((called.getAI()._intention == CtrlIntention.AI_INTENTION_IDLE) || (called.getAI()._intention == CtrlIntention.AI_INTENTION_ACTIVE))
+							&& (called.getInstanceId() == npc.getInstanceId())) {
+							if (originalAttackTarget.isPlayable()) {
+								if (originalAttackTarget.isInParty() && originalAttackTarget.getParty().isInDimensionalRift()) {
+									byte riftType = originalAttackTarget.getParty().getDimensionalRift().getType();
+									byte riftRoom = originalAttackTarget.getParty().getDimensionalRift().getCurrentRoom();
 									
-									// By default, when a faction member calls for help, attack the caller's attacker.
-									// Notify the AI with EVT_AGGRESSION
-									called.getAI().notifyEvent(CtrlEvent.EVT_AGGRESSION, originalAttackTarget, 1);
-									EventDispatcher.getInstance().notifyEventAsync(new OnAttackableFactionCall(called, getActiveChar(), originalAttackTarget.getActingPlayer(), originalAttackTarget.isSummon()), called);
-								} else if ((called instanceof L2Attackable) && (getAttackTarget() != null) && (called.getAI()._intention != CtrlIntention.AI_INTENTION_ATTACK)) {
-									((L2Attackable) called).addDamageHate(getAttackTarget(), 0, npc.getHating(getAttackTarget()));
-									called.getAI().setIntention(CtrlIntention.AI_INTENTION_ATTACK, getAttackTarget());
+									if ((npc instanceof L2RiftInvaderInstance) && !DimensionalRiftManager.getInstance().getRoom(riftType, riftRoom).checkIfInZone(npc.getX(), npc.getY(), npc.getZ())) {
+										return;
+									}
 								}
+								
+								// By default, when a faction member calls for help, attack the caller's attacker.
+								// Notify the AI with EVT_AGGRESSION
+								called.getAI().notifyEvent(CtrlEvent.EVT_AGGRESSION, originalAttackTarget, 1);
+								EventDispatcher.getInstance().notifyEventAsync(new OnAttackableFactionCall(called, getActiveChar(), originalAttackTarget.getActingPlayer(), originalAttackTarget.isSummon()), called);
+							} else if ((called instanceof L2Attackable) && (getAttackTarget() != null) && (called.getAI()._intention != CtrlIntention.AI_INTENTION_ATTACK)) {
+								((L2Attackable) called).addDamageHate(getAttackTarget(), 0, npc.getHating(getAttackTarget()));
+								called.getAI().setIntention(CtrlIntention.AI_INTENTION_ATTACK, getAttackTarget());
 							}
 						}
 					}
-				}
+				});
 			} catch (NullPointerException e) {
 				LOG.warn("{}: There has been a problem trying to think the attack!", getClass().getSimpleName(), e);
 			}
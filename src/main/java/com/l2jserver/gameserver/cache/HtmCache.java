@@ -48,6 +48,8 @@ public class HtmCache {
 	
 	private static final Map<String, String> HTML_CACHE = general().lazyCache() ? new ConcurrentHashMap<>() : new HashMap<>();
 	
+	private static final Map<String, HtmTemplate> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+	
 	private int _loadedFiles;
 	
 	private long _bytesBuffLen;
@@ -67,6 +69,7 @@ public class HtmCache {
 			LOG.info(String.format("%.3f", getMemoryUsage()) + " megabytes on " + getLoadedFiles() + " files loaded");
 		} else {
 			HTML_CACHE.clear();
+			TEMPLATE_CACHE.clear();
 			_loadedFiles = 0;
 			_bytesBuffLen = 0;
 			LOG.info("Running lazy cache.");
@@ -147,6 +150,28 @@ public class HtmCache {
 		return content;
 	}
 	
+	/**
+	 * Gets the parsed template of a HTM file.<br>
+	 * Templates are parsed on first use, and parsed again if the file was reloaded.
+	 * @param prefix the path prefix, may be {@code null}
+	 * @param path the path
+	 * @return the template, {@code null} if the file doesn't exist
+	 */
+	public HtmTemplate getTemplate(String prefix, String path) {
+		final String content = getHtm(prefix, path);
+		if (content == null) {
+			return null;
+		}
+		
+		final var newPath = Objects.requireNonNullElse(prefix, "") + path;
+		HtmTemplate template = TEMPLATE_CACHE.get(newPath);
+		if ((template == null) || !template.getContent().equals(content)) {
+			template = new HtmTemplate(content);
+			TEMPLATE_CACHE.put(newPath, template);
+		}
+		return template;
+	}
+	
 	public boolean contains(String path) {
 		return HTML_CACHE.containsKey(path);
 	}
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.l2jserver.gameserver.util.Util;
+
+/**
+ * HTML template.<br>
+ * The content of a cached HTM file split in literal segments and {@code %name%} slots, with its bypass and link actions already extracted, so a page is rendered in a single pass and its html action cache is built without parsing the rendered page.
+ */
+public final class HtmTemplate {
+	private final String _content;
+	/** Literal segments, one more than the slots. */
+	private final String[] _literals;
+	/** Slot names, with the enclosing percent signs. */
+	private final String[] _slots;
+	private final Set<String> _slotNames;
+	/** Actions of the template, the ones containing slots being templates themselves. */
+	private final Object[] _actions;
+	
+	public HtmTemplate(String content) {
+		_content = content;
+		
+		final List<String> literals = new ArrayList<>();
+		final List<String> slots = new ArrayList<>();
+		int literalStart = 0;
+		int start = content.indexOf('%');
+		while (start != -1) {
+			final int end = content.indexOf('%', start + 1);
+			if (end == -1) {
+				break;
+			}
+			
+			if (isSlotName(content, start + 1, end)) {
+				literals.add(content.substring(literalStart, start));
+				slots.add(content.substring(start, end + 1));
+				literalStart = end + 1;
+				start = content.indexOf('%', literalStart);
+			} else {
+				// The closing percent sign may open the next slot.
+				start = end;
+			}
+		}
+		literals.add(content.substring(literalStart));
+		
+		_literals = literals.toArray(new String[literals.size()]);
+		_slots = slots.toArray(new String[slots.size()]);
+		_slotNames = new HashSet<>(slots);
+		
+		final List<Object> actions = new ArrayList<>();
+		Util.findHtmlActions(content, action -> actions.add(action.indexOf('%') != -1 ? new HtmTemplate(action) : action));
+		_actions = actions.toArray();
+	}
+	
+	private static boolean isSlotName(String content, int start, int end) {
+		if (start == end) {
+			return false;
+		}
+		
+		for (int i = start; i < end; i++) {
+			final char c = content.charAt(i);
+			if (!Character.isLetterOrDigit(c) && (c != '_')) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	public String getContent() {
+		return _content;
+	}
+	
+	/**
+	 * @param slot the slot name, with the enclosing percent signs
+	 * @return {@code true} if the template has the given slot
+	 */
+	public boolean hasSlot(String slot) {
+		return _slotNames.contains(slot);
+	}
+	
+	/**
+	 * Renders the template, slots without value are kept as they are.
+	 * @param values the values by slot name, may be {@code null}
+	 * @return the rendered page
+	 */
+	public String render(Map<String, String> values) {
+		if ((values == null) || values.isEmpty() || (_slots.length == 0)) {
+			return _content;
+		}
+		
+		int length = _content.length();
+		for (String value : values.values()) {
+			length += value.length();
+		}
+		
+		final StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < _slots.length; i++) {
+			sb.append(_literals[i]);
+			final String value = values.get(_slots[i]);
+			sb.append(value != null ? value : _slots[i]);
+		}
+		sb.append(_literals[_slots.length]);
+		return sb.toString();
+	}
+	
+	/**
+	 * Gets the bypass and link actions of the rendered page.<br>
+	 * Only valid if the values don't contain actions themselves.
+	 * @param values the values by slot name, may be {@code null}
+	 * @return the actions, as stored in the html action cache
+	 */
+	public Iterable<String> getActions(Map<String, String> values) {
+		final String[] actions = new String[_actions.length];
+		for (int i = 0; i < _actions.length; i++) {
+			actions[i] = _actions[i] instanceof HtmTemplate ? ((HtmTemplate) _actions[i]).render(values) : (String) _actions[i];
+		}
+		return Arrays.asList(actions);
+	}
+}
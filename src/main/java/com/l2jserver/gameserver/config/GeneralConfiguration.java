@@ -164,6 +164,18 @@ public interface GeneralConfiguration extends Mutable, Reloadable {
 	@Key("AiMaxThread")
 	Integer getAiMaxThread();
 	
+	@Key("AiTickThreadCoreSize")
+	Integer getAiTickThreadCoreSize();
+	
+	@Key("MovementThreadCount")
+	Integer getMovementThreadCount();
+	
+	@Key("MovementParallelThreshold")
+	Integer getMovementParallelThreshold();
+	
+	@Key("CharacterLoadThreadCoreSize")
+	Integer getCharacterLoadThreadCoreSize();
+	
 	@Key("EventsMaxThread")
 	Integer getEventsMaxThread();
 	
@@ -233,6 +245,18 @@ public interface GeneralConfiguration extends Mutable, Reloadable {
 	@Key("UpdateItemsOnCharStore")
 	Boolean updateItemsOnCharStore();
 	
+	@Key("ItemUpdateInterval")
+	Integer getItemUpdateInterval();
+	
+	@Key("ItemUpdateBatchSize")
+	Integer getItemUpdateBatchSize();
+	
+	@Key("QuestVariableWriteDelay")
+	Integer getQuestVariableWriteDelay();
+	
+	@Key("UserInfoBroadcastDelay")
+	Integer getUserInfoBroadcastDelay();
+	
 	@Key("DestroyPlayerDroppedItem")
 	Boolean destroyPlayerDroppedItem();
 	
@@ -294,6 +318,15 @@ public interface GeneralConfiguration extends Mutable, Reloadable {
 	@Key("KnownListUpdateInterval")
 	Long getKnownListUpdateInterval();
 	
+	@Key("IncrementalKnownList")
+	Boolean incrementalKnownList();
+	
+	@Key("IncrementalKnownListDistance")
+	Integer getIncrementalKnownListDistance();
+	
+	@Key("KnownListConsistencyCheckInterval")
+	Long getKnownListConsistencyCheckInterval();
+	
 	@Key("CheckKnownList")
 	Boolean checkKnownList();
 	
@@ -81,6 +81,15 @@ public interface GeodataConfiguration extends Mutable, Reloadable {
 	@Key("MaxPostfilterPasses")
 	Integer getMaxPostfilterPasses();
 	
+	@Key("PathCacheSize")
+	Integer getPathCacheSize();
+	
+	@Key("PathCacheTime")
+	Integer getPathCacheTime();
+	
+	@Key("LosCacheSize")
+	Integer getLosCacheSize();
+	
 	@Key("DebugPath")
 	Boolean debugPath();
 	
@@ -62,6 +62,12 @@ public interface NPCConfiguration extends Reloadable {
 	@Key("MaxDriftRange")
 	Integer getMaxDriftRange();
 	
+	@Key("AttackableAiSleep")
+	Boolean attackableAiSleep();
+	
+	@Key("AttackableAiSleepRange")
+	Integer getAttackableAiSleepRange();
+	
 	@Key("ShowNpcLevel")
 	Boolean showNpcLevel();
 	
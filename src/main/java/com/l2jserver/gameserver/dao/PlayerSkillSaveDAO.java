@@ -38,6 +38,12 @@ public interface PlayerSkillSaveDAO {
 	 */
 	void delete(L2PcInstance player, int classIndex);
 	
+	/**
+	 * Deletes the saved effects and reuse of the given skills for all players from the database.
+	 * @param skillIds the skill IDs
+	 */
+	void deleteSkills(int... skillIds);
+	
 	/**
 	 * Stores the player skills in the database.
 	 * @param player the player
@@ -45,6 +51,14 @@ public interface PlayerSkillSaveDAO {
 	 */
 	void insert(L2PcInstance player, boolean storeEffects);
 	
+	/**
+	 * Replaces the stored player skills of the current class in the database.<br>
+	 * Nothing is written if they did not change since the last store.
+	 * @param player the player
+	 * @param storeEffects if {@code true} effects will be stored
+	 */
+	void store(L2PcInstance player, boolean storeEffects);
+	
 	/**
 	 * Restores the player skills from the database.
 	 * @param player the player
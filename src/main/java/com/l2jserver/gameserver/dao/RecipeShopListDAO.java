@@ -30,4 +30,11 @@ public interface RecipeShopListDAO {
 	void delete(L2PcInstance player);
 	
 	void insert(L2PcInstance player);
+	
+	/**
+	 * Replaces the stored recipe shop list of the player.<br>
+	 * Nothing is written if it did not change since the last store.
+	 * @param player the player
+	 */
+	void store(L2PcInstance player);
 }
@@ -20,10 +20,15 @@ package com.l2jserver.gameserver.dao.impl.mysql;
 
 import static com.l2jserver.gameserver.config.Configuration.character;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +56,11 @@ public class PlayerSkillSaveDAOMySQLImpl implements PlayerSkillSaveDAO {
 	
 	private static final String DELETE = "DELETE FROM character_skills_save WHERE charId=? AND class_index=?";
 	
+	private static final String DELETE_SKILL = "DELETE FROM character_skills_save WHERE skill_id=?";
+	
+	/** Rows are prefixed by a row holding the class index. */
+	private final StoredRows _storedRows = new StoredRows();
+	
 	@Override
 	public void delete(L2PcInstance player, int classIndex) {
 		try (var con = ConnectionFactory.getInstance().getConnection();
@@ -58,7 +68,17 @@ public class PlayerSkillSaveDAOMySQLImpl implements PlayerSkillSaveDAO {
 			ps.setInt(1, player.getObjectId());
 			ps.setInt(2, classIndex);
 			ps.execute();
+			if (classIndex == player.getClassIndex()) {
+				_storedRows.set(player, new long[][] {
+					{
+						classIndex
+					}
+				});
+			} else {
+				_storedRows.invalidate(player);
+			}
 		} catch (Exception ex) {
+			_storedRows.invalidate(player);
 			LOG.error("Could not delete all effect data for player {}!", player, ex);
 		}
 	}
@@ -68,87 +88,156 @@ public class PlayerSkillSaveDAOMySQLImpl implements PlayerSkillSaveDAO {
 		delete(player, player.getClassIndex());
 	}
 	
+	@Override
+	public void deleteSkills(int... skillIds) {
+		try (var con = ConnectionFactory.getInstance().getConnection();
+			var ps = con.prepareStatement(DELETE_SKILL)) {
+			for (int skillId : skillIds) {
+				ps.setInt(1, skillId);
+				ps.addBatch();
+			}
+			ps.executeBatch();
+		} catch (Exception ex) {
+			LOG.error("Could not delete saved skills {}!", Arrays.toString(skillIds), ex);
+		} finally {
+			// Rows of any player may have been deleted.
+			_storedRows.clear();
+		}
+	}
+	
 	@Override
 	public void insert(L2PcInstance player, boolean storeEffects) {
+		final long[][] rows = getRows(player, storeEffects);
+		try (var con = ConnectionFactory.getInstance().getConnection()) {
+			insert(con, player, rows);
+		} catch (Exception e) {
+			LOG.error("Could not store {} effect data!", player, e);
+		}
+		_storedRows.invalidate(player);
+	}
+	
+	@Override
+	public void store(L2PcInstance player, boolean storeEffects) {
+		final long[][] rows = getRows(player, storeEffects);
+		if (_storedRows.isStored(player, rows)) {
+			return;
+		}
+		
 		try (var con = ConnectionFactory.getInstance().getConnection();
-			var ps = con.prepareStatement(INSERT)) {
-			int buff_index = 0;
-			final List<Integer> storedSkills = new ArrayList<>();
-			
-			// Store all effect data along with calculated remaining
-			// reuse delays for matching skills. 'restore_type'= 0.
-			if (storeEffects) {
-				for (BuffInfo info : player.getEffectList().getEffects()) {
-					if (info == null) {
-						continue;
-					}
-					
-					final Skill skill = info.getSkill();
-					// Do not save heals.
-					if (skill.getAbnormalType() == AbnormalType.LIFE_FORCE_OTHERS) {
-						continue;
-					}
-					
-					if (skill.isToggle()) {
-						continue;
-					}
-					
-					// Dances and songs are not kept in retail.
-					if (skill.isDance() && !character().storeDances()) {
-						continue;
-					}
-					
-					if (storedSkills.contains(skill.getReuseHashCode())) {
-						continue;
-					}
-					
-					storedSkills.add(skill.getReuseHashCode());
-					
-					ps.setInt(1, player.getObjectId());
-					ps.setInt(2, skill.getId());
-					ps.setInt(3, skill.getLevel());
-					ps.setInt(4, info.getTime());
-					
-					final TimeStamp t = player.getSkillReuseTimeStamp(skill.getReuseHashCode());
-					ps.setLong(5, (t != null) && t.hasNotPassed() ? t.getReuse() : 0);
-					ps.setLong(6, (t != null) && t.hasNotPassed() ? t.getStamp() : 0);
-					
-					ps.setInt(7, 0); // Store type 0, active buffs/debuffs.
-					ps.setInt(8, player.getClassIndex());
-					ps.setInt(9, ++buff_index);
-					ps.execute();
+			var ps = con.prepareStatement(DELETE)) {
+			con.setAutoCommit(false);
+			ps.setInt(1, player.getObjectId());
+			ps.setInt(2, player.getClassIndex());
+			ps.execute();
+			insert(con, player, rows);
+			con.commit();
+			_storedRows.set(player, rows);
+		} catch (Exception e) {
+			_storedRows.invalidate(player);
+			LOG.error("Could not store {} effect data!", player, e);
+		}
+	}
+	
+	private static void insert(Connection con, L2PcInstance player, long[][] rows) throws SQLException {
+		if (rows.length <= 1) {
+			return;
+		}
+		
+		try (var ps = con.prepareStatement(INSERT)) {
+			for (int i = 1; i < rows.length; i++) {
+				final long[] row = rows[i];
+				ps.setInt(1, player.getObjectId());
+				ps.setInt(2, (int) row[0]);
+				ps.setInt(3, (int) row[1]);
+				ps.setInt(4, (int) row[2]);
+				ps.setLong(5, row[3]);
+				ps.setLong(6, row[4]);
+				ps.setInt(7, (int) row[5]);
+				ps.setInt(8, (int) rows[0][0]);
+				ps.setInt(9, i);
+				ps.addBatch();
+			}
+			ps.executeBatch();
+		}
+	}
+	
+	/**
+	 * Gets the rows to store for the current class of the player.<br>
+	 * The first row holds the class index, the next ones the skill id, skill level, remaining time, reuse delay, reuse time stamp and restore type, in buff index order.
+	 * @param player the player
+	 * @param storeEffects if {@code true} effects will be stored
+	 * @return the rows to store
+	 */
+	private static long[][] getRows(L2PcInstance player, boolean storeEffects) {
+		final List<long[]> rows = new ArrayList<>();
+		rows.add(new long[] {
+			player.getClassIndex()
+		});
+		final Set<Integer> storedSkills = new HashSet<>();
+		
+		// Store all effect data along with calculated remaining
+		// reuse delays for matching skills. 'restore_type'= 0.
+		if (storeEffects) {
+			for (BuffInfo info : player.getEffectList().getEffects()) {
+				if (info == null) {
+					continue;
+				}
+				
+				final Skill skill = info.getSkill();
+				// Do not save heals.
+				if (skill.getAbnormalType() == AbnormalType.LIFE_FORCE_OTHERS) {
+					continue;
 				}
+				
+				if (skill.isToggle()) {
+					continue;
+				}
+				
+				// Dances and songs are not kept in retail.
+				if (skill.isDance() && !character().storeDances()) {
+					continue;
+				}
+				
+				if (!storedSkills.add(skill.getReuseHashCode())) {
+					continue;
+				}
+				
+				final TimeStamp t = player.getSkillReuseTimeStamp(skill.getReuseHashCode());
+				rows.add(new long[] {
+					skill.getId(),
+					skill.getLevel(),
+					info.getTime(),
+					(t != null) && t.hasNotPassed() ? t.getReuse() : 0,
+					(t != null) && t.hasNotPassed() ? t.getStamp() : 0,
+					0 // Store type 0, active buffs/debuffs.
+				});
 			}
-			
-			// Skills under reuse.
-			final Map<Integer, TimeStamp> reuseTimeStamps = player.getSkillReuseTimeStamps();
-			if (reuseTimeStamps != null) {
-				for (Entry<Integer, TimeStamp> ts : reuseTimeStamps.entrySet()) {
-					final int hash = ts.getKey();
-					if (storedSkills.contains(hash)) {
-						continue;
-					}
-					
-					final TimeStamp t = ts.getValue();
-					if ((t != null) && t.hasNotPassed()) {
-						storedSkills.add(hash);
-						
-						ps.setInt(1, player.getObjectId());
-						ps.setInt(2, t.getSkillId());
-						ps.setInt(3, t.getSkillLvl());
-						ps.setInt(4, -1);
-						ps.setLong(5, t.getReuse());
-						ps.setLong(6, t.getStamp());
-						ps.setInt(7, 1); // Restore type 1, skill reuse.
-						ps.setInt(8, player.getClassIndex());
-						ps.setInt(9, ++buff_index);
-						ps.execute();
-					}
+		}
+		
+		// Skills under reuse.
+		final Map<Integer, TimeStamp> reuseTimeStamps = player.getSkillReuseTimeStamps();
+		if (reuseTimeStamps != null) {
+			for (Entry<Integer, TimeStamp> ts : reuseTimeStamps.entrySet()) {
+				final int hash = ts.getKey();
+				if (storedSkills.contains(hash)) {
+					continue;
+				}
+				
+				final TimeStamp t = ts.getValue();
+				if ((t != null) && t.hasNotPassed()) {
+					storedSkills.add(hash);
+					rows.add(new long[] {
+						t.getSkillId(),
+						t.getSkillLvl(),
+						-1,
+						t.getReuse(),
+						t.getStamp(),
+						1 // Restore type 1, skill reuse.
+					});
 				}
 			}
-		} catch (Exception e) {
-			LOG.error("Could not store {} effect data!", player, e);
 		}
+		return rows.toArray(new long[rows.size()][]);
 	}
 	
 	@Override
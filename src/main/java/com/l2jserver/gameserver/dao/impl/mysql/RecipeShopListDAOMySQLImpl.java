@@ -18,6 +18,11 @@
  */
 package com.l2jserver.gameserver.dao.impl.mysql;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +45,9 @@ public class RecipeShopListDAOMySQLImpl implements RecipeShopListDAO {
 	
 	private static final String SELECT = "SELECT * FROM character_recipeshoplist WHERE charId=? ORDER BY `index`";
 	
+	/** Rows of recipe id and price, in index order. */
+	private final StoredRows _storedRows = new StoredRows();
+	
 	@Override
 	public void load(L2PcInstance player) {
 		try (var con = ConnectionFactory.getInstance().getConnection();
@@ -52,6 +60,7 @@ public class RecipeShopListDAOMySQLImpl implements RecipeShopListDAO {
 					player.getManufactureItems().put(rs.getInt("recipeId"), new L2ManufactureItem(rs.getInt("recipeId"), rs.getLong("price")));
 				}
 			}
+			_storedRows.set(player, getRows(player));
 		} catch (Exception e) {
 			LOG.error("Could not restore recipe shop list data for {}, {}", player, e);
 		}
@@ -63,30 +72,75 @@ public class RecipeShopListDAOMySQLImpl implements RecipeShopListDAO {
 			var ps = con.prepareStatement(DELETE)) {
 			ps.setInt(1, player.getObjectId());
 			ps.execute();
+			_storedRows.set(player, new long[0][]);
 		} catch (Exception e) {
+			_storedRows.invalidate(player);
 			LOG.error("Could not store recipe shop for {}, {}", player, e);
 		}
 	}
 	
 	@Override
 	public void insert(L2PcInstance player) {
-		if (!player.hasManufactureShop()) {
+		final long[][] rows = getRows(player);
+		try (var con = ConnectionFactory.getInstance().getConnection()) {
+			insert(con, player, rows);
+		} catch (Exception e) {
+			LOG.error("Could not store recipe shop for {}, {}", player, e);
+		}
+		_storedRows.invalidate(player);
+	}
+	
+	@Override
+	public void store(L2PcInstance player) {
+		final long[][] rows = getRows(player);
+		if (_storedRows.isStored(player, rows)) {
 			return;
 		}
 		
 		try (var con = ConnectionFactory.getInstance().getConnection();
-			var ps = con.prepareStatement(INSERT)) {
+			var ps = con.prepareStatement(DELETE)) {
+			con.setAutoCommit(false);
+			ps.setInt(1, player.getObjectId());
+			ps.execute();
+			insert(con, player, rows);
+			con.commit();
+			_storedRows.set(player, rows);
+		} catch (Exception e) {
+			_storedRows.invalidate(player);
+			LOG.error("Could not store recipe shop for {}, {}", player, e);
+		}
+	}
+	
+	private static void insert(Connection con, L2PcInstance player, long[][] rows) throws SQLException {
+		if (rows.length == 0) {
+			return;
+		}
+		
+		try (var ps = con.prepareStatement(INSERT)) {
 			int i = 1;
-			for (L2ManufactureItem item : player.getManufactureItems().values()) {
+			for (long[] row : rows) {
 				ps.setInt(1, player.getObjectId());
-				ps.setInt(2, item.getRecipeId());
-				ps.setLong(3, item.getCost());
+				ps.setInt(2, (int) row[0]);
+				ps.setLong(3, row[1]);
 				ps.setInt(4, i++);
 				ps.addBatch();
 			}
 			ps.executeBatch();
-		} catch (Exception e) {
-			LOG.error("Could not store recipe shop for {}, {}", player, e);
 		}
 	}
+	
+	private static long[][] getRows(L2PcInstance player) {
+		if (!player.hasManufactureShop()) {
+			return new long[0][];
+		}
+		
+		final List<long[]> rows = new ArrayList<>();
+		for (L2ManufactureItem item : player.getManufactureItems().values()) {
+			rows.add(new long[] {
+				item.getRecipeId(),
+				item.getCost()
+			});
+		}
+		return rows.toArray(new long[rows.size()][]);
+	}
 }
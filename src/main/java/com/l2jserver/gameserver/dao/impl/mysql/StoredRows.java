@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.dao.impl.mysql;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+
+/**
+ * Rows last written or read by a DAO for each player.<br>
+ * Used to skip the writes of rows that did not change since the last store, entries are dropped along with the players.
+ */
+final class StoredRows {
+	private final Map<L2PcInstance, long[][]> _rows = Collections.synchronizedMap(new WeakHashMap<>());
+	
+	/**
+	 * Gets the rows last stored for the player.
+	 * @param player the player
+	 * @return the stored rows, {@code null} if unknown
+	 */
+	long[][] get(L2PcInstance player) {
+		return _rows.get(player);
+	}
+	
+	/**
+	 * Verifies if the given rows are the ones stored for the player.
+	 * @param player the player
+	 * @param rows the rows to store
+	 * @return {@code true} if the rows did not change since the last store
+	 */
+	boolean isStored(L2PcInstance player, long[][] rows) {
+		return Arrays.deepEquals(_rows.get(player), rows);
+	}
+	
+	/**
+	 * Sets the rows stored for the player.
+	 * @param player the player
+	 * @param rows the stored rows
+	 */
+	void set(L2PcInstance player, long[][] rows) {
+		_rows.put(player, rows);
+	}
+	
+	/**
+	 * Forgets the rows stored for the player, the next store writes them all.
+	 * @param player the player
+	 */
+	void invalidate(L2PcInstance player) {
+		_rows.remove(player);
+	}
+	
+	/**
+	 * Forgets the rows stored for all players, when rows were written to the database by other means.
+	 */
+	void clear() {
+		_rows.clear();
+	}
+}
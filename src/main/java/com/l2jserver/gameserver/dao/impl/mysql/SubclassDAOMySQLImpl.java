@@ -18,6 +18,8 @@
  */
 package com.l2jserver.gameserver.dao.impl.mysql;
 
+import java.util.Arrays;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,29 +44,65 @@ public class SubclassDAOMySQLImpl implements SubclassDAO {
 	
 	private static final String DELETE = "DELETE FROM character_subclasses WHERE charId=? AND class_index=?";
 	
+	/** Rows of class index, class id, exp, sp and level. */
+	private final StoredRows _storedRows = new StoredRows();
+	
 	@Override
 	public void update(L2PcInstance player) {
 		if (player.getTotalSubClasses() <= 0) {
 			return;
 		}
 		
+		final long[][] rows = player.getSubClasses().values().stream().map(SubclassDAOMySQLImpl::toRow).toArray(long[][]::new);
+		final long[][] stored = _storedRows.get(player);
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var ps = con.prepareStatement(UPDATE)) {
-			for (SubClass subClass : player.getSubClasses().values()) {
-				ps.setLong(1, subClass.getExp());
-				ps.setInt(2, subClass.getSp());
-				ps.setInt(3, subClass.getLevel());
-				ps.setInt(4, subClass.getClassId());
+			int updates = 0;
+			for (long[] row : rows) {
+				if (isStored(stored, row)) {
+					continue;
+				}
+				
+				ps.setLong(1, row[2]);
+				ps.setInt(2, (int) row[3]);
+				ps.setInt(3, (int) row[4]);
+				ps.setInt(4, (int) row[1]);
 				ps.setInt(5, player.getObjectId());
-				ps.setInt(6, subClass.getClassIndex());
+				ps.setInt(6, (int) row[0]);
 				ps.addBatch();
+				updates++;
 			}
-			ps.executeBatch();
+			if (updates > 0) {
+				ps.executeBatch();
+			}
+			_storedRows.set(player, rows);
 		} catch (Exception e) {
+			_storedRows.invalidate(player);
 			LOG.error("Could not store sub class data for {} : {}", player, e);
 		}
 	}
 	
+	private static long[] toRow(SubClass subClass) {
+		return new long[] {
+			subClass.getClassIndex(),
+			subClass.getClassId(),
+			subClass.getExp(),
+			subClass.getSp(),
+			subClass.getLevel()
+		};
+	}
+	
+	private static boolean isStored(long[][] stored, long[] row) {
+		if (stored != null) {
+			for (long[] storedRow : stored) {
+				if (Arrays.equals(storedRow, row)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
 	@Override
 	public boolean insert(L2PcInstance player, SubClass newClass) {
 		try (var con = ConnectionFactory.getInstance().getConnection();
@@ -76,6 +114,7 @@ public class SubclassDAOMySQLImpl implements SubclassDAO {
 			ps.setInt(5, newClass.getLevel());
 			ps.setInt(6, newClass.getClassIndex());
 			ps.execute();
+			_storedRows.invalidate(player);
 		} catch (Exception e) {
 			LOG.error("Could not add character sub class for {}, {}", player, e);
 			return false;
@@ -90,6 +129,7 @@ public class SubclassDAOMySQLImpl implements SubclassDAO {
 			ps.setInt(1, player.getObjectId());
 			ps.setInt(2, classIndex);
 			ps.execute();
+			_storedRows.invalidate(player);
 		} catch (Exception e) {
 			LOG.error("Could not delete subclass for {} to class index {}, {}", player, classIndex, e);
 		}
@@ -113,6 +153,7 @@ public class SubclassDAOMySQLImpl implements SubclassDAO {
 					player.getSubClasses().put(subClass.getClassIndex(), subClass);
 				}
 			}
+			_storedRows.set(player, player.getSubClasses().values().stream().map(SubclassDAOMySQLImpl::toRow).toArray(long[][]::new));
 		} catch (Exception e) {
 			LOG.error("Could not restore classes for {}, {}", player, e);
 		}
@@ -37,6 +37,7 @@ import com.l2jserver.gameserver.instancemanager.MapRegionManager;
 import com.l2jserver.gameserver.model.StatsSet;
 import com.l2jserver.gameserver.model.actor.instance.L2DoorInstance;
 import com.l2jserver.gameserver.model.actor.templates.L2DoorTemplate;
+import com.l2jserver.gameserver.model.entity.Instance;
 import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
 import com.l2jserver.gameserver.util.IXmlReader;
 
@@ -58,6 +59,11 @@ public class DoorData implements IXmlReader {
 	
 	private final Map<Integer, List<L2DoorInstance>> _regions = new HashMap<>();
 	
+	/** Size of the cells of the door grid, as a shift of world coordinates. */
+	private static final int CELL_SHIFT = 11;
+	/** Doors by grid cell, a door is in every cell its nodes bounding box overlaps. */
+	private final Map<Integer, List<L2DoorInstance>> _grid = new HashMap<>();
+	
 	protected DoorData() {
 		load();
 	}
@@ -67,6 +73,7 @@ public class DoorData implements IXmlReader {
 		_doors.clear();
 		GROUPS.clear();
 		_regions.clear();
+		_grid.clear();
 		parseDatapackFile("data/doors.xml");
 		LOG.info("Loaded {} door templates for {} regions.", _doors.size(), _regions.size());
 	}
@@ -135,6 +142,17 @@ public class DoorData implements IXmlReader {
 			_regions.put(region, new ArrayList<>());
 		}
 		_regions.get(region).add(door);
+		
+		final L2DoorTemplate template = door.getTemplate();
+		for (int cellX = template.getNodeMinX() >> CELL_SHIFT; cellX <= (template.getNodeMaxX() >> CELL_SHIFT); cellX++) {
+			for (int cellY = template.getNodeMinY() >> CELL_SHIFT; cellY <= (template.getNodeMaxY() >> CELL_SHIFT); cellY++) {
+				_grid.computeIfAbsent(getCellKey(cellX, cellY), k -> new ArrayList<>()).add(door);
+			}
+		}
+	}
+	
+	private static int getCellKey(int cellX, int cellY) {
+		return (cellX << 16) | (cellY & 0xFFFF);
 	}
 	
 	public static void addDoorGroup(String groupName, int doorId) {
@@ -170,44 +188,74 @@ public class DoorData implements IXmlReader {
 	 * @return {@code boolean}
 	 */
 	public boolean checkIfDoorsBetween(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean doubleFaceCheck) {
-		Collection<L2DoorInstance> allDoors;
-		if ((instanceId > 0) && (InstanceManager.getInstance().getInstance(instanceId) != null)) {
-			allDoors = InstanceManager.getInstance().getInstance(instanceId).getDoors();
-		} else {
-			allDoors = _regions.get(MapRegionManager.getInstance().getMapRegionLocId(x, y));
+		final int minX = Math.min(x, tx);
+		final int maxX = Math.max(x, tx);
+		final int minY = Math.min(y, ty);
+		final int maxY = Math.max(y, ty);
+		
+		final Instance instance = instanceId > 0 ? InstanceManager.getInstance().getInstance(instanceId) : null;
+		if (instance != null) {
+			for (L2DoorInstance door : instance.getDoors()) {
+				if (isDoorBetween(door, x, y, z, tx, ty, tz, minX, maxX, minY, maxY, doubleFaceCheck)) {
+					return true;
+				}
+			}
+			return false;
 		}
 		
-		if (allDoors == null) {
+		// Only the doors of the grid cells overlapped by the bounding box of the segment are checked.
+		for (int cellX = minX >> CELL_SHIFT; cellX <= (maxX >> CELL_SHIFT); cellX++) {
+			for (int cellY = minY >> CELL_SHIFT; cellY <= (maxY >> CELL_SHIFT); cellY++) {
+				final List<L2DoorInstance> doors = _grid.get(getCellKey(cellX, cellY));
+				if (doors == null) {
+					continue;
+				}
+				
+				for (L2DoorInstance door : doors) {
+					if (isDoorBetween(door, x, y, z, tx, ty, tz, minX, maxX, minY, maxY, doubleFaceCheck)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+	
+	private static boolean isDoorBetween(L2DoorInstance door, int x, int y, int z, int tx, int ty, int tz, int minX, int maxX, int minY, int maxY, boolean doubleFaceCheck) {
+		// check dead and open
+		if (door.isDead() || door.getOpen() || !door.checkCollision() || (door.getX(0) == 0)) {
+			return false;
+		}
+		
+		// check bounding boxes before the faces
+		final L2DoorTemplate template = door.getTemplate();
+		if ((maxX < template.getNodeMinX()) || (minX > template.getNodeMaxX()) || (maxY < template.getNodeMinY()) || (minY > template.getNodeMaxY())) {
+			return false;
+		}
+		if ((Math.max(z, tz) <= door.getZMin()) || (Math.min(z, tz) >= door.getZMax())) {
 			return false;
 		}
 		
-		for (L2DoorInstance doorInst : allDoors) {
-			// check dead and open
-			if (doorInst.isDead() || doorInst.getOpen() || !doorInst.checkCollision() || (doorInst.getX(0) == 0)) {
+		boolean intersectFace = false;
+		for (int i = 0; i < 4; i++) {
+			int j = (i + 1) < 4 ? i + 1 : 0;
+			// lower part of the multiplier fraction, if it is 0 we avoid an error and also know that the lines are parallel
+			int denominator = ((ty - y) * (door.getX(i) - door.getX(j))) - ((tx - x) * (door.getY(i) - door.getY(j)));
+			if (denominator == 0) {
 				continue;
 			}
 			
-			boolean intersectFace = false;
-			for (int i = 0; i < 4; i++) {
-				int j = (i + 1) < 4 ? i + 1 : 0;
-				// lower part of the multiplier fraction, if it is 0 we avoid an error and also know that the lines are parallel
-				int denominator = ((ty - y) * (doorInst.getX(i) - doorInst.getX(j))) - ((tx - x) * (doorInst.getY(i) - doorInst.getY(j)));
-				if (denominator == 0) {
-					continue;
-				}
-				
-				// multipliers to the equations of the lines. If they are lower than 0 or bigger than 1, we know that segments don't intersect
-				float multiplier1 = (float) (((doorInst.getX(j) - doorInst.getX(i)) * (y - doorInst.getY(i))) - ((doorInst.getY(j) - doorInst.getY(i)) * (x - doorInst.getX(i)))) / denominator;
-				float multiplier2 = (float) (((tx - x) * (y - doorInst.getY(i))) - ((ty - y) * (x - doorInst.getX(i)))) / denominator;
-				if ((multiplier1 >= 0) && (multiplier1 <= 1) && (multiplier2 >= 0) && (multiplier2 <= 1)) {
-					int intersectZ = Math.round(z + (multiplier1 * (tz - z)));
-					// now checking if the resulting point is between door's min and max z
-					if ((intersectZ > doorInst.getZMin()) && (intersectZ < doorInst.getZMax())) {
-						if (!doubleFaceCheck || intersectFace) {
-							return true;
-						}
-						intersectFace = true;
+			// multipliers to the equations of the lines. If they are lower than 0 or bigger than 1, we know that segments don't intersect
+			float multiplier1 = (float) (((door.getX(j) - door.getX(i)) * (y - door.getY(i))) - ((door.getY(j) - door.getY(i)) * (x - door.getX(i)))) / denominator;
+			float multiplier2 = (float) (((tx - x) * (y - door.getY(i))) - ((ty - y) * (x - door.getX(i)))) / denominator;
+			if ((multiplier1 >= 0) && (multiplier1 <= 1) && (multiplier2 >= 0) && (multiplier2 <= 1)) {
+				int intersectZ = Math.round(z + (multiplier1 * (tz - z)));
+				// now checking if the resulting point is between door's min and max z
+				if ((intersectZ > door.getZMin()) && (intersectZ < door.getZMax())) {
+					if (!doubleFaceCheck || intersectFace) {
+						return true;
 					}
+					intersectFace = true;
 				}
 			}
 		}
@@ -23,6 +23,9 @@ import static com.l2jserver.gameserver.config.Configuration.character;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -97,6 +100,15 @@ public final class SkillTreesData implements IXmlReader {
 	private final Map<Integer, L2SkillLearn> _gameMasterSkillTree = new LinkedHashMap<>();
 	private final Map<Integer, L2SkillLearn> _gameMasterAuraSkillTree = new LinkedHashMap<>();
 	
+	// Flattened trees, built at load time
+	private Map<ClassId, Map<Integer, L2SkillLearn>> _completeClassSkillTrees = Collections.emptyMap();
+	private Map<ClassId, L2SkillLearn[]> _completeClassSkillsByLevel = Collections.emptyMap(); // Sorted by get level
+	// Resolved skill trees, built on first use since skills are loaded after the skill trees
+	private volatile Map<Integer, Skill> _nobleSkills;
+	private volatile Map<Integer, Skill> _heroSkills;
+	private volatile Map<Integer, Skill> _gameMasterSkills;
+	private volatile Map<Integer, Skill> _gameMasterAuraSkills;
+	
 	// Checker, sorted arrays of hash codes
 	private Map<Integer, int[]> _skillsByClassIdHashCodes; // Occupation skills
 	private Map<Integer, int[]> _skillsByRaceHashCodes; // Race-specific Transformations
@@ -129,10 +141,17 @@ public final class SkillTreesData implements IXmlReader {
 		_heroSkillTree.clear();
 		_gameMasterSkillTree.clear();
 		_gameMasterAuraSkillTree.clear();
+		_nobleSkills = null;
+		_heroSkills = null;
+		_gameMasterSkills = null;
+		_gameMasterAuraSkills = null;
 		
 		// Load files.
 		parseDatapackDirectory("data/skillTrees/", false);
 		
+		// Flatten class skill trees.
+		generateCompleteClassSkillTrees();
+		
 		// Generate check arrays.
 		generateCheckArrays();
 		
@@ -237,11 +256,43 @@ public final class SkillTreesData implements IXmlReader {
 	/**
 	 * Method to get the complete skill tree for a given class id.<br>
 	 * Include all skills common to all classes.<br>
-	 * Includes all parent skill trees.
+	 * Includes all parent skill trees.<br>
+	 * The tree is built at load time and can't be modified.
 	 * @param classId the class skill tree Id
 	 * @return the complete Class Skill Tree including skill trees from parent class for a given {@code classId}
 	 */
 	public Map<Integer, L2SkillLearn> getCompleteClassSkillTree(ClassId classId) {
+		final Map<Integer, L2SkillLearn> skillTree = _completeClassSkillTrees.get(classId);
+		return skillTree != null ? skillTree : Collections.unmodifiableMap(_commonSkillTree);
+	}
+	
+	/**
+	 * Gets the complete skill tree for a given class id, sorted by get level.
+	 * @param classId the class skill tree Id
+	 * @return the skills of the complete Class Skill Tree for a given {@code classId}, sorted by get level
+	 */
+	private L2SkillLearn[] getCompleteClassSkillsByLevel(ClassId classId) {
+		final L2SkillLearn[] skills = _completeClassSkillsByLevel.get(classId);
+		return skills != null ? skills : sortByGetLevel(_commonSkillTree.values());
+	}
+	
+	/**
+	 * Sorts skills by get level, skills with the same get level keep their order.
+	 * @param skillTree the skills to sort
+	 * @return the sorted skills
+	 */
+	private static L2SkillLearn[] sortByGetLevel(Collection<L2SkillLearn> skillTree) {
+		final L2SkillLearn[] skills = skillTree.toArray(new L2SkillLearn[skillTree.size()]);
+		Arrays.sort(skills, Comparator.comparingInt(L2SkillLearn::getGetLevel));
+		return skills;
+	}
+	
+	/**
+	 * Builds the complete skill tree for a given class id.
+	 * @param classId the class skill tree Id
+	 * @return the complete Class Skill Tree including skill trees from parent class for a given {@code classId}
+	 */
+	private Map<Integer, L2SkillLearn> buildCompleteClassSkillTree(ClassId classId) {
 		// Add all skills that belong to all classes.
 		final Map<Integer, L2SkillLearn> skillTree = new LinkedHashMap<>(_commonSkillTree);
 		final LinkedList<ClassId> classSequence = new LinkedList<>();
@@ -333,10 +384,10 @@ public final class SkillTreesData implements IXmlReader {
 	 * @return the complete Noble Skill Tree
 	 */
 	public Map<Integer, Skill> getNobleSkillTree() {
-		final Map<Integer, Skill> tree = new HashMap<>();
-		final SkillData st = SkillData.getInstance();
-		for (Entry<Integer, L2SkillLearn> e : _nobleSkillTree.entrySet()) {
-			tree.put(e.getKey(), st.getSkill(e.getValue().getSkillId(), e.getValue().getSkillLevel()));
+		Map<Integer, Skill> tree = _nobleSkills;
+		if (tree == null) {
+			tree = resolveSkills(_nobleSkillTree);
+			_nobleSkills = tree;
 		}
 		return tree;
 	}
@@ -346,10 +397,10 @@ public final class SkillTreesData implements IXmlReader {
 	 * @return the complete Hero Skill Tree
 	 */
 	public Map<Integer, Skill> getHeroSkillTree() {
-		final Map<Integer, Skill> tree = new HashMap<>();
-		final SkillData st = SkillData.getInstance();
-		for (Entry<Integer, L2SkillLearn> e : _heroSkillTree.entrySet()) {
-			tree.put(e.getKey(), st.getSkill(e.getValue().getSkillId(), e.getValue().getSkillLevel()));
+		Map<Integer, Skill> tree = _heroSkills;
+		if (tree == null) {
+			tree = resolveSkills(_heroSkillTree);
+			_heroSkills = tree;
 		}
 		return tree;
 	}
@@ -359,10 +410,10 @@ public final class SkillTreesData implements IXmlReader {
 	 * @return the complete Game Master Skill Tree
 	 */
 	public Map<Integer, Skill> getGMSkillTree() {
-		final Map<Integer, Skill> tree = new HashMap<>();
-		final SkillData st = SkillData.getInstance();
-		for (Entry<Integer, L2SkillLearn> e : _gameMasterSkillTree.entrySet()) {
-			tree.put(e.getKey(), st.getSkill(e.getValue().getSkillId(), e.getValue().getSkillLevel()));
+		Map<Integer, Skill> tree = _gameMasterSkills;
+		if (tree == null) {
+			tree = resolveSkills(_gameMasterSkillTree);
+			_gameMasterSkills = tree;
 		}
 		return tree;
 	}
@@ -372,12 +423,26 @@ public final class SkillTreesData implements IXmlReader {
 	 * @return the complete Game Master Aura Skill Tree
 	 */
 	public Map<Integer, Skill> getGMAuraSkillTree() {
+		Map<Integer, Skill> tree = _gameMasterAuraSkills;
+		if (tree == null) {
+			tree = resolveSkills(_gameMasterAuraSkillTree);
+			_gameMasterAuraSkills = tree;
+		}
+		return tree;
+	}
+	
+	/**
+	 * Resolves the skills of a skill tree.
+	 * @param skillTree the skill tree to resolve
+	 * @return an unmodifiable map of skills by skill hash code
+	 */
+	private static Map<Integer, Skill> resolveSkills(Map<Integer, L2SkillLearn> skillTree) {
 		final Map<Integer, Skill> tree = new HashMap<>();
 		final SkillData st = SkillData.getInstance();
-		for (Entry<Integer, L2SkillLearn> e : _gameMasterAuraSkillTree.entrySet()) {
+		for (Entry<Integer, L2SkillLearn> e : skillTree.entrySet()) {
 			tree.put(e.getKey(), st.getSkill(e.getValue().getSkillId(), e.getValue().getSkillLevel()));
 		}
-		return tree;
+		return Collections.unmodifiableMap(tree);
 	}
 	
 	/**
@@ -403,20 +468,26 @@ public final class SkillTreesData implements IXmlReader {
 	 */
 	private List<L2SkillLearn> getAvailableSkills(L2PcInstance player, ClassId classId, boolean includeByFs, boolean includeAutoGet, ISkillsHolder holder) {
 		final List<L2SkillLearn> result = new ArrayList<>();
-		final Map<Integer, L2SkillLearn> skills = getCompleteClassSkillTree(classId);
+		final L2SkillLearn[] skills = getCompleteClassSkillsByLevel(classId);
 		
-		if (skills.isEmpty()) {
+		if (skills.length == 0) {
 			// The Skill Tree for this class is undefined.
 			LOG.warn("{}: Skilltree for class {} is not defined!", getClass().getSimpleName(), classId);
 			return result;
 		}
 		
-		for (L2SkillLearn skill : skills.values()) {
+		final int level = player.getLevel();
+		for (L2SkillLearn skill : skills) {
+			// Skills are sorted by get level, none of the remaining skills is available.
+			if (skill.getGetLevel() > level) {
+				break;
+			}
+			
 			if (((skill.getSkillId() == CommonSkill.DIVINE_INSPIRATION.getId()) && (!character().autoLearnDivineInspiration() && includeAutoGet) && !player.isGM())) {
 				continue;
 			}
 			
-			if (((includeAutoGet && skill.isAutoGet()) || skill.isLearnedByNpc() || (includeByFs && skill.isLearnedByFS())) && (player.getLevel() >= skill.getGetLevel())) {
+			if (((includeAutoGet && skill.isAutoGet()) || skill.isLearnedByNpc() || (includeByFs && skill.isLearnedByFS()))) {
 				final Skill oldSkill = holder.getKnownSkill(skill.getSkillId());
 				if (oldSkill != null) {
 					if (oldSkill.getLevel() == (skill.getSkillLevel() - 1)) {
@@ -453,20 +524,26 @@ public final class SkillTreesData implements IXmlReader {
 	 */
 	public List<L2SkillLearn> getAvailableAutoGetSkills(L2PcInstance player) {
 		final List<L2SkillLearn> result = new ArrayList<>();
-		final Map<Integer, L2SkillLearn> skills = getCompleteClassSkillTree(player.getClassId());
-		if (skills.isEmpty()) {
+		final L2SkillLearn[] skills = getCompleteClassSkillsByLevel(player.getClassId());
+		if (skills.length == 0) {
 			// The Skill Tree for this class is undefined, so we return an empty list.
 			LOG.warn("{}: Skill Tree for class ID {} is not defined!", getClass().getSimpleName(), player.getClassId());
 			return result;
 		}
 		
+		final int level = player.getLevel();
 		final Race race = player.getRace();
-		for (L2SkillLearn skill : skills.values()) {
+		for (L2SkillLearn skill : skills) {
+			// Skills are sorted by get level, none of the remaining skills is available.
+			if (skill.getGetLevel() > level) {
+				break;
+			}
+			
 			if (!skill.getRaces().isEmpty() && !skill.getRaces().contains(race)) {
 				continue;
 			}
 			
-			if (skill.isAutoGet() && (player.getLevel() >= skill.getGetLevel())) {
+			if (skill.isAutoGet()) {
 				final Skill oldSkill = player.getSkills().get(skill.getSkillId());
 				if (oldSkill != null) {
 					if (oldSkill.getLevel() < skill.getSkillLevel()) {
@@ -887,6 +964,21 @@ public final class SkillTreesData implements IXmlReader {
 		}
 	}
 	
+	/**
+	 * Flatten the class skill trees, with common and parent class skills, for each class.
+	 */
+	private void generateCompleteClassSkillTrees() {
+		final Map<ClassId, Map<Integer, L2SkillLearn>> completeTrees = new EnumMap<>(ClassId.class);
+		final Map<ClassId, L2SkillLearn[]> skillsByLevel = new EnumMap<>(ClassId.class);
+		for (ClassId classId : ClassId.values()) {
+			final Map<Integer, L2SkillLearn> skillTree = buildCompleteClassSkillTree(classId);
+			completeTrees.put(classId, Collections.unmodifiableMap(skillTree));
+			skillsByLevel.put(classId, sortByGetLevel(skillTree.values()));
+		}
+		_completeClassSkillTrees = completeTrees;
+		_completeClassSkillsByLevel = skillsByLevel;
+	}
+	
 	/**
 	 * Create and store hash values for skills for easy and fast checks.
 	 */
@@ -905,7 +997,6 @@ public final class SkillTreesData implements IXmlReader {
 			for (int h : tempMap.keySet()) {
 				array[i++] = h;
 			}
-			tempMap.clear();
 			Arrays.sort(array);
 			_skillsByClassIdHashCodes.put(cls.ordinal(), array);
 		}
@@ -24,7 +24,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,8 +31,10 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
+import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Summon;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
@@ -56,12 +57,18 @@ import com.l2jserver.gameserver.network.serverpackets.ShortBuffStatusUpdate;
  * Holds all the buff infos that are affecting a creature.<br>
  * Manages the logic that controls whether a buff is added, remove, replaced or set inactive.<br>
  * Uses maps with skill ID as key and buff info DTO as value to avoid iterations.<br>
+ * Abnormal icon updates are coalesced, a burst of changes (such as a mass buff) sends a single update.<br>
  * Uses Double-Checked Locking to avoid useless initialization and synchronization issues and overhead.<br>
  * Methods may resemble List interface, although it doesn't implement such interface.
  * @author Zoey76
  */
 public final class CharEffectList {
 	private static final Logger _log = Logger.getLogger(CharEffectList.class.getName());
+	/** Delay in milliseconds used to coalesce the abnormal icon updates. */
+	private static final long ICONS_UPDATE_DELAY = 100;
+	private static final int NO_ICONS_UPDATE = 0;
+	private static final int PARTY_ICONS_UPDATE = 1;
+	private static final int FULL_ICONS_UPDATE = 2;
 	/** Queue containing all effects from buffs for this effect list. */
 	private volatile Queue<BuffInfo> _buffs;
 	/** Queue containing all triggered skills for this effect list. */
@@ -88,8 +95,12 @@ public final class CharEffectList {
 	private volatile boolean _hasDebuffsRemovedOnDamage = false;
 	/** Effect flags. */
 	private int _effectFlags;
-	/** If {@code true} only party icons need to be updated. */
-	private boolean _partyOnly = false;
+	/** Scope of the pending abnormal icon update. */
+	private final AtomicInteger _pendingIconsUpdate = new AtomicInteger(NO_ICONS_UPDATE);
+	/** Map containing the buff infos by skill ID, passives excluded. */
+	private final Map<Integer, BuffInfo> _skillIds = new ConcurrentHashMap<>();
+	/** Map containing the passive buff infos by skill ID. */
+	private final Map<Integer, BuffInfo> _passiveSkillIds = new ConcurrentHashMap<>();
 	/** The owner of this effect list. */
 	private final L2Character _owner;
 	/** Hidden buffs count, prevents iterations. */
@@ -202,7 +213,7 @@ public final class CharEffectList {
 			return Collections.emptyList();
 		}
 		
-		final List<BuffInfo> buffs = new ArrayList<>();
+		final List<BuffInfo> buffs = new ArrayList<>(_skillIds.size());
 		if (hasBuffs()) {
 			buffs.addAll(getBuffs());
 		}
@@ -225,6 +236,33 @@ public final class CharEffectList {
 		return buffs;
 	}
 	
+	/**
+	 * Performs the given action for all the effects on this effect list, passives excluded.<br>
+	 * Prevents initialization and doesn't create any intermediate collection.
+	 * @param action the action
+	 */
+	public void forEachEffect(Consumer<BuffInfo> action) {
+		if (hasBuffs()) {
+			getBuffs().forEach(action);
+		}
+		
+		if (hasTriggered()) {
+			getTriggered().forEach(action);
+		}
+		
+		if (hasDances()) {
+			getDances().forEach(action);
+		}
+		
+		if (hasToggles()) {
+			getToggles().forEach(action);
+		}
+		
+		if (hasDebuffs()) {
+			getDebuffs().forEach(action);
+		}
+	}
+	
 	/**
 	 * Gets the effect list where the skill effects should be.
 	 * @param skill the skill
@@ -339,31 +377,8 @@ public final class CharEffectList {
 	 * @return the buff info
 	 */
 	public BuffInfo getBuffInfoBySkillId(int skillId) {
-		BuffInfo info = null;
-		if (hasBuffs()) {
-			info = getBuffs().stream().filter(b -> b.getSkill().getId() == skillId).findFirst().orElse(null);
-		}
-		
-		if (hasTriggered() && (info == null)) {
-			info = getTriggered().stream().filter(b -> b.getSkill().getId() == skillId).findFirst().orElse(null);
-		}
-		
-		if (hasDances() && (info == null)) {
-			info = getDances().stream().filter(b -> b.getSkill().getId() == skillId).findFirst().orElse(null);
-		}
-		
-		if (hasToggles() && (info == null)) {
-			info = getToggles().stream().filter(b -> b.getSkill().getId() == skillId).findFirst().orElse(null);
-		}
-		
-		if (hasDebuffs() && (info == null)) {
-			info = getDebuffs().stream().filter(b -> b.getSkill().getId() == skillId).findFirst().orElse(null);
-		}
-		
-		if (hasPassives() && (info == null)) {
-			info = getPassives().stream().filter(b -> b.getSkill().getId() == skillId).findFirst().orElse(null);
-		}
-		return info;
+		final BuffInfo info = _skillIds.get(skillId);
+		return (info != null) ? info : _passiveSkillIds.get(skillId);
 	}
 	
 	/**
@@ -519,6 +534,7 @@ public final class CharEffectList {
 		
 		// Removes the buff from the given effect list.
 		buffs.remove(info);
+		(info.getSkill().isPassive() ? _passiveSkillIds : _skillIds).remove(info.getSkill().getId(), info);
 		// Stop the buff effects.
 		info.stopAllEffects(removed);
 		// If it's a hidden buff that ends, then decrease hidden buff count.
@@ -582,27 +598,27 @@ public final class CharEffectList {
 	public void stopAllEffectsExceptThoseThatLastThroughDeath() {
 		boolean update = false;
 		if (hasBuffs()) {
-			getBuffs().stream().filter(info -> !info.getSkill().isStayAfterDeath()).forEach(info -> stopAndRemove(info, getBuffs()));
+			stopAndRemove(getBuffs(), info -> !info.getSkill().isStayAfterDeath());
 			update = true;
 		}
 		
 		if (hasTriggered()) {
-			getTriggered().stream().filter(info -> !info.getSkill().isStayAfterDeath()).forEach(info -> stopAndRemove(info, getTriggered()));
+			stopAndRemove(getTriggered(), info -> !info.getSkill().isStayAfterDeath());
 			update = true;
 		}
 		
 		if (hasDebuffs()) {
-			getDebuffs().stream().filter(info -> !info.getSkill().isStayAfterDeath()).forEach(info -> stopAndRemove(info, getDebuffs()));
+			stopAndRemove(getDebuffs(), info -> !info.getSkill().isStayAfterDeath());
 			update = true;
 		}
 		
 		if (hasDances()) {
-			getDances().stream().filter(info -> !info.getSkill().isStayAfterDeath()).forEach(info -> stopAndRemove(info, getDances()));
+			stopAndRemove(getDances(), info -> !info.getSkill().isStayAfterDeath());
 			update = true;
 		}
 		
 		if (hasToggles()) {
-			getToggles().stream().filter(info -> !info.getSkill().isStayAfterDeath()).forEach(info -> stopAndRemove(info, getToggles()));
+			stopAndRemove(getToggles(), info -> !info.getSkill().isStayAfterDeath());
 			update = true;
 		}
 		
@@ -616,27 +632,27 @@ public final class CharEffectList {
 	public void stopAllEffectsNotStayOnSubclassChange() {
 		boolean update = false;
 		if (hasBuffs()) {
-			getBuffs().stream().filter(info -> !info.getSkill().isStayOnSubclassChange()).forEach(info -> stopAndRemove(info, getBuffs()));
+			stopAndRemove(getBuffs(), info -> !info.getSkill().isStayOnSubclassChange());
 			update = true;
 		}
 		
 		if (hasTriggered()) {
-			getTriggered().stream().filter(info -> !info.getSkill().isStayOnSubclassChange()).forEach(info -> stopAndRemove(info, getTriggered()));
+			stopAndRemove(getTriggered(), info -> !info.getSkill().isStayOnSubclassChange());
 			update = true;
 		}
 		
 		if (hasDebuffs()) {
-			getDebuffs().stream().filter(info -> !info.getSkill().isStayOnSubclassChange()).forEach(info -> stopAndRemove(info, getDebuffs()));
+			stopAndRemove(getDebuffs(), info -> !info.getSkill().isStayOnSubclassChange());
 			update = true;
 		}
 		
 		if (hasDances()) {
-			getDances().stream().filter(info -> !info.getSkill().isStayOnSubclassChange()).forEach(info -> stopAndRemove(info, getDances()));
+			stopAndRemove(getDances(), info -> !info.getSkill().isStayOnSubclassChange());
 			update = true;
 		}
 		
 		if (hasToggles()) {
-			getToggles().stream().filter(info -> !info.getSkill().isStayOnSubclassChange()).forEach(info -> stopAndRemove(info, getToggles()));
+			stopAndRemove(getToggles(), info -> !info.getSkill().isStayOnSubclassChange());
 			update = true;
 		}
 		
@@ -713,34 +729,37 @@ public final class CharEffectList {
 	 */
 	public void stopEffects(L2EffectType type) {
 		boolean update = false;
-		final Consumer<BuffInfo> action = info -> {
-			if (info.getEffects().stream().anyMatch(effect -> (effect != null) && (effect.getEffectType() == type))) {
-				stopAndRemove(info);
+		final Predicate<BuffInfo> filter = info -> {
+			for (AbstractEffect effect : info.getEffects()) {
+				if ((effect != null) && (effect.getEffectType() == type)) {
+					return true;
+				}
 			}
+			return false;
 		};
 		
 		if (hasBuffs()) {
-			getBuffs().stream().filter(Objects::nonNull).forEach(action);
+			stopAndRemove(getBuffs(), filter);
 			update = true;
 		}
 		
 		if (hasTriggered()) {
-			getTriggered().stream().filter(Objects::nonNull).forEach(action);
+			stopAndRemove(getTriggered(), filter);
 			update = true;
 		}
 		
 		if (hasDances()) {
-			getDances().stream().filter(Objects::nonNull).forEach(action);
+			stopAndRemove(getDances(), filter);
 			update = true;
 		}
 		
 		if (hasToggles()) {
-			getToggles().stream().filter(Objects::nonNull).forEach(action);
+			stopAndRemove(getToggles(), filter);
 			update = true;
 		}
 		
 		if (hasDebuffs()) {
-			getDebuffs().stream().filter(Objects::nonNull).forEach(action);
+			stopAndRemove(getDebuffs(), filter);
 			update = true;
 		}
 		
@@ -812,27 +831,27 @@ public final class CharEffectList {
 		if (_hasBuffsRemovedOnAnyAction) {
 			boolean update = false;
 			if (hasBuffs()) {
-				getBuffs().stream().filter(info -> info.getSkill().isRemovedOnAnyActionExceptMove()).forEach(info -> stopAndRemove(info, getBuffs()));
+				stopAndRemove(getBuffs(), info -> info.getSkill().isRemovedOnAnyActionExceptMove());
 				update = true;
 			}
 			
 			if (hasTriggered()) {
-				getTriggered().stream().filter(info -> info.getSkill().isRemovedOnAnyActionExceptMove()).forEach(info -> stopAndRemove(info, getTriggered()));
+				stopAndRemove(getTriggered(), info -> info.getSkill().isRemovedOnAnyActionExceptMove());
 				update = true;
 			}
 			
 			if (hasDebuffs()) {
-				getDebuffs().stream().filter(info -> info.getSkill().isRemovedOnAnyActionExceptMove()).forEach(info -> stopAndRemove(info, getDebuffs()));
+				stopAndRemove(getDebuffs(), info -> info.getSkill().isRemovedOnAnyActionExceptMove());
 				update = true;
 			}
 			
 			if (hasDances()) {
-				getDances().stream().filter(info -> info.getSkill().isRemovedOnAnyActionExceptMove()).forEach(info -> stopAndRemove(info, getDances()));
+				stopAndRemove(getDances(), info -> info.getSkill().isRemovedOnAnyActionExceptMove());
 				update = true;
 			}
 			
 			if (hasToggles()) {
-				getToggles().stream().filter(info -> info.getSkill().isRemovedOnAnyActionExceptMove()).forEach(info -> stopAndRemove(info, getToggles()));
+				stopAndRemove(getToggles(), info -> info.getSkill().isRemovedOnAnyActionExceptMove());
 				update = true;
 			}
 			
@@ -846,29 +865,29 @@ public final class CharEffectList {
 			boolean update = false;
 			if (_hasBuffsRemovedOnDamage) {
 				if (hasBuffs()) {
-					getBuffs().stream().filter(Objects::nonNull).filter(info -> info.getSkill().isRemovedOnDamage()).forEach(info -> stopAndRemove(info, getBuffs()));
+					stopAndRemove(getBuffs(), info -> info.getSkill().isRemovedOnDamage());
 					update = true;
 				}
 				
 				if (hasTriggered()) {
-					getTriggered().stream().filter(Objects::nonNull).filter(info -> info.getSkill().isRemovedOnDamage()).forEach(info -> stopAndRemove(info, getTriggered()));
+					stopAndRemove(getTriggered(), info -> info.getSkill().isRemovedOnDamage());
 					update = true;
 				}
 				
 				if (hasDances()) {
-					getDances().stream().filter(Objects::nonNull).filter(info -> info.getSkill().isRemovedOnDamage()).forEach(info -> stopAndRemove(info, getDances()));
+					stopAndRemove(getDances(), info -> info.getSkill().isRemovedOnDamage());
 					update = true;
 				}
 				
 				if (hasToggles()) {
-					getToggles().stream().filter(Objects::nonNull).filter(info -> info.getSkill().isRemovedOnDamage()).forEach(info -> stopAndRemove(info, getToggles()));
+					stopAndRemove(getToggles(), info -> info.getSkill().isRemovedOnDamage());
 					update = true;
 				}
 			}
 			
 			if (_hasDebuffsRemovedOnDamage) {
 				if (hasDebuffs()) {
-					getDebuffs().stream().filter(Objects::nonNull).filter(info -> info.getSkill().isRemovedOnDamage()).forEach(info -> stopAndRemove(info, getDebuffs()));
+					stopAndRemove(getDebuffs(), info -> info.getSkill().isRemovedOnDamage());
 					update = true;
 				}
 			}
@@ -881,11 +900,9 @@ public final class CharEffectList {
 	 * @param partyOnly
 	 */
 	public void updateEffectIcons(boolean partyOnly) {
-		if (partyOnly) {
-			_partyOnly = true;
-		}
-		// Update effect flags and icons.
-		updateEffectList(true);
+		updateEffectFlags();
+		computeEffectFlags();
+		scheduleEffectIcons(partyOnly ? PARTY_ICONS_UPDATE : FULL_ICONS_UPDATE);
 	}
 	
 	/**
@@ -1036,14 +1053,16 @@ public final class CharEffectList {
 			}
 			
 			// Puts the effects in the list.
-			getPassives().stream().filter(b -> b.getSkill().getId() == skill.getId()).forEach(b -> {
+			final BuffInfo old = _passiveSkillIds.remove(skill.getId());
+			if (old != null) {
 				// Removes the old stats from the creature if the skill was present.
-				b.setInUse(false);
-				b.removeStats();
-				getPassives().remove(b);
-			});
+				old.setInUse(false);
+				old.removeStats();
+				getPassives().remove(old);
+			}
 			
 			getPassives().add(info);
+			_passiveSkillIds.put(skill.getId(), info);
 			
 			// Initialize effects.
 			info.initializeEffects();
@@ -1143,6 +1162,7 @@ public final class CharEffectList {
 		// After removing old buff (same ID) or stacked buff (same abnormal type),
 		// Add the buff to the end of the effect list.
 		effects.add(info);
+		_skillIds.put(skill.getId(), info);
 		// Initialize effects.
 		info.initializeEffects();
 		// Update effect flags and icons.
@@ -1154,13 +1174,8 @@ public final class CharEffectList {
 	 * Prevents initialization.
 	 */
 	private void updateEffectIcons() {
-		if (_owner == null) {
-			return;
-		}
-		
-		updateEffectFlags();
-		
-		if (!_owner.isPlayable()) {
+		final boolean partyOnly = _pendingIconsUpdate.getAndSet(NO_ICONS_UPDATE) == PARTY_ICONS_UPDATE;
+		if ((_owner == null) || !_owner.isPlayable()) {
 			return;
 		}
 		
@@ -1171,9 +1186,7 @@ public final class CharEffectList {
 		boolean isSummon = false;
 		
 		if (_owner.isPlayer()) {
-			if (_partyOnly) {
-				_partyOnly = false;
-			} else {
+			if (!partyOnly) {
 				asu = new AbnormalStatusUpdate();
 			}
 			
@@ -1285,8 +1298,45 @@ public final class CharEffectList {
 	 */
 	private void updateEffectList(boolean update) {
 		if (update) {
-			updateEffectIcons();
+			updateEffectFlags();
 			computeEffectFlags();
+			scheduleEffectIcons(FULL_ICONS_UPDATE);
+		}
+	}
+	
+	/**
+	 * Schedules an abnormal icon update, unless one of the same or wider scope is already pending.
+	 * @param scope the scope of the update
+	 */
+	private void scheduleEffectIcons(int scope) {
+		if ((_owner == null) || !_owner.isPlayable()) {
+			return;
+		}
+		
+		int pending;
+		do {
+			pending = _pendingIconsUpdate.get();
+			if (pending >= scope) {
+				return;
+			}
+		}
+		while (!_pendingIconsUpdate.compareAndSet(pending, scope));
+		
+		if (pending == NO_ICONS_UPDATE) {
+			ThreadPoolManager.getInstance().scheduleGeneral(this::updateEffectIcons, ICONS_UPDATE_DELAY);
+		}
+	}
+	
+	/**
+	 * Auxiliary method to stop and remove the buff infos of an effect list matching a filter.
+	 * @param effects the effect list
+	 * @param filter the filter
+	 */
+	private void stopAndRemove(Queue<BuffInfo> effects, Predicate<BuffInfo> filter) {
+		for (BuffInfo info : effects) {
+			if (filter.test(info)) {
+				stopAndRemove(info, effects);
+			}
 		}
 	}
 	
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.l2jserver.gameserver.network.serverpackets.AbstractHtmlPacket;
+
+/**
+ * HTML action cache.<br>
+ * Actions sent to a player in a HTML page, indexed so validating a bypass costs its length whatever the number of actions of the page.<br>
+ * Actions are matched exactly, except the ones ending with {@link AbstractHtmlPacket#VAR_PARAM_START_CHAR}, which match any action starting with them.
+ */
+public final class HtmlActionCache {
+	private final Set<String> _actions = new HashSet<>();
+	private final Node _prefixes = new Node();
+	private int _size = 0;
+	
+	public synchronized void add(String action) {
+		if (action.charAt(action.length() - 1) == AbstractHtmlPacket.VAR_PARAM_START_CHAR) {
+			final String prefix = action.substring(0, action.length() - 1).trim();
+			Node node = _prefixes;
+			for (int i = 0; i < prefix.length(); i++) {
+				node = node.getOrCreateChild(prefix.charAt(i));
+			}
+			node._prefix = true;
+		} else {
+			_actions.add(action);
+		}
+		_size++;
+	}
+	
+	public synchronized void clear() {
+		_actions.clear();
+		_prefixes.clear();
+		_size = 0;
+	}
+	
+	/**
+	 * @param action the action to validate
+	 * @return {@code true} if the action was sent in the page
+	 */
+	public synchronized boolean contains(String action) {
+		if (_size == 0) {
+			return false;
+		}
+		
+		if (_actions.contains(action)) {
+			return true;
+		}
+		
+		Node node = _prefixes;
+		for (int i = 0; !node._prefix; i++) {
+			if (i == action.length()) {
+				return false;
+			}
+			
+			node = node.getChild(action.charAt(i));
+			if (node == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the number of cached actions
+	 */
+	public synchronized int size() {
+		return _size;
+	}
+	
+	/**
+	 * Node of the prefix trie, a node is a prefix if an action ends at it.
+	 */
+	private static final class Node {
+		private Map<Character, Node> _children;
+		protected boolean _prefix;
+		
+		protected Node getChild(char c) {
+			return _children != null ? _children.get(c) : null;
+		}
+		
+		protected Node getOrCreateChild(char c) {
+			if (_children == null) {
+				_children = new HashMap<>();
+			}
+			return _children.computeIfAbsent(c, k -> new Node());
+		}
+		
+		protected void clear() {
+			_children = null;
+			_prefix = false;
+		}
+	}
+}
@@ -18,6 +18,8 @@
  */
 package com.l2jserver.gameserver.model;
 
+import static com.l2jserver.gameserver.config.Configuration.general;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -50,6 +52,7 @@ import com.l2jserver.gameserver.network.serverpackets.ActionFailed;
 import com.l2jserver.gameserver.network.serverpackets.DeleteObject;
 import com.l2jserver.gameserver.network.serverpackets.ExSendUIEvent;
 import com.l2jserver.gameserver.network.serverpackets.L2GameServerPacket;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -62,6 +65,8 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 	private int _objectId;
 	/** World Region */
 	private L2WorldRegion _worldRegion;
+	/** World spatial grid cell index, -1 if not in the grid */
+	private volatile int _worldCell = -1;
 	/** Instance type */
 	private InstanceType _instanceType = null;
 	private volatile Map<String, Object> _scripts;
@@ -547,6 +552,10 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 			
 			// Add the L2Object spawn to _visibleObjects and if necessary to _allplayers of its L2WorldRegion
 			getWorldRegion().addVisibleObject(this);
+			
+			if (general().incrementalKnownList()) {
+				KnownListUpdateTaskManager.getInstance().onPositionChange(this, true);
+			}
 		}
 	}
 	
@@ -554,6 +563,14 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 		return _worldRegion;
 	}
 	
+	final int getWorldCell() {
+		return _worldCell;
+	}
+	
+	final void setWorldCell(int worldCell) {
+		_worldCell = worldCell;
+	}
+	
 	public void setWorldRegion(L2WorldRegion value) {
 		if ((getWorldRegion() != null) && isCharacter()) // confirm revalidation of old region's zones
 		{
@@ -662,6 +679,14 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 		setY(newY);
 		setZ(newZ);
 		
+		updateWorldPosition();
+	}
+	
+	/**
+	 * Updates the world region and the grid position of this object after its coordinates changed.<br>
+	 * Used by the movement tick, that computes the coordinates in parallel and applies the world changes afterwards.
+	 */
+	protected final void updateWorldPosition() {
 		try {
 			if (L2World.getInstance().getRegion(getLocation()) != getWorldRegion()) {
 				updateWorldRegion();
@@ -669,6 +694,8 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 		} catch (Exception e) {
 			badCoords();
 		}
+		
+		L2World.getInstance().updateGridPosition(this);
 	}
 	
 	/**
@@ -19,6 +19,7 @@
 package com.l2jserver.gameserver.model;
 
 import static com.l2jserver.gameserver.config.Configuration.general;
+import static com.l2jserver.gameserver.config.Configuration.npc;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -27,18 +28,20 @@ import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.l2jserver.gameserver.data.sql.impl.CharNameTable;
 import com.l2jserver.gameserver.data.xml.impl.AdminData;
+import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Playable;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.actor.instance.L2PetInstance;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
 
 public final class L2World {
 	
@@ -75,6 +78,15 @@ public final class L2World {
 	private static final int REGIONS_X = (MAP_MAX_X >> SHIFT_BY) + OFFSET_X;
 	private static final int REGIONS_Y = (MAP_MAX_Y >> SHIFT_BY) + OFFSET_Y;
 	
+	/** Biteshift of the spatial grid cells, shifting by 9 results in 512x512 cells, 8x8 cells per region. */
+	public static final int CELL_SHIFT = 9;
+	
+	/** number of cells */
+	private static final int CELLS_X = ((MAP_MAX_X - MAP_MIN_X) >> CELL_SHIFT) + 1;
+	private static final int CELLS_Y = ((MAP_MAX_Y - MAP_MIN_Y) >> CELL_SHIFT) + 1;
+	/** Number of grid locks, must be a power of 2. */
+	private static final int GRID_LOCKS = 256;
+	
 	/** Map containing all the players in game. */
 	private final Map<Integer, L2PcInstance> _allPlayers = new ConcurrentHashMap<>();
 	/** Map containing all visible objects. */
@@ -84,8 +96,16 @@ public final class L2World {
 	
 	private L2WorldRegion[][] _worldRegions;
 	
+	/** Spatial grid of visible objects, indexed by cell and lazily populated. */
+	private final AtomicReferenceArray<L2WorldCell> _cells = new AtomicReferenceArray<>(CELLS_X * CELLS_Y);
+	/** Private locks guarding the grid cell of objects, striped by object. */
+	private final Object[] _gridLocks = new Object[GRID_LOCKS];
+	
 	/** Constructor of L2World. */
 	protected L2World() {
+		for (int i = 0; i < GRID_LOCKS; i++) {
+			_gridLocks[i] = new Object();
+		}
 		initRegions();
 	}
 	
@@ -267,6 +287,16 @@ public final class L2World {
 			// If visible L2Object is a L2PcInstance, add visible L2Object in L2ObjectHashSet(L2PcInstance) _knownPlayer of the object
 			object.getKnownList().addKnownObject(visible);
 		}
+		
+		// Objects beyond the spawn radius are not swept anymore, so they are offered incrementally
+		if (general().incrementalKnownList()) {
+			KnownListUpdateTaskManager.getInstance().scheduleUpdate(object);
+		}
+		
+		// Sleeping attackables are only woken up by playables coming close
+		if (npc().attackableAiSleep() && object.isPlayable()) {
+			((L2Playable) object).wakeUpAIs(true);
+		}
 	}
 	
 	/**
@@ -359,20 +389,8 @@ public final class L2World {
 			return List.of();
 		}
 		
-		final int sqRadius = radius * radius;
-		final var result = new LinkedList<L2Object>();
-		for (var region : object.getWorldRegion().getSurroundingRegions()) {
-			// Go through visible objects of the selected region
-			for (var visibleObject : region.getVisibleObjects().values()) {
-				if ((visibleObject == null) || visibleObject.equals(object)) {
-					continue; // skip our own character
-				}
-				
-				if (sqRadius > object.calculateDistance(visibleObject, false, true)) {
-					result.add(visibleObject);
-				}
-			}
-		}
+		final List<L2Object> result = new ArrayList<>();
+		forEachVisibleObjectInRadius(object.getX(), object.getY(), object.getZ(), radius, false, L2Object.class, object, result::add);
 		return result;
 	}
 	
@@ -384,14 +402,9 @@ public final class L2World {
 	 * @return the visible objects in the radius
 	 */
 	public List<L2Object> getVisibleObjects(L2Object object, L2Object target, int radius) {
-		final int sqRadius = radius * radius;
-		return target.getWorldRegion().getSurroundingRegions() //
-			.stream() //
-			.flatMap(r -> r.getVisibleObjects().values().stream()) //
-			.filter(Objects::nonNull) //
-			.filter(o -> !o.equals(object)) //
-			.filter(o -> sqRadius > target.calculateDistance(o, false, true)) //
-			.collect(Collectors.toList());
+		final List<L2Object> result = new ArrayList<>();
+		forEachVisibleObjectInRadius(target.getX(), target.getY(), target.getZ(), radius, false, L2Object.class, object, result::add);
+		return result;
 	}
 	
 	/**
@@ -408,23 +421,166 @@ public final class L2World {
 			return new ArrayList<>();
 		}
 		
-		final int sqRadius = radius * radius;
+		final List<L2Object> result = new ArrayList<>();
+		forEachVisibleObjectInRadius(object.getX(), object.getY(), object.getZ(), radius, true, L2Object.class, object, result::add);
+		return result;
+	}
+	
+	/**
+	 * Performs the given action for each visible character within the given radius of the origin, excluding the origin itself.<br>
+	 * The lookup uses the world spatial grid and doesn't allocate.
+	 * @param origin the origin
+	 * @param radius the radius to check
+	 * @param action the action to perform
+	 */
+	public void forEachCharacterInRadius(L2Object origin, int radius, Consumer<? super L2Character> action) {
+		forEachVisibleObjectInRadius(origin.getX(), origin.getY(), origin.getZ(), radius, false, L2Character.class, origin, action);
+	}
+	
+	/**
+	 * Performs the given action for each visible playable within the given radius of the origin, excluding the origin itself.<br>
+	 * The lookup uses the world spatial grid and doesn't allocate.
+	 * @param origin the origin
+	 * @param radius the radius to check
+	 * @param action the action to perform
+	 */
+	public void forEachPlayableInRadius(L2Object origin, int radius, Consumer<? super L2Playable> action) {
+		forEachVisibleObjectInRadius(origin.getX(), origin.getY(), origin.getZ(), radius, false, L2Playable.class, origin, action);
+	}
+	
+	/**
+	 * Performs the given action for each visible object of the given type within the given radius of a point.<br>
+	 * The lookup uses the world spatial grid and doesn't allocate.
+	 * @param <T> the type of the objects
+	 * @param x the X coordinate of the point
+	 * @param y the Y coordinate of the point
+	 * @param z the Z coordinate of the point
+	 * @param radius the radius to check
+	 * @param includeZAxis if {@code true} the Z axis is included in the distance check
+	 * @param type the type of the objects
+	 * @param exclude an object to exclude, may be {@code null}
+	 * @param action the action to perform
+	 */
+	public <T extends L2Object> void forEachVisibleObjectInRadius(int x, int y, int z, int radius, boolean includeZAxis, Class<T> type, L2Object exclude, Consumer<? super T> action) {
+		if (radius < 0) {
+			return;
+		}
 		
-		// Create a list in order to contain all visible objects.
-		final List<L2Object> result = new LinkedList<>();
-		for (L2WorldRegion regi : object.getWorldRegion().getSurroundingRegions()) {
-			for (L2Object _object : regi.getVisibleObjects().values()) {
-				if ((_object == null) || _object.equals(object)) {
-					continue; // skip our own character
+		final long sqRadius = (long) radius * radius;
+		final boolean playablesOnly = L2Playable.class.isAssignableFrom(type);
+		final int minX = getCellX(x - radius);
+		final int maxX = getCellX(x + radius);
+		final int minY = getCellY(y - radius);
+		final int maxY = getCellY(y + radius);
+		for (int cellX = minX; cellX <= maxX; cellX++) {
+			for (int cellY = minY; cellY <= maxY; cellY++) {
+				final L2WorldCell cell = _cells.get((cellX * CELLS_Y) + cellY);
+				if (cell == null) {
+					continue;
 				}
 				
-				if (sqRadius > object.calculateDistance(_object, true, true)) {
-					result.add(_object);
+				for (L2Object object : playablesOnly ? cell.getPlayables() : cell.getObjects()) {
+					if ((object == exclude) || !type.isInstance(object)) {
+						continue;
+					}
+					
+					final long dx = object.getX() - x;
+					final long dy = object.getY() - y;
+					long sqDistance = (dx * dx) + (dy * dy);
+					if (includeZAxis) {
+						final long dz = object.getZ() - z;
+						sqDistance += dz * dz;
+					}
+					
+					if (sqDistance < sqRadius) {
+						action.accept(type.cast(object));
+					}
 				}
 			}
 		}
+	}
+	
+	/**
+	 * Adds the object to the world spatial grid.<br>
+	 * Called when the object is added to the visible objects of its world region.
+	 * @param object the object to add
+	 */
+	void addToGrid(L2Object object) {
+		synchronized (getGridLock(object)) {
+			if (object.getWorldCell() >= 0) {
+				getCell(object.getWorldCell()).remove(object);
+			}
+			
+			final int index = getCellIndex(object.getX(), object.getY());
+			getCell(index).add(object);
+			object.setWorldCell(index);
+		}
+	}
+	
+	/**
+	 * Removes the object from the world spatial grid.<br>
+	 * Called when the object is removed from the visible objects of its world region.
+	 * @param object the object to remove
+	 */
+	void removeFromGrid(L2Object object) {
+		synchronized (getGridLock(object)) {
+			if (object.getWorldCell() >= 0) {
+				getCell(object.getWorldCell()).remove(object);
+				object.setWorldCell(-1);
+			}
+		}
+	}
+	
+	/**
+	 * Moves the object to a different grid cell if its position changed cell.
+	 * @param object the object that moved
+	 */
+	void updateGridPosition(L2Object object) {
+		final int index = getCellIndex(object.getX(), object.getY());
+		final int current = object.getWorldCell();
+		if ((current < 0) || (current == index)) {
+			return;
+		}
 		
-		return result;
+		synchronized (getGridLock(object)) {
+			final int previous = object.getWorldCell();
+			if ((previous < 0) || (previous == index)) {
+				return;
+			}
+			
+			getCell(previous).remove(object);
+			getCell(index).add(object);
+			object.setWorldCell(index);
+		}
+	}
+	
+	/**
+	 * Gets the lock guarding the grid cell of the given object.<br>
+	 * The object monitor isn't used, as it's also locked by the object's own synchronized code.
+	 */
+	private Object getGridLock(L2Object object) {
+		return _gridLocks[System.identityHashCode(object) & (GRID_LOCKS - 1)];
+	}
+	
+	private L2WorldCell getCell(int index) {
+		L2WorldCell cell = _cells.get(index);
+		if (cell == null) {
+			_cells.compareAndSet(index, null, new L2WorldCell());
+			cell = _cells.get(index);
+		}
+		return cell;
+	}
+	
+	private static int getCellIndex(int x, int y) {
+		return (getCellX(x) * CELLS_Y) + getCellY(y);
+	}
+	
+	private static int getCellX(int x) {
+		return Math.max(0, Math.min(CELLS_X - 1, (x - MAP_MIN_X) >> CELL_SHIFT));
+	}
+	
+	private static int getCellY(int y) {
+		return Math.max(0, Math.min(CELLS_Y - 1, (y - MAP_MIN_Y) >> CELL_SHIFT));
 	}
 	
 	/**
@@ -486,6 +642,33 @@ public final class L2World {
 		return _worldRegions;
 	}
 	
+	/**
+	 * Gets the sleeping and awake attackable AIs of each active world region.
+	 * @return the AI statistics
+	 */
+	public String[] getAIStats() {
+		final List<String> stats = new ArrayList<>();
+		int sleeping = 0;
+		int awake = 0;
+		for (L2WorldRegion[] regions : _worldRegions) {
+			for (L2WorldRegion region : regions) {
+				if (!region.isActive()) {
+					continue;
+				}
+				
+				final int regionSleeping = region.getSleepingAICount();
+				final int regionAwake = region.getAwakeAICount();
+				if ((regionSleeping > 0) || (regionAwake > 0)) {
+					stats.add(" |- Region " + region.getName() + ": sleeping " + regionSleeping + ", awake " + regionAwake);
+					sleeping += regionSleeping;
+					awake += regionAwake;
+				}
+			}
+		}
+		stats.add(0, "Attackable AIs: sleeping " + sleeping + ", awake " + awake);
+		return stats.toArray(new String[stats.size()]);
+	}
+	
 	/**
 	 * Check if the current L2WorldRegions of the object is valid according to its position (x,y). <B><U> Example of use </U> :</B>
 	 * <li>Init L2WorldRegions</li><BR>
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.Arrays;
+
+import com.l2jserver.gameserver.model.actor.L2Playable;
+
+/**
+ * World cell.<br>
+ * Fine-grained cell of the world spatial grid, holding the visible objects inside it.<br>
+ * Writes copy the backing arrays, so readers can iterate them without locking nor allocating.
+ */
+public final class L2WorldCell {
+	private static final L2Object[] EMPTY_OBJECTS = new L2Object[0];
+	private static final L2Playable[] EMPTY_PLAYABLES = new L2Playable[0];
+	
+	private volatile L2Object[] _objects = EMPTY_OBJECTS;
+	private volatile L2Playable[] _playables = EMPTY_PLAYABLES;
+	
+	/**
+	 * Adds an object to this cell.
+	 * @param object the object to add
+	 */
+	synchronized void add(L2Object object) {
+		_objects = append(_objects, object);
+		if (object.isPlayable()) {
+			_playables = append(_playables, (L2Playable) object);
+		}
+	}
+	
+	/**
+	 * Removes an object from this cell.
+	 * @param object the object to remove
+	 */
+	synchronized void remove(L2Object object) {
+		_objects = remove(_objects, object, EMPTY_OBJECTS);
+		if (object.isPlayable()) {
+			_playables = remove(_playables, (L2Playable) object, EMPTY_PLAYABLES);
+		}
+	}
+	
+	/**
+	 * Gets the objects in this cell.<br>
+	 * <b>The returned array must not be modified.</b>
+	 * @return the objects
+	 */
+	public L2Object[] getObjects() {
+		return _objects;
+	}
+	
+	/**
+	 * Gets the playables in this cell.<br>
+	 * <b>The returned array must not be modified.</b>
+	 * @return the playables
+	 */
+	public L2Playable[] getPlayables() {
+		return _playables;
+	}
+	
+	private static <T> T[] append(T[] array, T element) {
+		final T[] result = Arrays.copyOf(array, array.length + 1);
+		result[array.length] = element;
+		return result;
+	}
+	
+	private static <T> T[] remove(T[] array, T element, T[] empty) {
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] == element) {
+				if (array.length == 1) {
+					return empty;
+				}
+				
+				final T[] result = Arrays.copyOf(array, array.length - 1);
+				System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+				return result;
+			}
+		}
+		return array;
+	}
+}
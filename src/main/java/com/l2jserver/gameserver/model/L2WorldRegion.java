@@ -23,6 +23,7 @@ import static com.l2jserver.gameserver.config.Configuration.general;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -30,6 +31,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.logging.Logger;
 
 import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.ai.L2AttackableAI;
 import com.l2jserver.gameserver.datatables.SpawnTable;
 import com.l2jserver.gameserver.model.actor.L2Attackable;
 import com.l2jserver.gameserver.model.actor.L2Character;
@@ -49,6 +51,9 @@ public final class L2WorldRegion {
 	/** Map containing visible objects in this world region. */
 	private final Map<Integer, L2Object> _visibleObjects = new ConcurrentHashMap<>();
 	
+	/** Set containing the attackables of this world region whose AI is sleeping. */
+	private final Set<L2Attackable> _sleepingAIs = ConcurrentHashMap.newKeySet();
+	
 	private final Queue<L2WorldRegion> _surroundingRegions = new ConcurrentLinkedQueue<>();
 	private final int _tileX, _tileY;
 	private boolean _active;
@@ -332,8 +337,14 @@ public final class L2WorldRegion {
 		assert object.getWorldRegion() == this;
 		
 		_visibleObjects.put(object.getObjectId(), object);
+		L2World.getInstance().addToGrid(object);
 		
-		if (object instanceof L2Playable) {
+		if (object instanceof L2Attackable) {
+			final L2AttackableAI ai = getAttackableAI((L2Attackable) object);
+			if ((ai != null) && ai.isSleeping()) {
+				_sleepingAIs.add((L2Attackable) object);
+			}
+		} else if (object instanceof L2Playable) {
 			_allPlayable.put(object.getObjectId(), (L2Playable) object);
 			
 			// if this is the first player to enter the region, activate self & neighbors
@@ -356,8 +367,11 @@ public final class L2WorldRegion {
 		assert (object.getWorldRegion() == this) || (object.getWorldRegion() == null);
 		
 		_visibleObjects.remove(object.getObjectId());
+		L2World.getInstance().removeFromGrid(object);
 		
-		if (object instanceof L2Playable) {
+		if (object instanceof L2Attackable) {
+			_sleepingAIs.remove(object);
+		} else if (object instanceof L2Playable) {
 			_allPlayable.remove(object.getObjectId());
 			
 			if (_allPlayable.isEmpty() && !general().gridsAlwaysOn()) {
@@ -366,6 +380,78 @@ public final class L2WorldRegion {
 		}
 	}
 	
+	/**
+	 * Adds an attackable whose AI has been parked to this region.
+	 * @param attackable the sleeping attackable
+	 */
+	public void addSleepingAI(L2Attackable attackable) {
+		_sleepingAIs.add(attackable);
+	}
+	
+	/**
+	 * Removes an attackable whose AI has been woken up from this region.
+	 * @param attackable the awaken attackable
+	 */
+	public void removeSleepingAI(L2Attackable attackable) {
+		_sleepingAIs.remove(attackable);
+	}
+	
+	/**
+	 * Wakes up the sleeping attackables having the playable inside their wake up range.<br>
+	 * Attackables are looked up in the world spatial grid, within the greatest wake up range, only if this region or its surrounding regions have sleeping attackables.
+	 * @param playable the playable that moved or appeared
+	 */
+	public void wakeUpAIs(L2Playable playable) {
+		boolean hasSleepingAIs = false;
+		for (L2WorldRegion region : _surroundingRegions) {
+			if (!region._sleepingAIs.isEmpty()) {
+				hasSleepingAIs = true;
+				break;
+			}
+		}
+		
+		if (!hasSleepingAIs) {
+			return;
+		}
+		
+		L2World.getInstance().forEachVisibleObjectInRadius(playable.getX(), playable.getY(), playable.getZ(), L2AttackableAI.getMaxWakeUpRange(), false, L2Attackable.class, playable, attackable -> {
+			final L2AttackableAI ai = getAttackableAI(attackable);
+			if ((ai != null) && ai.isSleeping() && (attackable.getInstanceId() == playable.getInstanceId()) && attackable.isInsideRadius(playable, L2AttackableAI.getWakeUpRange(attackable), true, false)) {
+				ai.wakeUp();
+			}
+		});
+	}
+	
+	/**
+	 * @return the number of attackables of this region whose AI is sleeping
+	 */
+	public int getSleepingAICount() {
+		return _sleepingAIs.size();
+	}
+	
+	/**
+	 * @return the number of attackables of this region whose AI is thinking
+	 */
+	public int getAwakeAICount() {
+		int count = 0;
+		for (L2Object obj : _visibleObjects.values()) {
+			if (obj instanceof L2Attackable) {
+				final L2AttackableAI ai = getAttackableAI((L2Attackable) obj);
+				if ((ai != null) && ai.hasAITask()) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+	
+	private static L2AttackableAI getAttackableAI(L2Attackable attackable) {
+		if (attackable.hasAI() && (attackable.getAI() instanceof L2AttackableAI)) {
+			return (L2AttackableAI) attackable.getAI();
+		}
+		return null;
+	}
+	
 	public void addSurroundingRegion(L2WorldRegion region) {
 		_surroundingRegions.add(region);
 	}
@@ -389,6 +475,14 @@ public final class L2WorldRegion {
 		return "(" + _tileX + ", " + _tileY + ")";
 	}
 	
+	public int getTileX() {
+		return _tileX;
+	}
+	
+	public int getTileY() {
+		return _tileY;
+	}
+	
 	/**
 	 * Deleted all spawns in the world.
 	 */
@@ -38,6 +38,7 @@ import com.l2jserver.gameserver.network.serverpackets.InventoryUpdate;
 import com.l2jserver.gameserver.network.serverpackets.ItemList;
 import com.l2jserver.gameserver.network.serverpackets.StatusUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -526,6 +527,11 @@ public class TradeList {
 			partnerList.TransferItems(getOwner(), partnerIU, ownerIU);
 			TransferItems(partnerList.getOwner(), ownerIU, partnerIU);
 			
+			// Write both sides of the trade before it completes, so a crash can't save only one of them.
+			if (ItemUpdateTaskManager.isEnabled()) {
+				ItemUpdateTaskManager.getInstance().flushOwners(getOwner().getObjectId(), partnerList.getOwner().getObjectId());
+			}
+			
 			// Send inventory update packet
 			_owner.sendPacket(Objects.requireNonNullElseGet(ownerIU, () -> new ItemList(_owner, false)));
 			_partner.sendPacket(Objects.requireNonNullElseGet(partnerIU, () -> new ItemList(_partner, false)));
@@ -723,6 +729,11 @@ public class TradeList {
 			}
 		}
 		
+		// Write both sides of the trade before it completes, so a crash can't save only one of them.
+		if (ItemUpdateTaskManager.isEnabled()) {
+			ItemUpdateTaskManager.getInstance().flushOwners(_owner.getObjectId(), player.getObjectId());
+		}
+		
 		// Send inventory update packet
 		_owner.sendPacket(ownerIU);
 		player.sendPacket(playerIU);
@@ -886,6 +897,11 @@ public class TradeList {
 			playerIU.addItem(playerInventory.getAdenaInstance());
 		}
 		
+		// Write both sides of the trade before it completes, so a crash can't save only one of them.
+		if (ItemUpdateTaskManager.isEnabled()) {
+			ItemUpdateTaskManager.getInstance().flushOwners(_owner.getObjectId(), player.getObjectId());
+		}
+		
 		if (ok) {
 			// Send inventory update packet
 			_owner.sendPacket(ownerIU);
@@ -30,14 +30,13 @@ import static com.l2jserver.gameserver.model.skills.targets.AffectScope.PARTY;
 import static com.l2jserver.gameserver.model.stats.Stats.NUM_STATS;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.StampedLock;
@@ -96,6 +95,7 @@ import com.l2jserver.gameserver.model.entity.Instance;
 import com.l2jserver.gameserver.model.events.Containers;
 import com.l2jserver.gameserver.model.events.EventDispatcher;
 import com.l2jserver.gameserver.model.events.EventType;
+import com.l2jserver.gameserver.model.events.ListenersContainer;
 import com.l2jserver.gameserver.model.events.impl.character.OnCreatureAttack;
 import com.l2jserver.gameserver.model.events.impl.character.OnCreatureAttackAvoid;
 import com.l2jserver.gameserver.model.events.impl.character.OnCreatureAttacked;
@@ -158,10 +158,10 @@ import com.l2jserver.gameserver.network.serverpackets.StatusUpdate;
 import com.l2jserver.gameserver.network.serverpackets.StopMove;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
 import com.l2jserver.gameserver.network.serverpackets.TeleportToLocation;
-import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
+import com.l2jserver.gameserver.pathfinding.GeoPath;
 import com.l2jserver.gameserver.pathfinding.PathFinding;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
-import com.l2jserver.gameserver.util.EmptyQueue;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -187,6 +187,15 @@ import com.l2jserver.gameserver.util.Util;
 public abstract class L2Character extends L2Object implements ISkillsHolder, IDeletable {
 	private static final Logger LOG = LoggerFactory.getLogger(L2Character.class);
 	
+	/** Movement status: the movement is over, nothing to apply. */
+	public static final int MOVE_FINISHED = 0;
+	/** Movement status: the position was already computed for the current tick. */
+	public static final int MOVE_UNCHANGED = 1;
+	/** Movement status: the position changed and the movement goes on. */
+	public static final int MOVE_MOVED = 2;
+	/** Movement status: the position changed and the destination is reached. */
+	public static final int MOVE_ARRIVED = 3;
+	
 	private volatile Set<L2Character> _attackByList;
 	private volatile boolean _isCastingNow = false;
 	private volatile boolean _isCastingSimultaneouslyNow = false;
@@ -216,8 +225,8 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	private double _hpUpdateDecCheck = .0;
 	private double _hpUpdateInterval = .0;
 	
-	/** Table of Calculators containing all used calculator */
-	private Calculator[] _calculators;
+	/** Interned table of Calculators containing all used calculator, replaced as a whole on change */
+	private volatile Calculator[] _calculators;
 	/** Map containing all skills of this character. */
 	private final Map<Integer, Skill> _skills = new ConcurrentHashMap<>();
 	/** Map containing the skill reuse time stamps. */
@@ -325,7 +334,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		} else if (isNpc()) {
 			_calculators = NPC_STD_CALCULATOR;
 		} else {
-			_calculators = new Calculator[NUM_STATS];
+			_calculators = Calculator.intern(new Calculator[NUM_STATS]);
 		}
 		
 		setIsInvul(true);
@@ -2543,6 +2552,11 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 */
 	protected final void setTemplate(L2CharTemplate template) {
 		_template = template;
+		
+		// The stats are not initialized yet when called from the constructor
+		if (getStat() != null) {
+			getStat().invalidateStatCache();
+		}
 	}
 	
 	/**
@@ -2865,64 +2879,21 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		
 		public boolean disregardingGeodata;
 		public int onGeodataPathIndex;
-		public List<AbstractNodeLoc> geoPath;
+		public GeoPath geoPath;
 		public int geoPathAccurateTx;
 		public int geoPathAccurateTy;
 		public int geoPathGtx;
 		public int geoPathGty;
 	}
 	
-	/**
-	 * Add a Func to the Calculator set of the L2Character.<br>
-	 * <b><u>Concept</u>:</b> A L2Character owns a table of Calculators called <b>_calculators</b>.<br>
-	 * Each Calculator (a calculator per state) own a table of Func object.<br>
-	 * A Func object is a mathematical function that permit to calculate the modifier of a state (ex : REGENERATE_HP_RATE...).<br>
-	 * To reduce cache memory use, L2NPCInstances who don't have skills share the same Calculator set called <b>NPC_STD_CALCULATOR</b>.<br>
-	 * That's why, if a L2NPCInstance is under a skill/spell effect that modify one of its state, a copy of the NPC_STD_CALCULATOR must be create in its _calculators before adding new Func object.<br>
-	 * <b><u>Actions</u>:</b>
-	 * <ul>
-	 * <li>If _calculators is linked to NPC_STD_CALCULATOR, create a copy of NPC_STD_CALCULATOR in _calculators</li>
-	 * <li>Add the Func object to _calculators</li>
-	 * </ul>
-	 * @param function The Func object to add to the Calculator corresponding to the state affected
-	 */
-	private final void addStatFunc(AbstractFunction function) {
-		if (function == null) {
-			return;
-		}
-		
-		synchronized (this) {
-			// Check if Calculator set is linked to the standard Calculator set of NPC
-			if (_calculators == NPC_STD_CALCULATOR) {
-				// Create a copy of the standard NPC Calculator set
-				_calculators = new Calculator[Stats.NUM_STATS];
-				
-				for (int i = 0; i < Stats.NUM_STATS; i++) {
-					if (NPC_STD_CALCULATOR[i] != null) {
-						_calculators[i] = new Calculator(NPC_STD_CALCULATOR[i]);
-					}
-				}
-			}
-			
-			// Select the Calculator of the affected state in the Calculator set
-			int stat = function.getStat().ordinal();
-			
-			if (_calculators[stat] == null) {
-				_calculators[stat] = new Calculator();
-			}
-			
-			// Add the Func to the calculator corresponding to the state
-			_calculators[stat].addFunc(function);
-		}
-	}
-	
 	/**
 	 * Add a list of Funcs to the Calculator set of the L2Character.<br>
 	 * <B><U>Concept</U>:</B><br>
 	 * A L2Character owns a table of Calculators called <B>_calculators</B>.<br>
 	 * Each Calculator (a calculator per state) own a table of Func object.<br>
 	 * A Func object is a mathematic function that permit to calculate the modifier of a state (ex : REGENERATE_HP_RATE...).<br>
-	 * <FONT COLOR=#FF0000><B> <U>Caution</U> : This method is ONLY for L2PcInstance</B></FONT><br>
+	 * Calculators and Calculator sets are immutable and interned, characters with the same Funcs sharing them.<br>
+	 * That's why the resulting Calculator set is looked up and swapped in instead of modifying the current one.<br>
 	 * <B><U>Example of use</U>:</B>
 	 * <ul>
 	 * <li>Equip an item from inventory</li>
@@ -2932,82 +2903,32 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param functions The list of Func objects to add to the Calculator corresponding to the state affected
 	 */
 	public final void addStatFuncs(List<AbstractFunction> functions) {
-		if (!isPlayer() && getKnownList().getKnownPlayers().isEmpty()) {
-			for (AbstractFunction f : functions) {
-				addStatFunc(f);
-			}
-		} else {
-			final List<Stats> modifiedStats = new ArrayList<>();
-			for (AbstractFunction f : functions) {
+		final List<Stats> modifiedStats = new ArrayList<>(functions.size());
+		for (AbstractFunction f : functions) {
+			if (f != null) {
 				modifiedStats.add(f.getStat());
-				addStatFunc(f);
 			}
+		}
+		
+		synchronized (this) {
+			setCalculators(Calculator.addFuncs(_calculators, functions));
+		}
+		
+		if (isPlayer() || !getKnownList().getKnownPlayers().isEmpty()) {
 			broadcastModifiedStats(modifiedStats);
 		}
 	}
-
+	
 	public final void addStatFuncs(AbstractFunction function) {
 		addStatFuncs(List.of(function));
 	}
 	
-	/**
-	 * Remove a Func from the Calculator set of the L2Character.<br>
-	 * <B><U>Concept</U>:</B><br>
-	 * A L2Character owns a table of Calculators called <B>_calculators</B>.<br>
-	 * Each Calculator (a calculator per state) own a table of Func object.<br>
-	 * A Func object is a mathematic function that permit to calculate the modifier of a state (ex : REGENERATE_HP_RATE...).<br>
-	 * To reduce cache memory use, L2NPCInstances who don't have skills share the same Calculator set called <B>NPC_STD_CALCULATOR</B>.<br>
-	 * That's why, if a L2NPCInstance is under a skill/spell effect that modify one of its state, a copy of the NPC_STD_CALCULATOR must be create in its _calculators before addind new Func object.<br>
-	 * <B><U>Actions</U>:</B>
-	 * <ul>
-	 * <li>Remove the Func object from _calculators</li>
-	 * <li>If L2Character is a L2NPCInstance and _calculators is equal to NPC_STD_CALCULATOR, free cache memory and just create a link on NPC_STD_CALCULATOR in _calculators</li>
-	 * </ul>
-	 * @param function The Func object to remove from the Calculator corresponding to the state affected
-	 */
-	private final void removeStatFunc(AbstractFunction function) {
-		if (function == null) {
-			return;
-		}
-		
-		// Select the Calculator of the affected state in the Calculator set
-		int stat = function.getStat().ordinal();
-		
-		synchronized (this) {
-			if (_calculators[stat] == null) {
-				return;
-			}
-			
-			// Remove the Func object from the Calculator
-			_calculators[stat].removeFunc(function);
-			
-			if (_calculators[stat].size() == 0) {
-				_calculators[stat] = null;
-			}
-			
-			// If possible, free the memory and just create a link on NPC_STD_CALCULATOR
-			if (isNpc()) {
-				int i = 0;
-				for (; i < Stats.NUM_STATS; i++) {
-					if (!Calculator.equalsCals(_calculators[i], NPC_STD_CALCULATOR[i])) {
-						break;
-					}
-				}
-				
-				if (i >= Stats.NUM_STATS) {
-					_calculators = NPC_STD_CALCULATOR;
-				}
-			}
-		}
-	}
-	
 	/**
 	 * Remove a list of Funcs from the Calculator set of the L2PcInstance.<br>
 	 * <B><U>Concept</U>:</B><br>
 	 * A L2Character owns a table of Calculators called <B>_calculators</B>.<br>
 	 * Each Calculator (a calculator per state) own a table of Func object.<br>
 	 * A Func object is a mathematic function that permit to calculate the modifier of a state (ex : REGENERATE_HP_RATE...).<br>
-	 * <FONT COLOR=#FF0000><B> <U>Caution</U> : This method is ONLY for L2PcInstance</B></FONT><br>
 	 * <B><U>Example of use</U>:</B>
 	 * <ul>
 	 * <li>Unequip an item from inventory</li>
@@ -3016,17 +2937,17 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param functions The list of Func objects to add to the Calculator corresponding to the state affected
 	 */
 	public final void removeStatFuncs(AbstractFunction[] functions) {
-		if (!isPlayer() && getKnownList().getKnownPlayers().isEmpty()) {
-			for (AbstractFunction f : functions) {
-				removeStatFunc(f);
-			}
-		} else {
-			final List<Stats> modifiedStats = new ArrayList<>();
+		final List<Stats> modifiedStats = new ArrayList<>(functions.length);
+		synchronized (this) {
 			for (AbstractFunction f : functions) {
-				modifiedStats.add(f.getStat());
-				removeStatFunc(f);
+				if ((f != null) && (_calculators[f.getStat().ordinal()] != null)) {
+					modifiedStats.add(f.getStat());
+				}
 			}
-			
+			setCalculators(Calculator.removeFuncs(_calculators, functions));
+		}
+		
+		if (isPlayer() || !getKnownList().getKnownPlayers().isEmpty()) {
 			broadcastModifiedStats(modifiedStats);
 		}
 	}
@@ -3037,13 +2958,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * A L2Character owns a table of Calculators called <B>_calculators</B>.<br>
 	 * Each Calculator (a calculator per state) own a table of Func object.<br>
 	 * A Func object is a mathematic function that permit to calculate the modifier of a state (ex : REGENERATE_HP_RATE...).<br>
-	 * To reduce cache memory use, L2NPCInstances who don't have skills share the same Calculator set called <B>NPC_STD_CALCULATOR</B>.<br>
-	 * That's why, if a L2NPCInstance is under a skill/spell effect that modify one of its state, a copy of the NPC_STD_CALCULATOR must be create in its _calculators before addind new Func object.<br>
-	 * <B><U>Actions</U>:</B>
-	 * <ul>
-	 * <li>Remove all Func objects of the selected owner from _calculators</li>
-	 * <li>If L2Character is a L2NPCInstance and _calculators is equal to NPC_STD_CALCULATOR, free cache memory and just create a link on NPC_STD_CALCULATOR in _calculators</li>
-	 * </ul>
+	 * Once the last buff is removed, the interned Calculator set is the standard one again, e.g. <B>NPC_STD_CALCULATOR</B> for L2NPCInstances.<br>
 	 * <B><U>Example of use</U>:</B>
 	 * <ul>
 	 * <li>Unequip an item from inventory</li>
@@ -3052,44 +2967,35 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param owner The Object(Skill, Item...) that has created the effect
 	 */
 	public final void removeStatsOwner(Object owner) {
-		List<Stats> modifiedStats = null;
-		int i = 0;
-		// Go through the Calculator set
+		final List<Stats> modifiedStats = new ArrayList<>();
 		synchronized (this) {
-			for (Calculator calc : _calculators) {
-				if (calc != null) {
-					// Delete all Func objects of the selected owner
-					if (modifiedStats != null) {
-						modifiedStats.addAll(calc.removeOwner(owner));
-					} else {
-						modifiedStats = calc.removeOwner(owner);
-					}
-					
-					if (calc.size() == 0) {
-						_calculators[i] = null;
+			// Delete all Func objects of the selected owner
+			final Calculator[] calculators = Calculator.removeOwner(_calculators, owner);
+			if (calculators != _calculators) {
+				for (int i = 0; i < NUM_STATS; i++) {
+					if (calculators[i] != _calculators[i]) {
+						modifiedStats.add(_calculators[i].getFunctions()[0].getStat());
 					}
 				}
-				i++;
-			}
-			
-			// If possible, free the memory and just create a link on NPC_STD_CALCULATOR
-			if (isNpc()) {
-				i = 0;
-				for (; i < Stats.NUM_STATS; i++) {
-					if (!Calculator.equalsCals(_calculators[i], NPC_STD_CALCULATOR[i])) {
-						break;
-					}
-				}
-				
-				if (i >= Stats.NUM_STATS) {
-					_calculators = NPC_STD_CALCULATOR;
-				}
+				setCalculators(calculators);
 			}
 			
 			broadcastModifiedStats(modifiedStats);
 		}
 	}
 	
+	/**
+	 * Swaps in the given interned Calculator set.<br>
+	 * <B>Must be called while holding the lock of this character.</B>
+	 * @param calculators the new interned Calculator set
+	 */
+	private void setCalculators(Calculator[] calculators) {
+		if (calculators != _calculators) {
+			_calculators = calculators;
+			getStat().invalidateStatCache();
+		}
+	}
+	
 	protected void broadcastModifiedStats(List<Stats> stats) {
 		if ((stats == null) || stats.isEmpty()) {
 			return;
@@ -3306,16 +3212,26 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @return True if the movement is finished
 	 */
 	public boolean updatePosition() {
+		return applyMovement(updateMovement());
+	}
+	
+	/**
+	 * Computes the new position of this creature during a movement, first phase of {@link #updatePosition()}.<br>
+	 * Only the coordinates and the movement data of this creature are modified, the world region, grid, zones and known list are left to {@link #applyMovement(int)}.<br>
+	 * It allows the movement tick to compute the positions of different creatures in parallel.
+	 * @return the movement status, to be given to {@link #applyMovement(int)}
+	 */
+	public int updateMovement() {
 		// Get movement data
 		MoveData m = _move;
 		
 		if (m == null) {
-			return true;
+			return MOVE_FINISHED;
 		}
 		
 		if (!isVisible()) {
 			_move = null;
-			return true;
+			return MOVE_FINISHED;
 		}
 		
 		// Check if this is the first update
@@ -3329,7 +3245,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		
 		// Check if the position has already been calculated
 		if (m._moveTimestamp == gameTicks) {
-			return false;
+			return MOVE_UNCHANGED;
 		}
 		
 		int xPrev = getX();
@@ -3388,20 +3304,51 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		
 		if (distFraction > 1) {
 			// Set the position of the L2Character to the destination
-			super.setXYZ(m._xDestination, m._yDestination, m._zDestination);
+			setX(m._xDestination);
+			setY(m._yDestination);
+			setZ(m._zDestination);
 		} else {
 			m._xAccurate += dx * distFraction;
 			m._yAccurate += dy * distFraction;
 			
 			// Set the position of the L2Character to estimated after parcial move
-			super.setXYZ((int) (m._xAccurate), (int) (m._yAccurate), zPrev + (int) ((dz * distFraction) + 0.5));
+			setX((int) (m._xAccurate));
+			setY((int) (m._yAccurate));
+			setZ(zPrev + (int) ((dz * distFraction) + 0.5));
 		}
-		revalidateZone(false);
-		
 		// Set the timer of last position update to now
 		m._moveTimestamp = gameTicks;
 		
-		if (distFraction > 1) {
+		return distFraction > 1 ? MOVE_ARRIVED : MOVE_MOVED;
+	}
+	
+	/**
+	 * Applies the world changes of a movement step computed by {@link #updateMovement()}, second phase of {@link #updatePosition()}.<br>
+	 * Updates the world region and grid, revalidates the zones and notifies the known list and the AI.
+	 * @param status the movement status
+	 * @return {@code true} if the movement is finished
+	 */
+	public boolean applyMovement(int status) {
+		if ((status == MOVE_FINISHED) || (status == MOVE_UNCHANGED)) {
+			return status == MOVE_FINISHED;
+		}
+		
+		if (!isVisible()) {
+			return true;
+		}
+		
+		updateWorldPosition();
+		revalidateZone(false);
+		
+		if (general().incrementalKnownList()) {
+			KnownListUpdateTaskManager.getInstance().onPositionChange(this, false);
+		}
+		
+		if (npc().attackableAiSleep() && isPlayable()) {
+			((L2Playable) this).wakeUpAIs(false);
+		}
+		
+		if (status == MOVE_ARRIVED) {
 			ThreadPoolManager.getInstance().executeAi(() -> {
 				try {
 					if (general().moveBasedKnownList()) {
@@ -3730,30 +3677,36 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 						z = originalZ;
 						distance = originalDistance;
 					} else {
-						m.onGeodataPathIndex = 0; // on first segment
 						m.geoPathGtx = gtx;
 						m.geoPathGty = gty;
 						m.geoPathAccurateTx = originalX;
 						m.geoPathAccurateTy = originalY;
 						
-						x = m.geoPath.get(m.onGeodataPathIndex).getX();
-						y = m.geoPath.get(m.onGeodataPathIndex).getY();
-						z = m.geoPath.get(m.onGeodataPathIndex).getZ();
-						
 						// check for doors in the route
-						if (DoorData.getInstance().checkIfDoorsBetween(curX, curY, curZ, x, y, z, getInstanceId())) {
+						final GeoPath path = m.geoPath;
+						if (DoorData.getInstance().checkIfDoorsBetween(curX, curY, curZ, path.getX(0), path.getY(0), path.getZ(0), getInstanceId())) {
 							m.geoPath = null;
 							getAI().setIntention(CtrlIntention.AI_INTENTION_IDLE);
 							return;
 						}
-						for (int i = 0; i < (m.geoPath.size() - 1); i++) {
-							if (DoorData.getInstance().checkIfDoorsBetween(m.geoPath.get(i), m.geoPath.get(i + 1), getInstanceId())) {
+						for (int i = 0; i < (path.size() - 1); i++) {
+							if (DoorData.getInstance().checkIfDoorsBetween(path.getX(i), path.getY(i), path.getZ(i), path.getX(i + 1), path.getY(i + 1), path.getZ(i + 1), getInstanceId())) {
 								m.geoPath = null;
 								getAI().setIntention(CtrlIntention.AI_INTENTION_IDLE);
 								return;
 							}
 						}
 						
+						m.onGeodataPathIndex = path.getNextWaypoint(0, curX, curY, curZ, getInstanceId());
+						if (m.onGeodataPathIndex == (path.size() - 1)) {
+							x = originalX;
+							y = originalY;
+						} else {
+							x = path.getX(m.onGeodataPathIndex);
+							y = path.getY(m.onGeodataPathIndex);
+						}
+						z = path.getZ(m.onGeodataPathIndex);
+						
 						dx = x - curX;
 						dy = y - curY;
 						dz = z - curZ;
@@ -3834,22 +3787,21 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 		MoveData m = new MoveData();
 		
 		// Update MoveData object
-		m.onGeodataPathIndex = md.onGeodataPathIndex + 1; // next segment
+		m.onGeodataPathIndex = md.geoPath.getNextWaypoint(md.onGeodataPathIndex + 1, super.getX(), super.getY(), super.getZ(), getInstanceId()); // next segment
 		m.geoPath = md.geoPath;
 		m.geoPathGtx = md.geoPathGtx;
 		m.geoPathGty = md.geoPathGty;
 		m.geoPathAccurateTx = md.geoPathAccurateTx;
 		m.geoPathAccurateTy = md.geoPathAccurateTy;
 		
-		if (md.onGeodataPathIndex == (md.geoPath.size() - 2)) {
+		if (m.onGeodataPathIndex == (md.geoPath.size() - 1)) {
 			m._xDestination = md.geoPathAccurateTx;
 			m._yDestination = md.geoPathAccurateTy;
-			m._zDestination = md.geoPath.get(m.onGeodataPathIndex).getZ();
 		} else {
-			m._xDestination = md.geoPath.get(m.onGeodataPathIndex).getX();
-			m._yDestination = md.geoPath.get(m.onGeodataPathIndex).getY();
-			m._zDestination = md.geoPath.get(m.onGeodataPathIndex).getZ();
+			m._xDestination = md.geoPath.getX(m.onGeodataPathIndex);
+			m._yDestination = md.geoPath.getY(m.onGeodataPathIndex);
 		}
+		m._zDestination = md.geoPath.getZ(m.onGeodataPathIndex);
 		
 		double distance = Math.hypot(m._xDestination - super.getX(), m._yDestination - super.getY());
 		// Calculate and set the heading of the L2Character
@@ -5561,8 +5513,12 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param damageOverTime
 	 */
 	public void notifyDamageReceived(double damage, L2Character attacker, Skill skill, boolean critical, boolean damageOverTime, boolean isReflect) {
-		EventDispatcher.getInstance().notifyEventAsync(new OnCreatureDamageReceived(attacker, this, damage, skill, critical, damageOverTime, isReflect), this);
-		EventDispatcher.getInstance().notifyEventAsync(new OnCreatureDamageDealt(attacker, this, damage, skill, critical, damageOverTime, isReflect), attacker);
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_DAMAGE_RECEIVED, this)) {
+			EventDispatcher.getInstance().notifyEventAsync(new OnCreatureDamageReceived(attacker, this, damage, skill, critical, damageOverTime, isReflect), this);
+		}
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_DAMAGE_DEALT, attacker)) {
+			EventDispatcher.getInstance().notifyEventAsync(new OnCreatureDamageDealt(attacker, this, damage, skill, critical, damageOverTime, isReflect), attacker);
+		}
 	}
 	
 	/**
@@ -5571,7 +5527,9 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param isDot
 	 */
 	public void notifyAttackAvoid(final L2Character target, final boolean isDot) {
-		EventDispatcher.getInstance().notifyEventAsync(new OnCreatureAttackAvoid(this, target, isDot), target);
+		if (EventDispatcher.getInstance().hasListener(EventType.ON_CREATURE_ATTACK_AVOID, target)) {
+			EventDispatcher.getInstance().notifyEventAsync(new OnCreatureAttackAvoid(this, target, isDot), target);
+		}
 	}
 	
 	/**
@@ -5678,27 +5636,40 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	}
 	
 	@Override
-	public Queue<AbstractEventListener> getListeners(EventType type) {
-		final Queue<AbstractEventListener> objectListenres = super.getListeners(type);
-		final Queue<AbstractEventListener> templateListeners = getTemplate().getListeners(type);
-		final Queue<AbstractEventListener> globalListeners = isNpc() && !isMonster() ? Containers.Npcs().getListeners(type) : isMonster() ? Containers.Monsters().getListeners(type) : isPlayer() ? Containers.Players().getListeners(type) : EmptyQueue.emptyQueue();
+	public AbstractEventListener[] getListeners(EventType type) {
+		final AbstractEventListener[] objectListeners = super.getListeners(type);
+		final AbstractEventListener[] templateListeners = getTemplate().getListeners(type);
+		final ListenersContainer globalContainer = getGlobalListeners();
+		final AbstractEventListener[] globalListeners = (globalContainer != null) ? globalContainer.getListeners(type) : ListenersContainer.EMPTY_LISTENERS;
 		
 		// Attempt to do not create collection
-		if (objectListenres.isEmpty() && templateListeners.isEmpty() && globalListeners.isEmpty()) {
-			return EmptyQueue.emptyQueue();
-		} else if (!objectListenres.isEmpty() && templateListeners.isEmpty() && globalListeners.isEmpty()) {
-			return objectListenres;
-		} else if (!templateListeners.isEmpty() && objectListenres.isEmpty() && globalListeners.isEmpty()) {
+		if ((templateListeners.length == 0) && (globalListeners.length == 0)) {
+			return objectListeners;
+		} else if ((objectListeners.length == 0) && (globalListeners.length == 0)) {
 			return templateListeners;
-		} else if (!globalListeners.isEmpty() && objectListenres.isEmpty() && templateListeners.isEmpty()) {
+		} else if ((objectListeners.length == 0) && (templateListeners.length == 0)) {
 			return globalListeners;
 		}
 		
-		final Queue<AbstractEventListener> both = new LinkedBlockingDeque<>(objectListenres.size() + templateListeners.size() + globalListeners.size());
-		both.addAll(objectListenres);
-		both.addAll(templateListeners);
-		both.addAll(globalListeners);
-		return both;
+		final AbstractEventListener[] all = new AbstractEventListener[objectListeners.length + templateListeners.length + globalListeners.length];
+		System.arraycopy(objectListeners, 0, all, 0, objectListeners.length);
+		System.arraycopy(templateListeners, 0, all, objectListeners.length, templateListeners.length);
+		System.arraycopy(globalListeners, 0, all, objectListeners.length + templateListeners.length, globalListeners.length);
+		Arrays.sort(all);
+		return all;
+	}
+	
+	@Override
+	public boolean hasListener(EventType type) {
+		final ListenersContainer globalContainer = getGlobalListeners();
+		return super.hasListener(type) || getTemplate().hasListener(type) || ((globalContainer != null) && globalContainer.hasListener(type));
+	}
+	
+	/**
+	 * @return the global listeners container of this creature kind, {@code null} if there is none
+	 */
+	private ListenersContainer getGlobalListeners() {
+		return isNpc() && !isMonster() ? Containers.Npcs() : isMonster() ? Containers.Monsters() : isPlayer() ? Containers.Players() : null;
 	}
 	
 	public Race getRace() {
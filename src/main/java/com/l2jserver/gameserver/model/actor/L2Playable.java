@@ -22,6 +22,7 @@ import com.l2jserver.gameserver.ai.CtrlEvent;
 import com.l2jserver.gameserver.enums.InstanceType;
 import com.l2jserver.gameserver.instancemanager.InstanceManager;
 import com.l2jserver.gameserver.model.L2Object;
+import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.actor.knownlist.PlayableKnownList;
 import com.l2jserver.gameserver.model.actor.stat.PlayableStat;
@@ -47,8 +48,14 @@ import com.l2jserver.gameserver.network.serverpackets.EtcStatusUpdate;
  * </ul>
  */
 public abstract class L2Playable extends L2Character {
+	/** Distance a playable has to move before sleeping attackables around it are checked again. */
+	private static final int WAKE_UP_CHECK_DISTANCE = 100;
+	
 	private L2Character _lockedTarget = null;
 	private L2PcInstance transferDmgTo = null;
+	/** Position of the last check of the sleeping attackables around this playable. */
+	private int _wakeUpCheckX;
+	private int _wakeUpCheckY;
 	
 	public L2Playable(int objectId, L2CharTemplate template) {
 		super(objectId, template);
@@ -62,6 +69,29 @@ public abstract class L2Playable extends L2Character {
 		setIsInvul(false);
 	}
 	
+	/**
+	 * Wakes up the sleeping attackables having this playable inside their wake up range.
+	 * @param force if {@code false} the check is skipped until this playable moved far enough since the last check
+	 */
+	public void wakeUpAIs(boolean force) {
+		final L2WorldRegion region = getWorldRegion();
+		if (region == null) {
+			return;
+		}
+		
+		if (!force) {
+			final long dx = getX() - _wakeUpCheckX;
+			final long dy = getY() - _wakeUpCheckY;
+			if (((dx * dx) + (dy * dy)) < (WAKE_UP_CHECK_DISTANCE * WAKE_UP_CHECK_DISTANCE)) {
+				return;
+			}
+		}
+		
+		_wakeUpCheckX = getX();
+		_wakeUpCheckY = getY();
+		region.wakeUpAIs(this);
+	}
+	
 	@Override
 	public PlayableKnownList getKnownList() {
 		return (PlayableKnownList) super.getKnownList();
@@ -279,8 +279,8 @@ public abstract class L2Vehicle extends L2Character {
 	}
 	
 	@Override
-	public boolean updatePosition() {
-		final boolean result = super.updatePosition();
+	public boolean applyMovement(int status) {
+		final boolean result = super.applyMovement(status);
 		
 		for (L2PcInstance player : _passengers) {
 			if ((player != null) && (player.getVehicle() == this)) {
@@ -150,7 +150,7 @@ public class L2ControllableAirShipInstance extends L2AirShipInstance {
 					return false;
 				}
 				_captain = player;
-				player.broadcastUserInfo();
+				player.broadcastUserInfoNow();
 			} else {
 				return false;
 			}
@@ -28,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.l2jserver.commons.util.Rnd;
+import com.l2jserver.gameserver.GeoData;
 import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.ai.L2CharacterAI;
 import com.l2jserver.gameserver.ai.L2DoorAI;
@@ -220,6 +221,7 @@ public class L2DoorInstance extends L2Character {
 	 */
 	public void setOpen(boolean open) {
 		_open = open;
+		GeoData.getInstance().onDoorStateChange();
 		if (getChildId() > 0) {
 			L2DoorInstance sibling = getSiblingDoor(getChildId());
 			if (sibling != null) {
@@ -544,9 +546,22 @@ public class L2DoorInstance extends L2Character {
 		if (isFort || isCastle || isHall) {
 			broadcastPacket(SystemMessage.getSystemMessage(SystemMessageId.CASTLE_GATE_BROKEN_DOWN));
 		}
+		GeoData.getInstance().onDoorStateChange();
 		return true;
 	}
 	
+	@Override
+	public void doRevive() {
+		super.doRevive();
+		GeoData.getInstance().onDoorStateChange();
+	}
+	
+	@Override
+	public void onSpawn() {
+		super.onSpawn();
+		GeoData.getInstance().onDoorStateChange();
+	}
+	
 	@Override
 	public void moveToLocation(int x, int y, int z, int offset) {
 	}
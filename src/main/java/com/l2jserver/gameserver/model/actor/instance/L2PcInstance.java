@@ -129,6 +129,7 @@ import com.l2jserver.gameserver.instancemanager.ZoneManager;
 import com.l2jserver.gameserver.model.ArenaParticipantsHolder;
 import com.l2jserver.gameserver.model.BlockList;
 import com.l2jserver.gameserver.model.ClanPrivilege;
+import com.l2jserver.gameserver.model.HtmlActionCache;
 import com.l2jserver.gameserver.model.L2AccessLevel;
 import com.l2jserver.gameserver.model.L2Clan;
 import com.l2jserver.gameserver.model.L2ClanMember;
@@ -257,6 +258,7 @@ import com.l2jserver.gameserver.model.punishment.PunishmentAffect;
 import com.l2jserver.gameserver.model.punishment.PunishmentType;
 import com.l2jserver.gameserver.model.quest.Quest;
 import com.l2jserver.gameserver.model.quest.QuestState;
+import com.l2jserver.gameserver.model.quest.QuestVariableBuffer;
 import com.l2jserver.gameserver.model.skills.AbnormalType;
 import com.l2jserver.gameserver.model.skills.BuffInfo;
 import com.l2jserver.gameserver.model.skills.CommonSkill;
@@ -272,7 +274,6 @@ import com.l2jserver.gameserver.model.zone.ZoneId;
 import com.l2jserver.gameserver.model.zone.type.L2BossZone;
 import com.l2jserver.gameserver.network.L2GameClient;
 import com.l2jserver.gameserver.network.SystemMessageId;
-import com.l2jserver.gameserver.network.serverpackets.AbstractHtmlPacket;
 import com.l2jserver.gameserver.network.serverpackets.ActionFailed;
 import com.l2jserver.gameserver.network.serverpackets.ChangeWaitType;
 import com.l2jserver.gameserver.network.serverpackets.CharInfo;
@@ -338,6 +339,8 @@ import com.l2jserver.gameserver.network.serverpackets.TradeStart;
 import com.l2jserver.gameserver.network.serverpackets.UserInfo;
 import com.l2jserver.gameserver.network.serverpackets.ValidateLocation;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
+import com.l2jserver.gameserver.taskmanager.ItemUpdateTaskManager;
+import com.l2jserver.gameserver.taskmanager.UserInfoTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 import com.l2jserver.gameserver.util.EnumIntBitmask;
 import com.l2jserver.gameserver.util.FloodProtectors;
@@ -372,6 +375,7 @@ public final class L2PcInstance extends L2Playable {
 	/** Stored from last ValidatePosition **/
 	private final Location _lastServerPosition = new Location(0, 0, 0);
 	private final PcInventory _inventory = new PcInventory(this);
+	private final QuestVariableBuffer _questVariableBuffer = new QuestVariableBuffer(getObjectId());
 	private final PcFreight _freight = new PcFreight(this);
 	/** The table containing all Quests began by the L2PcInstance */
 	private final Map<String, QuestState> _quests = new ConcurrentHashMap<>();
@@ -398,8 +402,7 @@ public final class L2PcInstance extends L2Playable {
 	/** Last Html Npcs, 0 = last html was not bound to an npc */
 	private final int[] _htmlActionOriginObjectIds = new int[HtmlActionScope.values().length];
 	/** Bypass validations */
-	@SuppressWarnings("unchecked")
-	private final LinkedList<String>[] _htmlActionCaches = new LinkedList[HtmlActionScope.values().length];
+	private final HtmlActionCache[] _htmlActionCaches = new HtmlActionCache[HtmlActionScope.values().length];
 	private volatile Set<Integer> _friends;
 	private PartyDistributionType _partyDistributionType;
 	private L2GameClient _client;
@@ -676,7 +679,7 @@ public final class L2PcInstance extends L2Playable {
 		initPcStatusUpdateValues();
 		
 		for (int i = 0; i < _htmlActionCaches.length; ++i) {
-			_htmlActionCaches[i] = new LinkedList<>();
+			_htmlActionCaches[i] = new HtmlActionCache();
 		}
 		
 		_accountName = accountName;
@@ -749,38 +752,53 @@ public final class L2PcInstance extends L2Playable {
 				return null;
 			}
 			
-			DAOFactory.getInstance().getPlayerDAO().loadCharacters(player);
+			// Retrieve from the database the independent secondary data of this L2PcInstance, concurrently with items and skills if enabled
+			final List<Runnable> loaders = new ArrayList<>(12);
+			loaders.add(() -> DAOFactory.getInstance().getPlayerDAO().loadCharacters(player));
+			loaders.add(player.getFreight()::restore);
+			loaders.add(player._macros::restoreMe);
+			loaders.add(() -> DAOFactory.getInstance().getHennaDAO().load(player));
+			loaders.add(() -> DAOFactory.getInstance().getTeleportBookmarkDAO().load(player));
+			loaders.add(() -> DAOFactory.getInstance().getRecipeBookDAO().load(player, true));
+			if (character().storeRecipeShopList()) {
+				loaders.add(() -> DAOFactory.getInstance().getRecipeShopListDAO().load(player));
+			}
+			loaders.add(() -> DAOFactory.getInstance().getPremiumItemDAO().load(player));
+			loaders.add(() -> DAOFactory.getInstance().getItemDAO().loadPetInventory(player));
+			loaders.add(() -> DAOFactory.getInstance().getFriendDAO().load(player));
+			if (character().storeUISettings()) {
+				loaders.add(player::restoreUISettings);
+			}
+			// Load player's recommendations and bonus time
+			loaders.add(() -> DAOFactory.getInstance().getRecommendationBonusDAO().load(player));
+			
+			final List<Future<?>> pending = new ArrayList<>(loaders.size());
+			for (Runnable loader : loaders) {
+				if (general().getCharacterLoadThreadCoreSize() > 0) {
+					pending.add(ThreadPoolManager.getInstance().submitCharacterLoad(loader));
+				} else {
+					loader.run();
+				}
+			}
 			
+			// Items and skills both alter the stats of the player, they are restored in order on this thread.
 			// Retrieve from the database all items of this L2PcInstance and add them to _inventory
 			player.getInventory().restore();
-			player.getFreight().restore();
 			if (!general().warehouseCache()) {
 				player.getWarehouse();
 			}
 			
-			// Retrieve from the database all secondary data of this L2PcInstance
 			// Note that Clan, Noblesse and Hero skills are given separately and not here.
 			// Retrieve from the database all skills of this L2PcInstance and add them to _skills
 			DAOFactory.getInstance().getSkillDAO().load(player);
 			
-			player._macros.restoreMe();
-			
+			// Shortcuts are verified against the inventory.
 			player._shortCuts.restoreMe();
 			
-			DAOFactory.getInstance().getHennaDAO().load(player);
-			
-			DAOFactory.getInstance().getTeleportBookmarkDAO().load(player);
-			
-			DAOFactory.getInstance().getRecipeBookDAO().load(player, true);
-			
-			if (character().storeRecipeShopList()) {
-				DAOFactory.getInstance().getRecipeShopListDAO().load(player);
+			for (Future<?> future : pending) {
+				future.get();
 			}
 			
-			DAOFactory.getInstance().getPremiumItemDAO().load(player);
-			
-			DAOFactory.getInstance().getItemDAO().loadPetInventory(player);
-			
 			// Reward auto-get skills and all available skills if auto-learn skills is true.
 			player.rewardSkills();
 			
@@ -808,12 +826,6 @@ public final class L2PcInstance extends L2Playable {
 			// Update the expertise status of the L2PcInstance
 			player.refreshExpertisePenalty();
 			
-			DAOFactory.getInstance().getFriendDAO().load(player);
-			
-			if (character().storeUISettings()) {
-				player.restoreUISettings();
-			}
-			
 			if (player.isGM()) {
 				final long masks = player.getVariables().getLong(COND_OVERRIDE_KEY, PcCondOverride.getAllExceptionsMask());
 				player.setOverrideCond(masks);
@@ -822,9 +834,6 @@ public final class L2PcInstance extends L2Playable {
 			// Starting recommendations give task, init Task give = 10 reco 2hs & 1 every 1hs.
 			player.getRecSystem().startGiveTask();
 			
-			// Load player's recommendations and bonus time
-			DAOFactory.getInstance().getRecommendationBonusDAO().load(player);
-			
 			return player;
 		} catch (Exception e) {
 			LOG.error("Failed loading character.", e);
@@ -962,6 +971,38 @@ public final class L2PcInstance extends L2Playable {
 		return result;
 	}
 	
+	/**
+	 * Sends the relation of this player, and of its summon, to the given player.<br>
+	 * Unless forced, nothing is sent if the relation did not change since the last one sent to that player, or if that player is not known.
+	 * @param target the player to send the relation to
+	 * @param force if {@code true} the relation is sent even if it did not change, used when the karma, PvP flag or siege state changed
+	 */
+	public void sendRelationChanged(L2PcInstance target, boolean force) {
+		final int relation = getRelation(target);
+		final boolean autoAttackable = isAutoAttackable(target);
+		final int state = (relation << 1) | (autoAttackable ? 1 : 0);
+		final Integer oldState = getKnownList().getKnownRelations().get(target.getObjectId());
+		if (!force && ((oldState == null) || (oldState == state))) {
+			return;
+		}
+		if (oldState != null) {
+			getKnownList().getKnownRelations().replace(target.getObjectId(), state);
+		}
+		
+		final L2Summon summon = getSummon();
+		if ((summon != null) && !isInvisible() && !summon.isInvisible()) {
+			final RelationChanged rc = new RelationChanged();
+			rc.addRelation(this, relation, autoAttackable);
+			rc.addRelation(summon, relation, autoAttackable);
+			target.sendPacket(rc);
+		} else {
+			target.sendPacket(new RelationChanged(this, relation, autoAttackable));
+			if (summon != null) {
+				target.sendPacket(new RelationChanged(summon, relation, autoAttackable));
+			}
+		}
+	}
+	
 	private void initPcStatusUpdateValues() {
 		_cpUpdateInterval = getMaxCp() / 352.0;
 		_cpUpdateIncCheck = getMaxCp();
@@ -1455,13 +1496,8 @@ public final class L2PcInstance extends L2Playable {
 			sendPacket(new RelationChanged(getSummon(), getRelation(this), false));
 		}
 		
-		Collection<L2PcInstance> plrs = getKnownList().getKnownPlayers().values();
-		
-		for (L2PcInstance target : plrs) {
-			target.sendPacket(new RelationChanged(this, getRelation(target), isAutoAttackable(target)));
-			if (hasSummon()) {
-				target.sendPacket(new RelationChanged(getSummon(), getRelation(target), isAutoAttackable(target)));
-			}
+		for (L2PcInstance target : getKnownList().getKnownPlayers().values()) {
+			sendRelationChanged(target, true);
 		}
 	}
 	
@@ -1987,6 +2023,7 @@ public final class L2PcInstance extends L2Playable {
 	
 	public void setLevel(int level) {
 		getSubStat().setLevel(Math.min(level, getMaxLevel()));
+		getStat().invalidateStatCache();
 	}
 	
 	public int getMaxLevel() {
@@ -2422,6 +2459,13 @@ public final class L2PcInstance extends L2Playable {
 		return _inventory;
 	}
 	
+	/**
+	 * @return the buffer of pending quest variable writes of this player
+	 */
+	public QuestVariableBuffer getQuestVariableBuffer() {
+		return _questVariableBuffer;
+	}
+	
 	/**
 	 * Delete a ShortCut of the L2PcInstance _shortCuts.
 	 * @param objectId
@@ -3585,9 +3629,26 @@ public final class L2PcInstance extends L2Playable {
 	 * L2PcInstance state modifications, server just need to go through _knownPlayers to send Server->Client Packet <B><U> Actions</U> :</B>
 	 * <li>Send a Server->Client packet UserInfo to this L2PcInstance (Public and Private Data)</li>
 	 * <li>Send a Server->Client packet CharInfo to all L2PcInstance in _KnownPlayers of the L2PcInstance (Public data only)</li> <FONT COLOR=#FF0000><B> <U>Caution</U> : DON'T SEND UserInfo packet to other players instead of CharInfo packet. Indeed, UserInfo packet contains PRIVATE DATA as MaxHP,
-	 * STR, DEX...</B></FONT>
+	 * STR, DEX...</B></FONT><br>
+	 * The broadcast is coalesced with the other changes of the player made within {@code UserInfoBroadcastDelay}.
 	 */
 	public void broadcastUserInfo() {
+		if (UserInfoTaskManager.isEnabled()) {
+			UserInfoTaskManager.getInstance().add(this);
+		} else {
+			broadcastUserInfoNow();
+		}
+	}
+	
+	/**
+	 * Broadcasts the user info right away, replacing any pending coalesced broadcast, for callers depending on the order of the packets.
+	 * @see #broadcastUserInfo()
+	 */
+	public void broadcastUserInfoNow() {
+		if (UserInfoTaskManager.isEnabled()) {
+			UserInfoTaskManager.getInstance().remove(this);
+		}
+		
 		// Send a Server->Client packet UserInfo to this L2PcInstance
 		sendPacket(new UserInfo(this));
 		
@@ -3624,14 +3685,7 @@ public final class L2PcInstance extends L2Playable {
 			}
 			player.sendPacket(mov);
 			if (mov instanceof CharInfo) {
-				int relation = getRelation(player);
-				Integer oldrelation = getKnownList().getKnownRelations().get(player.getObjectId());
-				if ((oldrelation != null) && (oldrelation != relation)) {
-					player.sendPacket(new RelationChanged(this, relation, isAutoAttackable(player)));
-					if (hasSummon()) {
-						player.sendPacket(new RelationChanged(getSummon(), relation, isAutoAttackable(player)));
-					}
-				}
+				sendRelationChanged(player, false);
 			}
 		}
 	}
@@ -3652,14 +3706,7 @@ public final class L2PcInstance extends L2Playable {
 			if (isInsideRadius(player, radiusInKnownlist, false, false)) {
 				player.sendPacket(mov);
 				if (mov instanceof CharInfo) {
-					int relation = getRelation(player);
-					Integer oldrelation = getKnownList().getKnownRelations().get(player.getObjectId());
-					if ((oldrelation != null) && (oldrelation != relation)) {
-						player.sendPacket(new RelationChanged(this, relation, isAutoAttackable(player)));
-						if (hasSummon()) {
-							player.sendPacket(new RelationChanged(getSummon(), relation, isAutoAttackable(player)));
-						}
-					}
+					sendRelationChanged(player, false);
 				}
 			}
 		}
@@ -4018,11 +4065,12 @@ public final class L2PcInstance extends L2Playable {
 		}
 		
 		_transformation = transformation;
+		getStat().invalidateStatCache();
 		getEffectList().stopAllToggles();
 		transformation.onTransform(this);
 		sendSkillList();
 		sendPacket(new SkillCoolTime(this));
-		broadcastUserInfo();
+		broadcastUserInfoNow();
 		
 		// Notify to scripts
 		EventDispatcher.getInstance().notifyEventAsync(new OnPlayerTransform(this, transformation.getId()), this);
@@ -4034,11 +4082,12 @@ public final class L2PcInstance extends L2Playable {
 			setQueuedSkill(null, false, false);
 			_transformation.onUntransform(this);
 			_transformation = null;
+			getStat().invalidateStatCache();
 			getEffectList().stopAllToggles(false);
 			getEffectList().stopSkillEffects(false, AbnormalType.TRANSFORM);
 			sendSkillList();
 			sendPacket(new SkillCoolTime(this));
-			broadcastUserInfo();
+			broadcastUserInfoNow();
 			
 			// Notify to scripts
 			EventDispatcher.getInstance().notifyEventAsync(new OnPlayerTransform(this, 0), this);
@@ -5480,7 +5529,7 @@ public final class L2PcInstance extends L2Playable {
 		broadcastPacket(new Ride(this));
 		
 		// Notify self and others about speed change
-		broadcastUserInfo();
+		broadcastUserInfoNow();
 		
 		pet.unSummon(this);
 		return true;
@@ -5497,7 +5546,7 @@ public final class L2PcInstance extends L2Playable {
 		broadcastPacket(new Ride(this));
 		
 		// Notify self and others about speed change
-		broadcastUserInfo();
+		broadcastUserInfoNow();
 		if (useFood) {
 			startFeed(npcId);
 		}
@@ -5589,7 +5638,7 @@ public final class L2PcInstance extends L2Playable {
 		setMountObjectID(0);
 		DAOFactory.getInstance().getPetDAO().updateFood(this, petId);
 		// Notify self and others about speed change
-		broadcastUserInfo();
+		broadcastUserInfoNow();
 		return true;
 	}
 	
@@ -5733,12 +5782,8 @@ public final class L2PcInstance extends L2Playable {
 	public void setKarmaFlag(int flag) {
 		sendPacket(new UserInfo(this));
 		sendPacket(new ExBrExtraUserInfo(this));
-		Collection<L2PcInstance> plrs = getKnownList().getKnownPlayers().values();
-		for (L2PcInstance player : plrs) {
-			player.sendPacket(new RelationChanged(this, getRelation(player), isAutoAttackable(player)));
-			if (hasSummon()) {
-				player.sendPacket(new RelationChanged(getSummon(), getRelation(player), isAutoAttackable(player)));
-			}
+		for (L2PcInstance player : getKnownList().getKnownPlayers().values()) {
+			sendRelationChanged(player, true);
 		}
 	}
 	
@@ -5751,10 +5796,7 @@ public final class L2PcInstance extends L2Playable {
 		sendPacket(su);
 		
 		for (L2PcInstance player : getKnownList().getKnownPlayers().values()) {
-			player.sendPacket(new RelationChanged(this, getRelation(player), isAutoAttackable(player)));
-			if (hasSummon()) {
-				player.sendPacket(new RelationChanged(getSummon(), getRelation(player), isAutoAttackable(player)));
-			}
+			sendRelationChanged(player, true);
 		}
 	}
 	
@@ -5828,8 +5870,7 @@ public final class L2PcInstance extends L2Playable {
 		DAOFactory.getInstance().getItemReuseDAO().insert(this);
 		
 		if (character().storeRecipeShopList()) {
-			DAOFactory.getInstance().getRecipeShopListDAO().delete(this);
-			DAOFactory.getInstance().getRecipeShopListDAO().insert(this);
+			DAOFactory.getInstance().getRecipeShopListDAO().store(this);
 		}
 		
 		if (character().storeUISettings()) {
@@ -5838,6 +5879,8 @@ public final class L2PcInstance extends L2Playable {
 		
 		SevenSigns.getInstance().saveSevenSignsData(getObjectId());
 		
+		_questVariableBuffer.flush();
+		
 		final PlayerVariables vars = getScript(PlayerVariables.class);
 		if (vars != null) {
 			vars.storeMe();
@@ -5860,9 +5903,7 @@ public final class L2PcInstance extends L2Playable {
 			return;
 		}
 		
-		DAOFactory.getInstance().getPlayerSkillSaveDAO().delete(this);
-		
-		DAOFactory.getInstance().getPlayerSkillSaveDAO().insert(this, storeEffects);
+		DAOFactory.getInstance().getPlayerSkillSaveDAO().store(this, storeEffects);
 	}
 	
 	/**
@@ -7152,7 +7193,7 @@ public final class L2PcInstance extends L2Playable {
 		
 		teleToLocation(loc, false);
 		
-		broadcastUserInfo();
+		broadcastUserInfoNow();
 	}
 	
 	public void setLastLocation() {
@@ -7198,7 +7239,7 @@ public final class L2PcInstance extends L2Playable {
 		teleToLocation(loc, false);
 		sendPacket(new ExOlympiadMode(3));
 		
-		broadcastUserInfo();
+		broadcastUserInfoNow();
 	}
 	
 	public void leaveObserverMode() {
@@ -7220,7 +7261,7 @@ public final class L2PcInstance extends L2Playable {
 		setFalling(); // prevent receive falling damage
 		_observerMode = false;
 		
-		broadcastUserInfo();
+		broadcastUserInfoNow();
 	}
 	
 	public void leaveOlympiadObserverMode() {
@@ -7241,7 +7282,7 @@ public final class L2PcInstance extends L2Playable {
 			getAI().setIntention(CtrlIntention.AI_INTENTION_IDLE);
 		}
 		unsetLastLocation();
-		broadcastUserInfo();
+		broadcastUserInfoNow();
 	}
 	
 	public int getOlympiadSide() {
@@ -7667,6 +7708,7 @@ public final class L2PcInstance extends L2Playable {
 	
 	public void setClassIndex(int classIndex) {
 		_classIndex = classIndex;
+		getStat().invalidateStatCache();
 	}
 	
 	private void setClassTemplate(int classId) {
@@ -7815,7 +7857,7 @@ public final class L2PcInstance extends L2Playable {
 			
 			refreshOverloaded();
 			refreshExpertisePenalty();
-			broadcastUserInfo();
+			broadcastUserInfoNow();
 			
 			// Clear resurrect xp calculation
 			setExpBeforeDeath(0);
@@ -8259,20 +8301,6 @@ public final class L2PcInstance extends L2Playable {
 		return _lastHtmlActionOriginObjId;
 	}
 	
-	private boolean validateHtmlAction(Iterable<String> actionIter, String action) {
-		for (String cachedAction : actionIter) {
-			if (cachedAction.charAt(cachedAction.length() - 1) == AbstractHtmlPacket.VAR_PARAM_START_CHAR) {
-				if (action.startsWith(cachedAction.substring(0, cachedAction.length() - 1).trim())) {
-					return true;
-				}
-			} else if (cachedAction.equals(action)) {
-				return true;
-			}
-		}
-		
-		return false;
-	}
-	
 	/**
 	 * Check if the HTML action was sent in a HTML packet.<br>
 	 * If the HTML action was not sent for whatever reason, -1 is returned.<br>
@@ -8284,7 +8312,7 @@ public final class L2PcInstance extends L2Playable {
 	 */
 	public int validateHtmlAction(String action) {
 		for (int i = 0; i < _htmlActionCaches.length; ++i) {
-			if ((_htmlActionCaches[i] != null) && validateHtmlAction(_htmlActionCaches[i], action)) {
+			if ((_htmlActionCaches[i] != null) && _htmlActionCaches[i].contains(action)) {
 				_lastHtmlActionOriginObjId = _htmlActionOriginObjectIds[i];
 				return _lastHtmlActionOriginObjId;
 			}
@@ -8421,7 +8449,10 @@ public final class L2PcInstance extends L2Playable {
 	public boolean deleteMe() {
 		cleanup();
 		storeMe();
-		return super.deleteMe();
+		final boolean result = super.deleteMe();
+		// Write the pending item updates of the player.
+		ItemUpdateTaskManager.getInstance().flushOwners(getObjectId());
+		return result;
 	}
 	
 	private synchronized void cleanup() {
@@ -9903,63 +9934,21 @@ public final class L2PcInstance extends L2Playable {
 			
 			activeChar.sendPacket(new CharInfo(this));
 			activeChar.sendPacket(new ExBrExtraUserInfo(this));
-			int relation1 = getRelation(activeChar);
-			int relation2 = activeChar.getRelation(this);
-			Integer oldrelation = getKnownList().getKnownRelations().get(activeChar.getObjectId());
-			if ((oldrelation != null) && (oldrelation != relation1)) {
-				activeChar.sendPacket(new RelationChanged(this, relation1, isAutoAttackable(activeChar)));
-				if (hasSummon()) {
-					activeChar.sendPacket(new RelationChanged(getSummon(), relation1, isAutoAttackable(activeChar)));
-				}
-			}
-			oldrelation = activeChar.getKnownList().getKnownRelations().get(getObjectId());
-			if ((oldrelation != null) && (oldrelation != relation2)) {
-				sendPacket(new RelationChanged(activeChar, relation2, activeChar.isAutoAttackable(this)));
-				if (activeChar.hasSummon()) {
-					sendPacket(new RelationChanged(activeChar.getSummon(), relation2, activeChar.isAutoAttackable(this)));
-				}
-			}
+			sendRelationChanged(activeChar, false);
+			activeChar.sendRelationChanged(this, false);
 			activeChar.sendPacket(new GetOnVehicle(getObjectId(), getBoat().getObjectId(), getInVehiclePosition()));
 		} else if (isInAirShip()) {
 			setXYZ(getAirShip().getLocation());
 			activeChar.sendPacket(new CharInfo(this));
 			activeChar.sendPacket(new ExBrExtraUserInfo(this));
-			int relation1 = getRelation(activeChar);
-			int relation2 = activeChar.getRelation(this);
-			Integer oldrelation = getKnownList().getKnownRelations().get(activeChar.getObjectId());
-			if ((oldrelation != null) && (oldrelation != relation1)) {
-				activeChar.sendPacket(new RelationChanged(this, relation1, isAutoAttackable(activeChar)));
-				if (hasSummon()) {
-					activeChar.sendPacket(new RelationChanged(getSummon(), relation1, isAutoAttackable(activeChar)));
-				}
-			}
-			oldrelation = activeChar.getKnownList().getKnownRelations().get(getObjectId());
-			if ((oldrelation != null) && (oldrelation != relation2)) {
-				sendPacket(new RelationChanged(activeChar, relation2, activeChar.isAutoAttackable(this)));
-				if (activeChar.hasSummon()) {
-					sendPacket(new RelationChanged(activeChar.getSummon(), relation2, activeChar.isAutoAttackable(this)));
-				}
-			}
+			sendRelationChanged(activeChar, false);
+			activeChar.sendRelationChanged(this, false);
 			activeChar.sendPacket(new ExGetOnAirShip(this, getAirShip()));
 		} else {
 			activeChar.sendPacket(new CharInfo(this));
 			activeChar.sendPacket(new ExBrExtraUserInfo(this));
-			int relation1 = getRelation(activeChar);
-			int relation2 = activeChar.getRelation(this);
-			Integer oldrelation = getKnownList().getKnownRelations().get(activeChar.getObjectId());
-			if ((oldrelation != null) && (oldrelation != relation1)) {
-				activeChar.sendPacket(new RelationChanged(this, relation1, isAutoAttackable(activeChar)));
-				if (hasSummon()) {
-					activeChar.sendPacket(new RelationChanged(getSummon(), relation1, isAutoAttackable(activeChar)));
-				}
-			}
-			oldrelation = activeChar.getKnownList().getKnownRelations().get(getObjectId());
-			if ((oldrelation != null) && (oldrelation != relation2)) {
-				sendPacket(new RelationChanged(activeChar, relation2, activeChar.isAutoAttackable(this)));
-				if (activeChar.hasSummon()) {
-					sendPacket(new RelationChanged(activeChar.getSummon(), relation2, activeChar.isAutoAttackable(this)));
-				}
-			}
+			sendRelationChanged(activeChar, false);
+			activeChar.sendRelationChanged(this, false);
 		}
 		
 		switch (getPrivateStoreType()) {
@@ -30,6 +30,9 @@ import com.l2jserver.gameserver.util.Util;
 public class ObjectKnownList {
 	private final L2Object _activeObject;
 	private volatile Map<Integer, L2Object> _knownObjects;
+	/** Position of the active object on its last incremental knownlist update. */
+	private volatile int _lastUpdateX;
+	private volatile int _lastUpdateY;
 	
 	public ObjectKnownList(L2Object activeObject) {
 		_activeObject = activeObject;
@@ -149,6 +152,25 @@ public class ObjectKnownList {
 		}
 	}
 	
+	/**
+	 * Verifies if the active object has moved far enough since its last incremental update.
+	 * @param distance the distance threshold
+	 * @return {@code true} if the active object is at least {@code distance} away from its last update position, {@code false} otherwise
+	 */
+	public final boolean hasMovedSinceLastUpdate(int distance) {
+		final long dx = getActiveObject().getX() - _lastUpdateX;
+		final long dy = getActiveObject().getY() - _lastUpdateY;
+		return ((dx * dx) + (dy * dy)) >= ((long) distance * distance);
+	}
+	
+	/**
+	 * Stores the current position of the active object as its last incremental update position.
+	 */
+	public final void setLastUpdatePosition() {
+		_lastUpdateX = getActiveObject().getX();
+		_lastUpdateY = getActiveObject().getY();
+	}
+	
 	public L2Object getActiveObject() {
 		return _activeObject;
 	}
@@ -23,7 +23,9 @@ import static com.l2jserver.gameserver.config.Configuration.customs;
 import static com.l2jserver.gameserver.config.Configuration.npc;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.l2jserver.gameserver.GameTimeController;
 import com.l2jserver.gameserver.model.Elementals;
 import com.l2jserver.gameserver.model.PcCondOverride;
 import com.l2jserver.gameserver.model.actor.L2Character;
@@ -44,6 +46,10 @@ public class CharStat {
 	private final float[] _defenceTraits = new float[TraitType.values().length];
 	private final int[] _defenceTraitsCount = new int[TraitType.values().length];
 	private final int[] _traitsInvul = new int[TraitType.values().length];
+	/** Cached values of the calculations without target nor skill, indexed by stat ordinal. */
+	private final StatCacheEntry[] _statCache = new StatCacheEntry[Stats.NUM_STATS];
+	/** Version of the cached values, increased to invalidate all of them. */
+	private final AtomicInteger _statCacheVersion = new AtomicInteger();
 	
 	public CharStat(L2Character activeChar) {
 		_activeChar = activeChar;
@@ -55,6 +61,14 @@ public class CharStat {
 		return calcStat(stat, init, null, null);
 	}
 	
+	/**
+	 * Invalidates all the cached stat values of this character.<br>
+	 * Must be called when something the stat functions rely on is changed, such as functions, level, class or transformation.
+	 */
+	public final void invalidateStatCache() {
+		_statCacheVersion.incrementAndGet();
+	}
+	
 	/**
 	 * Calculate the new value of the state with modifiers that will be applied on the targeted L2Character.<BR>
 	 * <B><U> Concept</U> :</B><BR A L2Character owns a table of Calculators called <B>_calculators</B>. Each Calculator (a calculator per state) own a table of Func object. A Func object is a mathematical function that permit to calculate the modifier of a state (ex : REGENERATE_HP_RATE...) : <BR>
@@ -82,6 +96,25 @@ public class CharStat {
 			return value;
 		}
 		
+		// Values not depending on a target or skill are cached until invalidated, at most for a game tick
+		if ((target == null) && (skill == null)) {
+			final int version = _statCacheVersion.get();
+			final int tick = GameTimeController.getInstance().getGameTicks();
+			final StatCacheEntry entry = _statCache[id];
+			if ((entry != null) && (entry._version == version) && (entry._tick == tick) && (entry._initVal == initVal)) {
+				return entry._value;
+			}
+			
+			value = calcStatValue(stat, c, initVal, null, null);
+			_statCache[id] = new StatCacheEntry(initVal, value, version, tick);
+			return value;
+		}
+		return calcStatValue(stat, c, initVal, target, skill);
+	}
+	
+	private double calcStatValue(Stats stat, Calculator c, double initVal, L2Character target, Skill skill) {
+		double value = initVal;
+		
 		// Apply transformation stats.
 		if (getActiveChar().isPlayer() && getActiveChar().isTransformed()) {
 			double val = getActiveChar().getTransformation().getStat(getActiveChar().getActingPlayer(), stat);
@@ -189,6 +222,7 @@ public class CharStat {
 	
 	public void setLevel(int value) {
 		_level = value;
+		invalidateStatCache();
 	}
 	
 	/**
@@ -626,4 +660,21 @@ public class CharStat {
 	public int getMaxBuffCount() {
 		return (int) calcStat(Stats.ENLARGE_ABNORMAL_SLOT, character().getMaxBuffAmount());
 	}
+	
+	/**
+	 * Cached stat value, immutable so it can be shared between threads without locking.
+	 */
+	private static final class StatCacheEntry {
+		protected final double _initVal;
+		protected final double _value;
+		protected final int _version;
+		protected final int _tick;
+		
+		protected StatCacheEntry(double initVal, double value, int version, int tick) {
+			_initVal = initVal;
+			_value = value;
+			_version = version;
+			_tick = tick;
+		}
+	}
 }
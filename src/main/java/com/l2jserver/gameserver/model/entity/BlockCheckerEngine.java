@@ -51,7 +51,6 @@ import com.l2jserver.gameserver.network.serverpackets.ExCubeGameChangePoints;
 import com.l2jserver.gameserver.network.serverpackets.ExCubeGameCloseUI;
 import com.l2jserver.gameserver.network.serverpackets.ExCubeGameEnd;
 import com.l2jserver.gameserver.network.serverpackets.ExCubeGameExtendedChangePoints;
-import com.l2jserver.gameserver.network.serverpackets.RelationChanged;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
 
 /**
@@ -258,7 +257,7 @@ public final class BlockCheckerEngine {
 	 */
 	protected void broadcastRelationChanged(L2PcInstance plr) {
 		for (L2PcInstance p : _holder.getAllPlayers()) {
-			p.sendPacket(new RelationChanged(plr, plr.getRelation(p), plr.isAutoAttackable(p)));
+			plr.sendRelationChanged(p, true);
 		}
 	}
 	
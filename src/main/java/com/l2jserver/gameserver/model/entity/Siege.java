@@ -59,7 +59,6 @@ import com.l2jserver.gameserver.model.events.impl.sieges.castle.OnCastleSiegeOwn
 import com.l2jserver.gameserver.model.events.impl.sieges.castle.OnCastleSiegeStart;
 import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.serverpackets.ExBrExtraUserInfo;
-import com.l2jserver.gameserver.network.serverpackets.RelationChanged;
 import com.l2jserver.gameserver.network.serverpackets.SiegeInfo;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
 import com.l2jserver.gameserver.network.serverpackets.UserInfo;
@@ -479,10 +478,7 @@ public class Siege implements Siegable {
 						continue;
 					}
 					
-					player.sendPacket(new RelationChanged(member, member.getRelation(player), member.isAutoAttackable(player)));
-					if (member.hasSummon()) {
-						player.sendPacket(new RelationChanged(member.getSummon(), member.getRelation(player), member.isAutoAttackable(player)));
-					}
+					member.sendRelationChanged(player, true);
 				}
 			}
 		}
@@ -517,10 +513,7 @@ public class Siege implements Siegable {
 					if (player == null) {
 						continue;
 					}
-					player.sendPacket(new RelationChanged(member, member.getRelation(player), member.isAutoAttackable(player)));
-					if (member.hasSummon()) {
-						player.sendPacket(new RelationChanged(member.getSummon(), member.getRelation(player), member.isAutoAttackable(player)));
-					}
+					member.sendRelationChanged(player, true);
 				}
 			}
 		}
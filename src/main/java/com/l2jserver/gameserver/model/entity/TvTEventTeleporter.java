@@ -110,6 +110,6 @@ public class TvTEventTeleporter implements Runnable {
 		_playerInstance.setCurrentMp(_playerInstance.getMaxMp());
 		
 		_playerInstance.broadcastStatusUpdate();
-		_playerInstance.broadcastUserInfo();
+		_playerInstance.broadcastUserInfoNow();
 	}
 }
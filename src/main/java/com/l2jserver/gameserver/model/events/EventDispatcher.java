@@ -18,7 +18,6 @@
  */
 package com.l2jserver.gameserver.model.events;
 
-import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -37,6 +36,16 @@ public final class EventDispatcher {
 	protected EventDispatcher() {
 	}
 	
+	/**
+	 * Verifies if there is any listener for the specified event type, allowing callers to skip creating the event.
+	 * @param type the event type
+	 * @param container the local listeners container, may be {@code null}
+	 * @return {@code true} if the global or the local listeners container have listeners for the event type
+	 */
+	public boolean hasListener(EventType type, ListenersContainer container) {
+		return Containers.Global().hasListener(type) || ((container != null) && container.hasListener(type));
+	}
+	
 	public <T extends AbstractEventReturn> T notifyEvent(IBaseEvent event) {
 		return notifyEvent(event, null, null);
 	}
@@ -51,7 +60,7 @@ public final class EventDispatcher {
 	
 	public <T extends AbstractEventReturn> T notifyEvent(IBaseEvent event, ListenersContainer container, Class<T> callbackClass) {
 		try {
-			return Containers.Global().hasListener(event.getType()) || ((container != null) && container.hasListener(event.getType())) ? notifyEventImpl(event, container, callbackClass) : null;
+			return hasListener(event.getType(), container) ? notifyEventImpl(event, container, callbackClass) : null;
 		} catch (Exception e) {
 			_log.log(Level.WARNING, getClass().getSimpleName() + ": Couldn't notify event " + event.getClass().getSimpleName(), e);
 		}
@@ -177,7 +186,7 @@ public final class EventDispatcher {
 	 * @param callback
 	 * @return
 	 */
-	private <T extends AbstractEventReturn> T notifyToListeners(Queue<AbstractEventListener> listeners, IBaseEvent event, Class<T> returnBackClass, T callback) {
+	private <T extends AbstractEventReturn> T notifyToListeners(AbstractEventListener[] listeners, IBaseEvent event, Class<T> returnBackClass, T callback) {
 		for (AbstractEventListener listener : listeners) {
 			try {
 				final T rb = listener.executeEvent(event, returnBackClass);
@@ -18,20 +18,25 @@
  */
 package com.l2jserver.gameserver.model.events;
 
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.function.Predicate;
 
 import com.l2jserver.gameserver.model.events.listeners.AbstractEventListener;
-import com.l2jserver.gameserver.util.EmptyQueue;
 
 /**
+ * Listeners container.<br>
+ * Listeners are kept as priority sorted arrays, replaced on registration and never modified, so notifications iterate a snapshot without locking.
  * @author UnAfraid
  */
 public class ListenersContainer {
-	private volatile Map<EventType, Queue<AbstractEventListener>> _listeners = null;
+	public static final AbstractEventListener[] EMPTY_LISTENERS = new AbstractEventListener[0];
+	private static final int TYPES_LENGTH = (EventType.values().length + 63) >>> 6;
+	
+	private volatile Map<EventType, AbstractEventListener[]> _listeners = null;
+	/** Bit set of the event types having at least one listener, indexed by ordinal. */
+	private volatile long[] _types = null;
 	
 	/**
 	 * Registers listener for a callback when specified event is executed.
@@ -42,7 +47,16 @@ public class ListenersContainer {
 		if ((listener == null)) {
 			throw new NullPointerException("Listener cannot be null!");
 		}
-		getListeners().computeIfAbsent(listener.getType(), k -> new PriorityBlockingQueue<>()).add(listener);
+		
+		synchronized (this) {
+			final AbstractEventListener[] current = getListeners(listener.getType());
+			final AbstractEventListener[] listeners = Arrays.copyOf(current, current.length + 1);
+			listeners[current.length] = listener;
+			// Stable sort, listeners with the same priority keep their registration order.
+			Arrays.sort(listeners);
+			getListeners().put(listener.getType(), listeners);
+			setType(listener.getType(), true);
+		}
 		return listener;
 	}
 	
@@ -60,37 +74,83 @@ public class ListenersContainer {
 			throw new IllegalAccessError("Listeners container doesn't had " + listener.getType() + " event type added!");
 		}
 		
-		_listeners.get(listener.getType()).remove(listener);
+		synchronized (this) {
+			final AbstractEventListener[] current = _listeners.get(listener.getType());
+			for (int i = 0; i < current.length; i++) {
+				if (current[i] == listener) {
+					final AbstractEventListener[] listeners = new AbstractEventListener[current.length - 1];
+					System.arraycopy(current, 0, listeners, 0, i);
+					System.arraycopy(current, i + 1, listeners, i, listeners.length - i);
+					if (listeners.length == 0) {
+						setType(listener.getType(), false);
+					}
+					_listeners.put(listener.getType(), listeners.length == 0 ? EMPTY_LISTENERS : listeners);
+					break;
+				}
+			}
+		}
 		return listener;
 	}
 	
 	/**
+	 * The returned array is a snapshot sorted by priority, it must not be modified.
 	 * @param type
-	 * @return {@code List} of {@link AbstractEventListener} by the specified type
+	 * @return the listeners of the specified type
 	 */
-	public Queue<AbstractEventListener> getListeners(EventType type) {
-		return (_listeners != null) && _listeners.containsKey(type) ? _listeners.get(type) : EmptyQueue.emptyQueue();
+	public AbstractEventListener[] getListeners(EventType type) {
+		final Map<EventType, AbstractEventListener[]> listeners = _listeners;
+		if (listeners == null) {
+			return EMPTY_LISTENERS;
+		}
+		final AbstractEventListener[] result = listeners.get(type);
+		return result != null ? result : EMPTY_LISTENERS;
 	}
 	
 	public void removeListenerIf(EventType type, Predicate<? super AbstractEventListener> filter) {
-		getListeners(type).stream().filter(filter).forEach(AbstractEventListener::unregisterMe);
+		for (AbstractEventListener listener : getListeners(type)) {
+			if (filter.test(listener)) {
+				listener.unregisterMe();
+			}
+		}
 	}
 	
 	public void removeListenerIf(Predicate<? super AbstractEventListener> filter) {
 		if (_listeners != null) {
-			getListeners().values().forEach(queue -> queue.stream().filter(filter).forEach(AbstractEventListener::unregisterMe));
+			for (AbstractEventListener[] listeners : _listeners.values()) {
+				for (AbstractEventListener listener : listeners) {
+					if (filter.test(listener)) {
+						listener.unregisterMe();
+					}
+				}
+			}
 		}
 	}
 	
 	public boolean hasListener(EventType type) {
-		return !getListeners(type).isEmpty();
+		final long[] types = _types;
+		return (types != null) && ((types[type.ordinal() >>> 6] & (1L << type.ordinal())) != 0);
+	}
+	
+	/**
+	 * Updates the bit set of registered event types, must be called under the container lock.
+	 * @param type the event type
+	 * @param registered {@code true} if the event type has listeners
+	 */
+	private void setType(EventType type, boolean registered) {
+		final long[] types = (_types != null) ? _types.clone() : new long[TYPES_LENGTH];
+		if (registered) {
+			types[type.ordinal() >>> 6] |= 1L << type.ordinal();
+		} else {
+			types[type.ordinal() >>> 6] &= ~(1L << type.ordinal());
+		}
+		_types = types;
 	}
 	
 	/**
 	 * Creates the listeners container map if doesn't exists.
 	 * @return the listeners container map.
 	 */
-	private Map<EventType, Queue<AbstractEventListener>> getListeners() {
+	private Map<EventType, AbstractEventListener[]> getListeners() {
 		if (_listeners == null) {
 			synchronized (this) {
 				if (_listeners == null) {
@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.itemcontainer;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+
+/**
+ * Items of an item container, indexed by object Id and item Id.<br>
+ * Lookups don't lock, modifications are serialized, and iteration is done over a snapshot, rebuilt on the first iteration following a modification.
+ */
+final class IndexedItemList implements Iterable<L2ItemInstance> {
+	private static final L2ItemInstance[] EMPTY = new L2ItemInstance[0];
+	
+	/** Items in insertion order, guarded by this. */
+	private final Map<Integer, L2ItemInstance> _items = new LinkedHashMap<>();
+	private final Map<Integer, L2ItemInstance> _byObjectId = new ConcurrentHashMap<>();
+	/** Items by item Id, in insertion order, the arrays are never modified once published. */
+	private final Map<Integer, L2ItemInstance[]> _byItemId = new ConcurrentHashMap<>();
+	private volatile L2ItemInstance[] _snapshot = EMPTY;
+	private volatile int _size = 0;
+	
+	public synchronized void add(L2ItemInstance item) {
+		if (_items.putIfAbsent(item.getObjectId(), item) != null) {
+			return;
+		}
+		
+		_byObjectId.put(item.getObjectId(), item);
+		final L2ItemInstance[] sameId = _byItemId.get(item.getId());
+		if (sameId == null) {
+			_byItemId.put(item.getId(), new L2ItemInstance[] {
+				item
+			});
+		} else {
+			final L2ItemInstance[] items = Arrays.copyOf(sameId, sameId.length + 1);
+			items[sameId.length] = item;
+			_byItemId.put(item.getId(), items);
+		}
+		_size = _items.size();
+		_snapshot = null;
+	}
+	
+	public synchronized boolean remove(L2ItemInstance item) {
+		if ((item == null) || !_items.remove(item.getObjectId(), item)) {
+			return false;
+		}
+		
+		_byObjectId.remove(item.getObjectId());
+		final L2ItemInstance[] sameId = _byItemId.get(item.getId());
+		if (sameId.length == 1) {
+			_byItemId.remove(item.getId());
+		} else {
+			final L2ItemInstance[] items = new L2ItemInstance[sameId.length - 1];
+			int i = 0;
+			for (L2ItemInstance other : sameId) {
+				if (other != item) {
+					items[i++] = other;
+				}
+			}
+			_byItemId.put(item.getId(), items);
+		}
+		_size = _items.size();
+		_snapshot = null;
+		return true;
+	}
+	
+	/**
+	 * Removes the oldest item.
+	 * @return the removed item, {@code null} if there is no item
+	 */
+	public synchronized L2ItemInstance removeFirst() {
+		final Iterator<L2ItemInstance> it = _items.values().iterator();
+		if (!it.hasNext()) {
+			return null;
+		}
+		
+		final L2ItemInstance item = it.next();
+		remove(item);
+		return item;
+	}
+	
+	public synchronized void clear() {
+		_items.clear();
+		_byObjectId.clear();
+		_byItemId.clear();
+		_size = 0;
+		_snapshot = EMPTY;
+	}
+	
+	public boolean contains(L2ItemInstance item) {
+		return (item != null) && (_byObjectId.get(item.getObjectId()) == item);
+	}
+	
+	public int size() {
+		return _size;
+	}
+	
+	public boolean isEmpty() {
+		return _size == 0;
+	}
+	
+	public L2ItemInstance getByObjectId(int objectId) {
+		return _byObjectId.get(objectId);
+	}
+	
+	/**
+	 * @param itemId the item Id
+	 * @return the oldest item with the given item Id, {@code null} if there is none
+	 */
+	public L2ItemInstance getByItemId(int itemId) {
+		final L2ItemInstance[] items = _byItemId.get(itemId);
+		return items != null ? items[0] : null;
+	}
+	
+	/**
+	 * @param itemId the item Id
+	 * @return the items with the given item Id, in insertion order, the array must not be modified
+	 */
+	public L2ItemInstance[] getAllByItemId(int itemId) {
+		final L2ItemInstance[] items = _byItemId.get(itemId);
+		return items != null ? items : EMPTY;
+	}
+	
+	/**
+	 * @return the items, in insertion order, the array must not be modified
+	 */
+	public L2ItemInstance[] snapshot() {
+		L2ItemInstance[] snapshot = _snapshot;
+		if (snapshot == null) {
+			synchronized (this) {
+				snapshot = _snapshot;
+				if (snapshot == null) {
+					snapshot = _items.values().toArray(new L2ItemInstance[_items.size()]);
+					_snapshot = snapshot;
+				}
+			}
+		}
+		return snapshot;
+	}
+	
+	@Override
+	public Iterator<L2ItemInstance> iterator() {
+		return Arrays.asList(snapshot()).iterator();
+	}
+}
@@ -21,9 +21,9 @@ package com.l2jserver.gameserver.model.itemcontainer;
 import static com.l2jserver.gameserver.config.Configuration.general;
 import static com.l2jserver.gameserver.config.Configuration.rates;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -44,7 +44,7 @@ public abstract class ItemContainer {
 	
 	protected static final Logger _log = Logger.getLogger(ItemContainer.class.getName());
 	
-	protected final List<L2ItemInstance> _items = new CopyOnWriteArrayList<>();
+	protected final IndexedItemList _items = new IndexedItemList();
 	
 	protected ItemContainer() {
 	}
@@ -75,7 +75,7 @@ public abstract class ItemContainer {
 	 * @return the items in inventory
 	 */
 	public L2ItemInstance[] getItems() {
-		return _items.toArray(new L2ItemInstance[_items.size()]);
+		return _items.snapshot().clone();
 	}
 	
 	/**
@@ -83,12 +83,7 @@ public abstract class ItemContainer {
 	 * @return the item from inventory by itemId
 	 */
 	public L2ItemInstance getItemByItemId(int itemId) {
-		for (L2ItemInstance item : _items) {
-			if ((item != null) && (item.getId() == itemId)) {
-				return item;
-			}
-		}
-		return null;
+		return _items.getByItemId(itemId);
 	}
 	
 	/**
@@ -108,13 +103,7 @@ public abstract class ItemContainer {
 	 * @return the items list from inventory by using its itemId
 	 */
 	public List<L2ItemInstance> getItemsByItemId(int itemId) {
-		final List<L2ItemInstance> returnList = new LinkedList<>();
-		for (L2ItemInstance item : _items) {
-			if ((item != null) && (item.getId() == itemId)) {
-				returnList.add(item);
-			}
-		}
-		return returnList;
+		return Collections.unmodifiableList(Arrays.asList(_items.getAllByItemId(itemId)));
 	}
 	
 	/**
@@ -123,8 +112,8 @@ public abstract class ItemContainer {
 	 * @return the item from inventory by itemId
 	 */
 	public L2ItemInstance getItemByItemId(int itemId, L2ItemInstance itemToIgnore) {
-		for (L2ItemInstance item : _items) {
-			if ((item != null) && (item.getId() == itemId) && !item.equals(itemToIgnore)) {
+		for (L2ItemInstance item : _items.getAllByItemId(itemId)) {
+			if (!item.equals(itemToIgnore)) {
 				return item;
 			}
 		}
@@ -136,12 +125,7 @@ public abstract class ItemContainer {
 	 * @return item from inventory by objectId
 	 */
 	public L2ItemInstance getItemByObjectId(int objectId) {
-		for (L2ItemInstance item : _items) {
-			if ((item != null) && (item.getObjectId() == objectId)) {
-				return item;
-			}
-		}
-		return null;
+		return _items.getByObjectId(objectId);
 	}
 	
 	/**
@@ -164,8 +148,8 @@ public abstract class ItemContainer {
 	public long getInventoryItemCount(int itemId, int enchantLevel, boolean includeEquipped) {
 		long count = 0;
 		
-		for (L2ItemInstance item : _items) {
-			if ((item.getId() == itemId) && ((item.getEnchantLevel() == enchantLevel) || (enchantLevel < 0)) && (includeEquipped || !item.isEquipped())) {
+		for (L2ItemInstance item : _items.getAllByItemId(itemId)) {
+			if (((item.getEnchantLevel() == enchantLevel) || (enchantLevel < 0)) && (includeEquipped || !item.isEquipped())) {
 				if (item.isStackable()) {
 					// FIXME: Zoey76: if there are more than one stacks of the same item Id
 					// it will return the count of the last one, if is not possible to
@@ -501,14 +485,8 @@ public abstract class ItemContainer {
 	 * @return warehouse Adena.
 	 */
 	public long getAdena() {
-		long count = 0;
-		for (L2ItemInstance item : _items) {
-			if ((item != null) && (item.getId() == Inventory.ADENA_ID)) {
-				count = item.getCount();
-				return count;
-			}
-		}
-		return count;
+		final L2ItemInstance adena = _items.getByItemId(Inventory.ADENA_ID);
+		return adena != null ? adena.getCount() : 0;
 	}
 	
 	/**
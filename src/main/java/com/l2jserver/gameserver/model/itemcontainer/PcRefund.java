@@ -55,7 +55,7 @@ public class PcRefund extends ItemContainer {
 		super.addItem(item);
 		try {
 			if (getSize() > 12) {
-				L2ItemInstance removedItem = _items.remove(0);
+				L2ItemInstance removedItem = _items.removeFirst();
 				if (removedItem != null) {
 					ItemTable.getInstance().destroyItem("ClearRefund", removedItem, getOwner(), null);
 					removedItem.updateDatabase(true);
@@ -26,7 +26,9 @@ import static com.l2jserver.gameserver.model.items.type.EtcItemType.ARROW;
 import static com.l2jserver.gameserver.model.items.type.EtcItemType.SHOT;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ScheduledFuture;
@@ -84,6 +86,7 @@ import com.l2jserver.gameserver.network.serverpackets.InventoryUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SpawnItem;
 import com.l2jserver.gameserver.network.serverpackets.StatusUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemUpdateTaskManager;
 import com.l2jserver.gameserver.util.GMAudit;
 
 public final class L2ItemInstance extends L2Object {
@@ -92,6 +95,9 @@ public final class L2ItemInstance extends L2Object {
 	
 	private static final Logger LOG_ITEM = LoggerFactory.getLogger("item");
 	
+	/** Item update statement, also used by the item update task manager. */
+	public static final String UPDATE_ITEM = "UPDATE items SET owner_id=?, count=?, loc=?, loc_data=?, enchant_level=?, custom_type1=?, custom_type2=?, mana_left=?, time=?, agathion_energy=? WHERE object_id=?";
+	
 	/** ID of the owner */
 	private int _ownerId;
 	
@@ -1381,19 +1387,14 @@ public final class L2ItemInstance extends L2Object {
 			return;
 		}
 		
+		if (ItemUpdateTaskManager.isEnabled()) {
+			ItemUpdateTaskManager.getInstance().add(this);
+			return;
+		}
+		
 		try (var con = ConnectionFactory.getInstance().getConnection();
-			var ps = con.prepareStatement("UPDATE items SET owner_id=?, count=?, loc=?, loc_data=?, enchant_level=?, custom_type1=?, custom_type2=?, mana_left=?, time=?, agathion_energy=? WHERE object_id=?")) {
-			ps.setInt(1, _ownerId);
-			ps.setLong(2, getCount());
-			ps.setString(3, _loc.name());
-			ps.setInt(4, _locData);
-			ps.setInt(5, getEnchantLevel());
-			ps.setInt(6, getCustomType1());
-			ps.setInt(7, getCustomType2());
-			ps.setInt(8, getMana());
-			ps.setLong(9, getTime());
-			ps.setInt(10, getAgathionRemainingEnergy());
-			ps.setInt(11, getObjectId());
+			var ps = con.prepareStatement(UPDATE_ITEM)) {
+			setUpdateParameters(ps);
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
@@ -1402,6 +1403,50 @@ public final class L2ItemInstance extends L2Object {
 		}
 	}
 	
+	/**
+	 * Adds the update of this item to a batch, used by the item update task manager.
+	 * @param ps the {@link #UPDATE_ITEM} statement
+	 * @return {@code true} if the item had changes and was added to the batch
+	 * @throws SQLException
+	 */
+	public boolean addUpdateBatch(PreparedStatement ps) throws SQLException {
+		_dbLock.lock();
+		try {
+			if (!_existsInDb || _storedInDb || _wear) {
+				return false;
+			}
+			
+			// Set before reading the values, a change done meanwhile marks the item as not stored again.
+			_storedInDb = true;
+			setUpdateParameters(ps);
+			ps.addBatch();
+			return true;
+		} finally {
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * Marks this item as not stored after a failed batch update.
+	 */
+	public void updateFailed() {
+		_storedInDb = false;
+	}
+	
+	private void setUpdateParameters(PreparedStatement ps) throws SQLException {
+		ps.setInt(1, _ownerId);
+		ps.setLong(2, getCount());
+		ps.setString(3, _loc.name());
+		ps.setInt(4, _locData);
+		ps.setInt(5, getEnchantLevel());
+		ps.setInt(6, getCustomType1());
+		ps.setInt(7, getCustomType2());
+		ps.setInt(8, getMana());
+		ps.setLong(9, getTime());
+		ps.setInt(10, getAgathionRemainingEnergy());
+		ps.setInt(11, getObjectId());
+	}
+	
 	private void insertIntoDb() {
 		assert !_existsInDb && (getObjectId() != 0);
 		
@@ -1446,6 +1491,10 @@ public final class L2ItemInstance extends L2Object {
 			return;
 		}
 		
+		if (ItemUpdateTaskManager.isEnabled()) {
+			ItemUpdateTaskManager.getInstance().remove(this);
+		}
+		
 		try (var con = ConnectionFactory.getInstance().getConnection()) {
 			try (var ps = con.prepareStatement("DELETE FROM items WHERE object_id = ?")) {
 				ps.setInt(1, getObjectId());
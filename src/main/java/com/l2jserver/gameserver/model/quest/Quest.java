@@ -1379,6 +1379,11 @@ public class Quest extends AbstractScript implements IIdentifiable {
 	 * @param value the value of the variable
 	 */
 	public static void createQuestVarInDb(QuestState qs, String var, String value) {
+		if (QuestVariableBuffer.isEnabled()) {
+			qs.getPlayer().getQuestVariableBuffer().set(qs.getQuestName(), var, value);
+			return;
+		}
+		
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var ps = con.prepareStatement("INSERT INTO character_quests (charId,name,var,value) VALUES (?,?,?,?) ON DUPLICATE KEY UPDATE value=?")) {
 			ps.setInt(1, qs.getPlayer().getObjectId());
@@ -1399,6 +1404,11 @@ public class Quest extends AbstractScript implements IIdentifiable {
 	 * @param value the value of the variable
 	 */
 	public static void updateQuestVarInDb(QuestState qs, String var, String value) {
+		if (QuestVariableBuffer.isEnabled()) {
+			qs.getPlayer().getQuestVariableBuffer().set(qs.getQuestName(), var, value);
+			return;
+		}
+		
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var ps = con.prepareStatement("UPDATE character_quests SET value=? WHERE charId=? AND name=? AND var = ?")) {
 			ps.setString(1, value);
@@ -1417,6 +1427,11 @@ public class Quest extends AbstractScript implements IIdentifiable {
 	 * @param var the name of the variable to delete
 	 */
 	public static void deleteQuestVarInDb(QuestState qs, String var) {
+		if (QuestVariableBuffer.isEnabled()) {
+			qs.getPlayer().getQuestVariableBuffer().set(qs.getQuestName(), var, null);
+			return;
+		}
+		
 		try (var con = ConnectionFactory.getInstance().getConnection();
 			var ps = con.prepareStatement("DELETE FROM character_quests WHERE charId=? AND name=? AND var=?")) {
 			ps.setInt(1, qs.getPlayer().getObjectId());
@@ -1434,17 +1449,20 @@ public class Quest extends AbstractScript implements IIdentifiable {
 	 * @param repeatable if {@code false}, the state variable will be preserved, otherwise it will be deleted as well
 	 */
 	public static void deleteQuestInDb(QuestState qs, boolean repeatable) {
-		try (var con = ConnectionFactory.getInstance().getConnection();
-			var ps = con.prepareStatement(repeatable ? QUEST_DELETE_FROM_CHAR_QUERY : QUEST_DELETE_FROM_CHAR_QUERY_NON_REPEATABLE_QUERY)) {
-			ps.setInt(1, qs.getPlayer().getObjectId());
-			ps.setString(2, qs.getQuestName());
-			if (!repeatable) {
-				ps.setString(3, "<state>");
+		// Pending writes of the quest must not be written after the delete.
+		qs.getPlayer().getQuestVariableBuffer().discard(qs.getQuestName(), repeatable ? null : "<state>", () -> {
+			try (var con = ConnectionFactory.getInstance().getConnection();
+				var ps = con.prepareStatement(repeatable ? QUEST_DELETE_FROM_CHAR_QUERY : QUEST_DELETE_FROM_CHAR_QUERY_NON_REPEATABLE_QUERY)) {
+				ps.setInt(1, qs.getPlayer().getObjectId());
+				ps.setString(2, qs.getQuestName());
+				if (!repeatable) {
+					ps.setString(3, "<state>");
+				}
+				ps.executeUpdate();
+			} catch (Exception e) {
+				_log.log(Level.WARNING, "Unable to delete char quest!", e);
 			}
-			ps.executeUpdate();
-		} catch (Exception e) {
-			_log.log(Level.WARNING, "Unable to delete char quest!", e);
-		}
+		});
 	}
 	
 	/**
@@ -0,0 +1,201 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.quest;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.commons.database.ConnectionFactory;
+import com.l2jserver.gameserver.ThreadPoolManager;
+
+/**
+ * Quest variable write buffer of a player.<br>
+ * Writes to the same quest variable are coalesced, only the last value is written, in a batch, once the write delay is over or when the player is stored.<br>
+ * The write delay is read once at startup, so reloading the configuration never strands pending writes.
+ */
+public final class QuestVariableBuffer {
+	private static final Logger _log = Logger.getLogger(QuestVariableBuffer.class.getName());
+	
+	private static final String UPSERT = "INSERT INTO character_quests (charId,name,var,value) VALUES (?,?,?,?) ON DUPLICATE KEY UPDATE value=?";
+	private static final String DELETE = "DELETE FROM character_quests WHERE charId=? AND name=? AND var=?";
+	private static final int WRITE_DELAY = general().getQuestVariableWriteDelay();
+	
+	private static final AtomicLong _requested = new AtomicLong();
+	private static final AtomicLong _written = new AtomicLong();
+	private static final AtomicLong _batches = new AtomicLong();
+	
+	private final int _charId;
+	/** Pending values by quest name and variable name, a {@code null} value deletes the variable. Guarded by this. */
+	private final Map<String, Map<String, String>> _pending = new HashMap<>();
+	private boolean _flushScheduled = false;
+	/** Held while writing to the database, so writes of this player never overtake each other. */
+	private final ReentrantLock _writeLock = new ReentrantLock();
+	
+	public QuestVariableBuffer(int charId) {
+		_charId = charId;
+	}
+	
+	/**
+	 * Verifies if quest variable writes are buffered.
+	 * @return {@code true} if a write delay is configured, {@code false} if quest variables are written right away
+	 */
+	public static boolean isEnabled() {
+		return WRITE_DELAY > 0;
+	}
+	
+	/**
+	 * Queues the write of a quest variable.
+	 * @param quest the quest name
+	 * @param var the variable name
+	 * @param value the value, {@code null} to delete the variable
+	 */
+	public void set(String quest, String var, String value) {
+		_requested.incrementAndGet();
+		synchronized (this) {
+			_pending.computeIfAbsent(quest, k -> new HashMap<>()).put(var, value);
+			if (!_flushScheduled) {
+				_flushScheduled = true;
+				ThreadPoolManager.getInstance().scheduleGeneral(this::flush, WRITE_DELAY);
+			}
+		}
+	}
+	
+	/**
+	 * Discards the pending writes of a quest and runs the given database operation, without any write of this player running meanwhile.<br>
+	 * Used before deleting a quest from the database, so pending writes cannot restore deleted variables.
+	 * @param quest the quest name
+	 * @param keepVar the variable whose pending write is kept, may be {@code null}
+	 * @param operation the database operation to run
+	 */
+	public void discard(String quest, String keepVar, Runnable operation) {
+		_writeLock.lock();
+		try {
+			synchronized (this) {
+				final Map<String, String> vars = _pending.get(quest);
+				if (vars != null) {
+					if ((keepVar != null) && vars.containsKey(keepVar)) {
+						vars.keySet().retainAll(Set.of(keepVar));
+					} else {
+						_pending.remove(quest);
+					}
+				}
+			}
+			operation.run();
+		} finally {
+			_writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Writes all pending quest variables of the player.
+	 */
+	public void flush() {
+		_writeLock.lock();
+		try {
+			final Map<String, Map<String, String>> pending;
+			synchronized (this) {
+				_flushScheduled = false;
+				if (_pending.isEmpty()) {
+					return;
+				}
+				pending = new HashMap<>(_pending);
+				_pending.clear();
+			}
+			
+			try (var con = ConnectionFactory.getInstance().getConnection();
+				var upsert = con.prepareStatement(UPSERT);
+				var delete = con.prepareStatement(DELETE)) {
+				int upserts = 0;
+				int deletes = 0;
+				for (Entry<String, Map<String, String>> quest : pending.entrySet()) {
+					for (Entry<String, String> var : quest.getValue().entrySet()) {
+						final String value = var.getValue();
+						if (value != null) {
+							upsert.setInt(1, _charId);
+							upsert.setString(2, quest.getKey());
+							upsert.setString(3, var.getKey());
+							upsert.setString(4, value);
+							upsert.setString(5, value);
+							upsert.addBatch();
+							upserts++;
+						} else {
+							delete.setInt(1, _charId);
+							delete.setString(2, quest.getKey());
+							delete.setString(3, var.getKey());
+							delete.addBatch();
+							deletes++;
+						}
+					}
+				}
+				if (upserts > 0) {
+					upsert.executeBatch();
+				}
+				if (deletes > 0) {
+					delete.executeBatch();
+				}
+				_written.addAndGet(upserts + deletes);
+				_batches.incrementAndGet();
+			} catch (Exception e) {
+				_log.log(Level.WARNING, "Could not write quest variables of player " + _charId + ", retrying later!", e);
+				requeue(pending);
+			}
+		} finally {
+			_writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Puts back the writes that failed, unless they were overwritten meanwhile.
+	 * @param failed the writes that failed
+	 */
+	private synchronized void requeue(Map<String, Map<String, String>> failed) {
+		for (Entry<String, Map<String, String>> quest : failed.entrySet()) {
+			final Map<String, String> vars = _pending.computeIfAbsent(quest.getKey(), k -> new HashMap<>());
+			for (Entry<String, String> var : quest.getValue().entrySet()) {
+				if (!vars.containsKey(var.getKey())) {
+					vars.put(var.getKey(), var.getValue());
+				}
+			}
+		}
+		if (!_flushScheduled) {
+			_flushScheduled = true;
+			ThreadPoolManager.getInstance().scheduleGeneral(this::flush, WRITE_DELAY);
+		}
+	}
+	
+	public static String[] getStats() {
+		final long requested = _requested.get();
+		final long written = _written.get();
+		return new String[] {
+			"Quest Variable Writes:",
+			" |- Requested:       " + requested,
+			" |- Written:         " + written,
+			" |- Saved:           " + Math.max(0, requested - written),
+			" |- Batches:         " + _batches.get()
+		};
+	}
+}
@@ -18,8 +18,16 @@
  */
 package com.l2jserver.gameserver.model.stats;
 
-import java.util.ArrayList;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.skills.Skill;
@@ -32,67 +40,37 @@ import com.l2jserver.gameserver.model.stats.functions.AbstractFunction;
  * When the calc method of a calculator is launched, each mathematical function is called according to its priority <B>_order</B>.<br>
  * Indeed, Func with lowest priority order is executed first and Funcs with the same order are executed in unspecified order.<br>
  * The result of the calculation is stored in the value property of an Env class instance.<br>
- * Method addFunc and removeFunc permit to add and remove a Func object from a Calculator.
+ * Calculators are immutable and interned: method addFunc and removeFunc return the shared calculator holding the resulting Func objects.<br>
+ * Calculator sets, the per stat calculators of a character, are interned the same way so characters with the same functions share them.<br>
+ * Changes of calculator sets are memoized, so a buff landing on characters sharing a calculator set finds the resulting set without building it again.
  */
 public final class Calculator {
 	/** Empty Func table definition */
 	private static final AbstractFunction[] EMPTY_FUNCS = new AbstractFunction[0];
 	
-	/** Table of Func object */
-	private AbstractFunction[] _functions;
+	/** Interned calculators, by Func objects. */
+	private static final InternTable<FunctionsKey, Calculator> CALCULATORS = new InternTable<>();
+	/** Interned calculator sets, by calculators. */
+	private static final InternTable<CalculatorsKey, Calculator[]> CALCULATOR_SETS = new InternTable<>();
 	
-	/**
-	 * Constructor of Calculator (Init value : emptyFuncs).
-	 */
-	public Calculator() {
-		_functions = EMPTY_FUNCS;
-	}
+	/** Number of memoized transitions per calculator set, must be a power of 2. */
+	private static final int TRANSITIONS_SIZE = 16;
+	private static final int ADD_FUNCS = 1;
+	private static final int REMOVE_FUNCS = 2;
+	private static final int REMOVE_OWNER = 3;
+	/** Memoized transitions, by interned calculator set. */
+	private static final Map<Calculator[], Transition[]> TRANSITIONS = Collections.synchronizedMap(new WeakHashMap<>());
+	private static final AtomicLong TRANSITION_HITS = new AtomicLong();
+	private static final AtomicLong TRANSITION_MISSES = new AtomicLong();
 	
-	/**
-	 * Constructor of Calculator (Init value : Calculator c).
-	 * @param c
-	 */
-	public Calculator(Calculator c) {
-		_functions = c._functions;
-	}
+	/** Calculator without Func object. */
+	public static final Calculator EMPTY = new Calculator(EMPTY_FUNCS);
 	
-	/**
-	 * Check if 2 calculators are equals.
-	 * @param c1
-	 * @param c2
-	 * @return
-	 */
-	public static boolean equalsCals(Calculator c1, Calculator c2) {
-		if (c1 == c2) {
-			return true;
-		}
-		
-		if ((c1 == null) || (c2 == null)) {
-			return false;
-		}
-		
-		AbstractFunction[] funcs1 = c1._functions;
-		AbstractFunction[] funcs2 = c2._functions;
-		
-		if (funcs1 == funcs2) {
-			return true;
-		}
-		
-		if (funcs1.length != funcs2.length) {
-			return false;
-		}
-		
-		if (funcs1.length == 0) {
-			return true;
-		}
-		
-		for (int i = 0; i < funcs1.length; i++) {
-			if (funcs1[i] != funcs2[i]) {
-				return false;
-			}
-		}
-		return true;
-		
+	/** Table of Func object */
+	private final AbstractFunction[] _functions;
+	
+	private Calculator(AbstractFunction[] functions) {
+		_functions = functions;
 	}
 	
 	/**
@@ -104,10 +82,11 @@ public final class Calculator {
 	}
 	
 	/**
-	 * Adds a function to the Calculator.
+	 * Gets the calculator holding the Func objects of this calculator and the given function.
 	 * @param function the function
+	 * @return the interned calculator
 	 */
-	public synchronized void addFunc(AbstractFunction function) {
+	public Calculator addFunc(AbstractFunction function) {
 		AbstractFunction[] funcs = _functions;
 		AbstractFunction[] tmp = new AbstractFunction[funcs.length + 1];
 		
@@ -124,52 +103,53 @@ public final class Calculator {
 			tmp[i + 1] = funcs[i];
 		}
 		
-		_functions = tmp;
+		return intern(tmp);
 	}
 	
 	/**
-	 * Removes a function from the Calculator.
+	 * Gets the calculator holding the Func objects of this calculator but the given function.
 	 * @param function the function
+	 * @return the interned calculator, this calculator if the function wasn't found
 	 */
-	public synchronized void removeFunc(AbstractFunction function) {
-		AbstractFunction[] funcs = _functions;
-		AbstractFunction[] tmp = new AbstractFunction[funcs.length - 1];
-		
-		int i;
-		
-		for (i = 0; (i < (funcs.length - 1)) && (function != funcs[i]); i++) {
-			tmp[i] = funcs[i];
-		}
-		
-		if (i == funcs.length) {
-			return;
-		}
-		
-		for (i++; i < funcs.length; i++) {
-			tmp[i - 1] = funcs[i];
-		}
-		
-		if (tmp.length == 0) {
-			_functions = EMPTY_FUNCS;
-		} else {
-			_functions = tmp;
+	public Calculator removeFunc(AbstractFunction function) {
+		final AbstractFunction[] funcs = _functions;
+		for (int i = 0; i < funcs.length; i++) {
+			if (FunctionsKey.isSame(funcs[i], function)) {
+				final AbstractFunction[] tmp = new AbstractFunction[funcs.length - 1];
+				System.arraycopy(funcs, 0, tmp, 0, i);
+				System.arraycopy(funcs, i + 1, tmp, i, funcs.length - i - 1);
+				return intern(tmp);
+			}
 		}
+		return this;
 	}
 	
 	/**
-	 * Remove each Func with the specified owner of the Calculator.
+	 * Gets the calculator holding the Func objects of this calculator but the ones with the specified owner.
 	 * @param owner the owner
-	 * @return a list of modified stats
+	 * @return the interned calculator, this calculator if no function has the owner
 	 */
-	public synchronized List<Stats> removeOwner(Object owner) {
-		List<Stats> modifiedStats = new ArrayList<>();
-		for (AbstractFunction func : _functions) {
-			if (func.getFuncOwner() == owner) {
-				modifiedStats.add(func.getStat());
-				removeFunc(func);
+	public Calculator removeOwner(Object owner) {
+		final AbstractFunction[] funcs = _functions;
+		int count = 0;
+		for (AbstractFunction func : funcs) {
+			if (func.getFuncOwner() != owner) {
+				count++;
 			}
 		}
-		return modifiedStats;
+		
+		if (count == funcs.length) {
+			return this;
+		}
+		
+		final AbstractFunction[] tmp = new AbstractFunction[count];
+		int i = 0;
+		for (AbstractFunction func : funcs) {
+			if (func.getFuncOwner() != owner) {
+				tmp[i++] = func;
+			}
+		}
+		return intern(tmp);
 	}
 	
 	/**
@@ -195,4 +175,365 @@ public final class Calculator {
 	public AbstractFunction[] getFunctions() {
 		return _functions;
 	}
+	
+	private static Calculator intern(AbstractFunction[] functions) {
+		if (functions.length == 0) {
+			return EMPTY;
+		}
+		return CALCULATORS.intern(new FunctionsKey(functions), new Calculator(functions));
+	}
+	
+	/**
+	 * Interns a calculator set, empty calculators being replaced by {@code null}.<br>
+	 * <b>The given array must not be modified afterwards, neither the returned one.</b>
+	 * @param calculators the calculators indexed by stat ordinal
+	 * @return the shared calculator set holding the same calculators
+	 */
+	public static Calculator[] intern(Calculator[] calculators) {
+		for (int i = 0; i < calculators.length; i++) {
+			if ((calculators[i] != null) && (calculators[i].size() == 0)) {
+				calculators[i] = null;
+			}
+		}
+		return CALCULATOR_SETS.intern(new CalculatorsKey(calculators), calculators);
+	}
+	
+	/**
+	 * Gets the interned calculator set holding the calculators of the given set and the given functions.
+	 * @param calculators the interned calculator set
+	 * @param functions the functions to add, {@code null} elements being ignored
+	 * @return the interned calculator set
+	 */
+	public static Calculator[] addFuncs(Calculator[] calculators, List<AbstractFunction> functions) {
+		return transition(calculators, ADD_FUNCS, functions, null);
+	}
+	
+	/**
+	 * Gets the interned calculator set holding the calculators of the given set but the given functions.
+	 * @param calculators the interned calculator set
+	 * @param functions the functions to remove, {@code null} elements being ignored
+	 * @return the interned calculator set
+	 */
+	public static Calculator[] removeFuncs(Calculator[] calculators, AbstractFunction[] functions) {
+		return transition(calculators, REMOVE_FUNCS, Arrays.asList(functions), null);
+	}
+	
+	/**
+	 * Gets the interned calculator set holding the calculators of the given set but the functions with the specified owner.
+	 * @param calculators the interned calculator set
+	 * @param owner the owner
+	 * @return the interned calculator set, the given set if no function has the owner
+	 */
+	public static Calculator[] removeOwner(Calculator[] calculators, Object owner) {
+		return transition(calculators, REMOVE_OWNER, null, owner);
+	}
+	
+	/**
+	 * Gets the result of a change of an interned calculator set, memoized in a small direct mapped table of the set.<br>
+	 * Memoized transitions only hold their resulting set weakly, and the table is dropped with the set.
+	 */
+	private static Calculator[] transition(Calculator[] calculators, int kind, List<AbstractFunction> functions, Object owner) {
+		int hash = kind;
+		if (functions != null) {
+			for (int i = 0; i < functions.size(); i++) {
+				final AbstractFunction function = functions.get(i);
+				hash = (31 * hash) + (function != null ? FunctionsKey.hash(function) : 0);
+			}
+		} else {
+			hash = (31 * hash) + System.identityHashCode(owner);
+		}
+		final int index = (hash ^ (hash >>> 16)) & (TRANSITIONS_SIZE - 1);
+		
+		final Transition[] transitions = TRANSITIONS.computeIfAbsent(calculators, k -> new Transition[TRANSITIONS_SIZE]);
+		final Transition transition = transitions[index];
+		if ((transition != null) && transition.matches(kind, hash, functions, owner)) {
+			final Calculator[] result = transition._result.get();
+			if (result != null) {
+				TRANSITION_HITS.incrementAndGet();
+				return result;
+			}
+		}
+		
+		TRANSITION_MISSES.incrementAndGet();
+		final Calculator[] result;
+		switch (kind) {
+			case ADD_FUNCS:
+				result = applyAddFuncs(calculators, functions);
+				break;
+			case REMOVE_FUNCS:
+				result = applyRemoveFuncs(calculators, functions);
+				break;
+			default:
+				result = applyRemoveOwner(calculators, owner);
+				break;
+		}
+		transitions[index] = new Transition(kind, hash, functions != null ? functions.toArray(EMPTY_FUNCS) : null, owner, result);
+		return result;
+	}
+	
+	private static Calculator[] applyAddFuncs(Calculator[] calculators, List<AbstractFunction> functions) {
+		final Calculator[] result = calculators.clone();
+		for (AbstractFunction f : functions) {
+			if (f == null) {
+				continue;
+			}
+			
+			final int stat = f.getStat().ordinal();
+			result[stat] = (result[stat] == null ? EMPTY : result[stat]).addFunc(f);
+		}
+		return intern(result);
+	}
+	
+	private static Calculator[] applyRemoveFuncs(Calculator[] calculators, List<AbstractFunction> functions) {
+		final Calculator[] result = calculators.clone();
+		for (AbstractFunction f : functions) {
+			if (f == null) {
+				continue;
+			}
+			
+			final int stat = f.getStat().ordinal();
+			if (result[stat] != null) {
+				result[stat] = result[stat].removeFunc(f);
+			}
+		}
+		return intern(result);
+	}
+	
+	private static Calculator[] applyRemoveOwner(Calculator[] calculators, Object owner) {
+		Calculator[] result = null;
+		for (int i = 0; i < calculators.length; i++) {
+			final Calculator calc = calculators[i];
+			if (calc == null) {
+				continue;
+			}
+			
+			final Calculator newCalc = calc.removeOwner(owner);
+			if (newCalc != calc) {
+				if (result == null) {
+					result = calculators.clone();
+				}
+				result[i] = newCalc;
+			}
+		}
+		return result != null ? intern(result) : calculators;
+	}
+	
+	public static String[] getStats() {
+		final long hits = TRANSITION_HITS.get();
+		final long lookups = hits + TRANSITION_MISSES.get();
+		return new String[] {
+			"Calculators:",
+			" |- Interned chains: " + CALCULATORS.size(),
+			" |- Interned sets:   " + CALCULATOR_SETS.size(),
+			" |- Transitions:     " + hits + "/" + lookups + " hits/lookups"
+		};
+	}
+	
+	/**
+	 * Key of interned calculators.<br>
+	 * Functions created from the same template for the same owner are considered the same, so the buffs of a skill share the calculators of all the characters they land on.
+	 */
+	private static final class FunctionsKey implements InternKey<FunctionsKey> {
+		private final AbstractFunction[] _functions;
+		private final int _hash;
+		
+		protected FunctionsKey(AbstractFunction[] functions) {
+			_functions = functions;
+			int hash = 1;
+			for (AbstractFunction function : functions) {
+				hash = (31 * hash) + hash(function);
+			}
+			_hash = hash;
+		}
+		
+		protected static boolean isSame(AbstractFunction f1, AbstractFunction f2) {
+			if (f1 == f2) {
+				return true;
+			}
+			return (f1.getClass() == f2.getClass()) && (f1.getStat() == f2.getStat()) && (f1.getOrder() == f2.getOrder()) && (f1.getFuncOwner() == f2.getFuncOwner()) && (Double.compare(f1.getValue(), f2.getValue()) == 0) && (f1.getApplyCond() == f2.getApplyCond());
+		}
+		
+		@Override
+		public FunctionsKey toStoredKey() {
+			// The functions are already held by the calculator, no need to copy them
+			return this;
+		}
+		
+		protected static int hash(AbstractFunction function) {
+			// Computed by hand, no boxing, as it's used on every calculator set change
+			int hash = function.getClass().hashCode();
+			hash = (31 * hash) + function.getStat().hashCode();
+			hash = (31 * hash) + function.getOrder();
+			hash = (31 * hash) + System.identityHashCode(function.getFuncOwner());
+			hash = (31 * hash) + Double.hashCode(function.getValue());
+			return (31 * hash) + System.identityHashCode(function.getApplyCond());
+		}
+		
+		@Override
+		public int hashCode() {
+			return _hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			
+			if (!(obj instanceof FunctionsKey)) {
+				return false;
+			}
+			
+			final FunctionsKey other = (FunctionsKey) obj;
+			if ((_hash != other._hash) || (_functions.length != other._functions.length)) {
+				return false;
+			}
+			
+			for (int i = 0; i < _functions.length; i++) {
+				if (!isSame(_functions[i], other._functions[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Key of interned calculator sets, calculators being interned they are compared by identity.
+	 */
+	private static final class CalculatorsKey implements InternKey<CalculatorsKey> {
+		private final Calculator[] _calculators;
+		private final int _hash;
+		
+		protected CalculatorsKey(Calculator[] calculators) {
+			this(calculators, Arrays.hashCode(calculators));
+		}
+		
+		private CalculatorsKey(Calculator[] calculators, int hash) {
+			_calculators = calculators;
+			_hash = hash;
+		}
+		
+		@Override
+		public CalculatorsKey toStoredKey() {
+			// The stored key must not hold the interned set, or it would never be released
+			return new CalculatorsKey(_calculators.clone(), _hash);
+		}
+		
+		@Override
+		public int hashCode() {
+			return _hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return (this == obj) || ((obj instanceof CalculatorsKey) && (_hash == ((CalculatorsKey) obj)._hash) && Arrays.equals(_calculators, ((CalculatorsKey) obj)._calculators));
+		}
+	}
+	
+	/**
+	 * Memoized change of a calculator set, immutable so it can be published through the transition array without locking.<br>
+	 * Functions are compared as in interned calculators, so the functions of a buff match on every character it lands on.
+	 */
+	private static final class Transition {
+		protected final int _kind;
+		protected final int _hash;
+		protected final AbstractFunction[] _functions;
+		protected final Object _owner;
+		protected final WeakReference<Calculator[]> _result;
+		
+		protected Transition(int kind, int hash, AbstractFunction[] functions, Object owner, Calculator[] result) {
+			_kind = kind;
+			_hash = hash;
+			_functions = functions;
+			_owner = owner;
+			_result = new WeakReference<>(result);
+		}
+		
+		protected boolean matches(int kind, int hash, List<AbstractFunction> functions, Object owner) {
+			if ((_kind != kind) || (_hash != hash) || (_owner != owner)) {
+				return false;
+			}
+			
+			if (functions == null) {
+				return _functions == null;
+			}
+			
+			if ((_functions == null) || (_functions.length != functions.size())) {
+				return false;
+			}
+			
+			for (int i = 0; i < _functions.length; i++) {
+				final AbstractFunction function = functions.get(i);
+				if (((function == null) || (_functions[i] == null)) ? (function != _functions[i]) : !FunctionsKey.isSame(_functions[i], function)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Key of an intern table.
+	 * @param <K> the key type
+	 */
+	private interface InternKey<K> {
+		/**
+		 * Gets the key to store in the table, which must not strongly reference the interned value.
+		 * @return the key to store
+		 */
+		K toStoredKey();
+	}
+	
+	/**
+	 * Weak hash-consing table, entries are dropped once nothing uses the interned value anymore.
+	 * @param <K> the key type
+	 * @param <V> the value type
+	 */
+	private static final class InternTable<K extends InternKey<K>, V> {
+		private final Map<K, Entry<K, V>> _entries = new ConcurrentHashMap<>();
+		private final ReferenceQueue<V> _queue = new ReferenceQueue<>();
+		
+		protected V intern(K key, V value) {
+			expunge();
+			while (true) {
+				final Entry<K, V> entry = _entries.get(key);
+				if (entry != null) {
+					final V interned = entry.get();
+					if (interned != null) {
+						return interned;
+					}
+					_entries.remove(key, entry);
+				}
+				
+				final K storedKey = key.toStoredKey();
+				if (_entries.putIfAbsent(storedKey, new Entry<>(storedKey, value, _queue)) == null) {
+					return value;
+				}
+			}
+		}
+		
+		protected int size() {
+			expunge();
+			return _entries.size();
+		}
+		
+		@SuppressWarnings("unchecked")
+		private void expunge() {
+			Reference<? extends V> ref;
+			while ((ref = _queue.poll()) != null) {
+				final Entry<K, V> entry = (Entry<K, V>) ref;
+				_entries.remove(entry._key, entry);
+			}
+		}
+	}
+	
+	private static final class Entry<K, V> extends WeakReference<V> {
+		protected final K _key;
+		
+		protected Entry(K key, V value, ReferenceQueue<V> queue) {
+			super(value, queue);
+			_key = key;
+		}
+	}
 }
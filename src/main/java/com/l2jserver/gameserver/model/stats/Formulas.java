@@ -133,68 +133,51 @@ public final class Formulas {
 	public static Calculator[] getStdNPCCalculators() {
 		Calculator[] std = new Calculator[Stats.NUM_STATS];
 		
-		std[Stats.MAX_HP.ordinal()] = new Calculator();
-		std[Stats.MAX_HP.ordinal()].addFunc(FuncMaxHpMul.getInstance());
+		std[Stats.MAX_HP.ordinal()] = Calculator.EMPTY.addFunc(FuncMaxHpMul.getInstance());
 		
-		std[Stats.MAX_MP.ordinal()] = new Calculator();
-		std[Stats.MAX_MP.ordinal()].addFunc(FuncMaxMpMul.getInstance());
+		std[Stats.MAX_MP.ordinal()] = Calculator.EMPTY.addFunc(FuncMaxMpMul.getInstance());
 		
-		std[Stats.POWER_ATTACK.ordinal()] = new Calculator();
-		std[Stats.POWER_ATTACK.ordinal()].addFunc(FuncPAtkMod.getInstance());
+		std[Stats.POWER_ATTACK.ordinal()] = Calculator.EMPTY.addFunc(FuncPAtkMod.getInstance());
 		
-		std[Stats.MAGIC_ATTACK.ordinal()] = new Calculator();
-		std[Stats.MAGIC_ATTACK.ordinal()].addFunc(FuncMAtkMod.getInstance());
+		std[Stats.MAGIC_ATTACK.ordinal()] = Calculator.EMPTY.addFunc(FuncMAtkMod.getInstance());
 		
-		std[Stats.POWER_DEFENCE.ordinal()] = new Calculator();
-		std[Stats.POWER_DEFENCE.ordinal()].addFunc(FuncPDefMod.getInstance());
+		std[Stats.POWER_DEFENCE.ordinal()] = Calculator.EMPTY.addFunc(FuncPDefMod.getInstance());
 		
-		std[Stats.MAGIC_DEFENCE.ordinal()] = new Calculator();
-		std[Stats.MAGIC_DEFENCE.ordinal()].addFunc(FuncMDefMod.getInstance());
+		std[Stats.MAGIC_DEFENCE.ordinal()] = Calculator.EMPTY.addFunc(FuncMDefMod.getInstance());
 		
-		std[Stats.CRITICAL_RATE.ordinal()] = new Calculator();
-		std[Stats.CRITICAL_RATE.ordinal()].addFunc(FuncAtkCritical.getInstance());
+		std[Stats.CRITICAL_RATE.ordinal()] = Calculator.EMPTY.addFunc(FuncAtkCritical.getInstance());
 		
-		std[Stats.MCRITICAL_RATE.ordinal()] = new Calculator();
-		std[Stats.MCRITICAL_RATE.ordinal()].addFunc(FuncMAtkCritical.getInstance());
+		std[Stats.MCRITICAL_RATE.ordinal()] = Calculator.EMPTY.addFunc(FuncMAtkCritical.getInstance());
 		
-		std[Stats.ACCURACY_COMBAT.ordinal()] = new Calculator();
-		std[Stats.ACCURACY_COMBAT.ordinal()].addFunc(FuncAtkAccuracy.getInstance());
+		std[Stats.ACCURACY_COMBAT.ordinal()] = Calculator.EMPTY.addFunc(FuncAtkAccuracy.getInstance());
 		
-		std[Stats.EVASION_RATE.ordinal()] = new Calculator();
-		std[Stats.EVASION_RATE.ordinal()].addFunc(FuncAtkEvasion.getInstance());
+		std[Stats.EVASION_RATE.ordinal()] = Calculator.EMPTY.addFunc(FuncAtkEvasion.getInstance());
 		
-		std[Stats.POWER_ATTACK_SPEED.ordinal()] = new Calculator();
-		std[Stats.POWER_ATTACK_SPEED.ordinal()].addFunc(FuncPAtkSpeed.getInstance());
+		std[Stats.POWER_ATTACK_SPEED.ordinal()] = Calculator.EMPTY.addFunc(FuncPAtkSpeed.getInstance());
 		
-		std[Stats.MAGIC_ATTACK_SPEED.ordinal()] = new Calculator();
-		std[Stats.MAGIC_ATTACK_SPEED.ordinal()].addFunc(FuncMAtkSpeed.getInstance());
+		std[Stats.MAGIC_ATTACK_SPEED.ordinal()] = Calculator.EMPTY.addFunc(FuncMAtkSpeed.getInstance());
 		
-		std[Stats.MOVE_SPEED.ordinal()] = new Calculator();
-		std[Stats.MOVE_SPEED.ordinal()].addFunc(FuncMoveSpeed.getInstance());
+		std[Stats.MOVE_SPEED.ordinal()] = Calculator.EMPTY.addFunc(FuncMoveSpeed.getInstance());
 		
-		return std;
+		return Calculator.intern(std);
 	}
 	
 	public static Calculator[] getStdDoorCalculators() {
 		Calculator[] std = new Calculator[Stats.NUM_STATS];
 		
 		// Add the FuncAtkAccuracy to the Standard Calculator of ACCURACY_COMBAT
-		std[Stats.ACCURACY_COMBAT.ordinal()] = new Calculator();
-		std[Stats.ACCURACY_COMBAT.ordinal()].addFunc(FuncAtkAccuracy.getInstance());
+		std[Stats.ACCURACY_COMBAT.ordinal()] = Calculator.EMPTY.addFunc(FuncAtkAccuracy.getInstance());
 		
 		// Add the FuncAtkEvasion to the Standard Calculator of EVASION_RATE
-		std[Stats.EVASION_RATE.ordinal()] = new Calculator();
-		std[Stats.EVASION_RATE.ordinal()].addFunc(FuncAtkEvasion.getInstance());
+		std[Stats.EVASION_RATE.ordinal()] = Calculator.EMPTY.addFunc(FuncAtkEvasion.getInstance());
 		
 		// SevenSigns PDEF Modifier
-		std[Stats.POWER_DEFENCE.ordinal()] = new Calculator();
-		std[Stats.POWER_DEFENCE.ordinal()].addFunc(FuncGatesPDefMod.getInstance());
+		std[Stats.POWER_DEFENCE.ordinal()] = Calculator.EMPTY.addFunc(FuncGatesPDefMod.getInstance());
 		
 		// SevenSigns MDEF Modifier
-		std[Stats.MAGIC_DEFENCE.ordinal()] = new Calculator();
-		std[Stats.MAGIC_DEFENCE.ordinal()].addFunc(FuncGatesMDefMod.getInstance());
+		std[Stats.MAGIC_DEFENCE.ordinal()] = Calculator.EMPTY.addFunc(FuncGatesMDefMod.getInstance());
 		
-		return std;
+		return Calculator.intern(std);
 	}
 	
 	/**
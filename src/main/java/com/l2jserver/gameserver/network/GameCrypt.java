@@ -18,67 +18,119 @@
  */
 package com.l2jserver.gameserver.network;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
+ * Game packet cipher.<br>
+ * Each byte is XORed with the key and with the previous encrypted byte, the key counter (bytes 8 to 11 of the key) is increased by the packet size after each packet.<br>
+ * Works in place on heap or direct buffers, 8 bytes at a time.
  * @author KenM
  */
 public class GameCrypt {
-	private final byte[] _inKey = new byte[16];
-	private final byte[] _outKey = new byte[16];
+	private static final VarHandle LONG_LE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	/** Spreads a byte to the 8 bytes of a long. */
+	private static final long SPREAD = 0x0101010101010101L;
+	
+	/** Key bytes 0 to 7, little endian. */
+	private long _inKeyLow;
+	/** Key bytes 12 to 15, little endian. */
+	private int _inKeyHigh;
+	/** Key counter, bytes 8 to 11 of the key. */
+	private int _inCounter;
+	private long _outKeyLow;
+	private int _outKeyHigh;
+	private int _outCounter;
 	private boolean _isEnabled;
 	
 	public void setKey(byte[] key) {
-		System.arraycopy(key, 0, _inKey, 0, 16);
-		System.arraycopy(key, 0, _outKey, 0, 16);
+		final ByteBuffer buf = ByteBuffer.wrap(key).order(ByteOrder.LITTLE_ENDIAN);
+		_inKeyLow = _outKeyLow = buf.getLong(0);
+		_inCounter = _outCounter = buf.getInt(8);
+		_inKeyHigh = _outKeyHigh = buf.getInt(12);
 	}
 	
 	public void decrypt(byte[] raw, final int offset, final int size) {
+		decrypt(ByteBuffer.wrap(raw), offset, size);
+	}
+	
+	public void encrypt(byte[] raw, final int offset, final int size) {
+		encrypt(ByteBuffer.wrap(raw), offset, size);
+	}
+	
+	/**
+	 * Decrypts the given bytes of the buffer in place, the buffer position is left unchanged.
+	 * @param buf the buffer
+	 * @param offset the index of the first byte to decrypt
+	 * @param size the number of bytes to decrypt
+	 */
+	public void decrypt(ByteBuffer buf, final int offset, final int size) {
 		if (!_isEnabled) {
 			return;
 		}
 		
-		int temp = 0;
-		for (int i = 0; i < size; i++) {
-			int temp2 = raw[offset + i] & 0xFF;
-			raw[offset + i] = (byte) (temp2 ^ _inKey[i & 15] ^ temp);
-			temp = temp2;
+		final long keyLow = _inKeyLow;
+		final long keyHigh = keyHigh(_inKeyHigh, _inCounter);
+		// Previous encrypted byte, in the lowest byte.
+		long prev = 0;
+		int i = 0;
+		for (; (i + 8) <= size; i += 8) {
+			final long c = (long) LONG_LE.get(buf, offset + i);
+			LONG_LE.set(buf, offset + i, c ^ ((i & 8) == 0 ? keyLow : keyHigh) ^ ((c << 8) | prev));
+			prev = c >>> 56;
+		}
+		for (; i < size; i++) {
+			final int c = buf.get(offset + i) & 0xFF;
+			buf.put(offset + i, (byte) (c ^ keyByte(keyLow, keyHigh, i) ^ prev));
+			prev = c;
 		}
 		
-		int old = _inKey[8] & 0xff;
-		old |= (_inKey[9] << 8) & 0xff00;
-		old |= (_inKey[10] << 0x10) & 0xff0000;
-		old |= (_inKey[11] << 0x18) & 0xff000000;
-		
-		old += size;
-		
-		_inKey[8] = (byte) (old & 0xff);
-		_inKey[9] = (byte) ((old >> 0x08) & 0xff);
-		_inKey[10] = (byte) ((old >> 0x10) & 0xff);
-		_inKey[11] = (byte) ((old >> 0x18) & 0xff);
+		_inCounter += size;
 	}
 	
-	public void encrypt(byte[] raw, final int offset, final int size) {
+	/**
+	 * Encrypts the given bytes of the buffer in place, the buffer position is left unchanged.<br>
+	 * The first packet, holding the key, is sent in clear.
+	 * @param buf the buffer
+	 * @param offset the index of the first byte to encrypt
+	 * @param size the number of bytes to encrypt
+	 */
+	public void encrypt(ByteBuffer buf, final int offset, final int size) {
 		if (!_isEnabled) {
 			_isEnabled = true;
 			return;
 		}
 		
-		int temp = 0;
-		for (int i = 0; i < size; i++) {
-			int temp2 = raw[offset + i] & 0xFF;
-			temp = temp2 ^ _outKey[i & 15] ^ temp;
-			raw[offset + i] = (byte) temp;
+		final long keyLow = _outKeyLow;
+		final long keyHigh = keyHigh(_outKeyHigh, _outCounter);
+		// Previous encrypted byte, in the lowest byte.
+		long prev = 0;
+		int i = 0;
+		for (; (i + 8) <= size; i += 8) {
+			long x = (long) LONG_LE.get(buf, offset + i) ^ ((i & 8) == 0 ? keyLow : keyHigh);
+			// Each encrypted byte chains all the previous ones: prefix XOR of the 8 bytes, then of the previous block.
+			x ^= x << 8;
+			x ^= x << 16;
+			x ^= x << 32;
+			x ^= prev * SPREAD;
+			LONG_LE.set(buf, offset + i, x);
+			prev = x >>> 56;
+		}
+		for (; i < size; i++) {
+			prev = (buf.get(offset + i) & 0xFF) ^ keyByte(keyLow, keyHigh, i) ^ prev;
+			buf.put(offset + i, (byte) prev);
 		}
 		
-		int old = _outKey[8] & 0xff;
-		old |= (_outKey[9] << 8) & 0xff00;
-		old |= (_outKey[10] << 0x10) & 0xff0000;
-		old |= (_outKey[11] << 0x18) & 0xff000000;
-		
-		old += size;
-		
-		_outKey[8] = (byte) (old & 0xff);
-		_outKey[9] = (byte) ((old >> 0x08) & 0xff);
-		_outKey[10] = (byte) ((old >> 0x10) & 0xff);
-		_outKey[11] = (byte) ((old >> 0x18) & 0xff);
+		_outCounter += size;
+	}
+	
+	private static long keyHigh(int keyHigh, int counter) {
+		return ((long) keyHigh << 32) | (counter & 0xFFFFFFFFL);
+	}
+	
+	private static long keyByte(long keyLow, long keyHigh, int index) {
+		return (((index & 8) == 0 ? keyLow : keyHigh) >>> ((index & 7) << 3)) & 0xFF;
 	}
 }
@@ -24,6 +24,7 @@ import static com.l2jserver.gameserver.config.Configuration.general;
 import static com.l2jserver.gameserver.config.Configuration.mmo;
 import static com.l2jserver.gameserver.model.PcCondOverride.SEE_ALL_PLAYERS;
 import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -33,6 +34,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
@@ -103,6 +105,14 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	private final long _connectionStartTime;
 	private List<CharSelectInfoPackage> _charSlotMapping = null;
 	private int _charSlot = -1;
+	/** Time of the character selection, in nanoseconds, 0 once in game. */
+	private volatile long _charSelectTime = 0;
+	
+	private static final AtomicLong _logins = new AtomicLong();
+	private static final AtomicLong _loads = new AtomicLong();
+	private static final AtomicLong _totalLoadTime = new AtomicLong();
+	private static final AtomicLong _totalLoginTime = new AtomicLong();
+	private static final AtomicLong _maxLoginTime = new AtomicLong();
 	
 	// flood protectors
 	private final FloodProtectors _floodProtectors = new FloodProtectors(this);
@@ -186,13 +196,13 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	
 	@Override
 	public boolean decrypt(ByteBuffer buf, int size) {
-		_crypt.decrypt(buf.array(), buf.position(), size);
+		_crypt.decrypt(buf, buf.position(), size);
 		return true;
 	}
 	
 	@Override
 	public boolean encrypt(final ByteBuffer buf, final int size) {
-		_crypt.encrypt(buf.array(), buf.position(), size);
+		_crypt.encrypt(buf, buf.position(), size);
 		buf.position(buf.position() + size);
 		return true;
 	}
@@ -508,8 +518,12 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return null;
 		}
 		
+		final long start = System.nanoTime();
 		character = L2PcInstance.load(objId);
 		if (character != null) {
+			_charSelectTime = start;
+			_loads.incrementAndGet();
+			_totalLoadTime.addAndGet(System.nanoTime() - start);
 			character.setRunning();
 			character.standUp();
 			character.refreshOverloaded();
@@ -565,6 +579,35 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		getConnection().close(gspArray);
 	}
 	
+	/**
+	 * Records the time elapsed since the character selection, once the character entered the world.
+	 */
+	public void onEnterWorld() {
+		final long start = _charSelectTime;
+		if (start == 0) {
+			return;
+		}
+		_charSelectTime = 0;
+		
+		final long time = System.nanoTime() - start;
+		_logins.incrementAndGet();
+		_totalLoginTime.addAndGet(time);
+		_maxLoginTime.accumulateAndGet(time, Math::max);
+	}
+	
+	public static String[] getLoginStats() {
+		final long logins = Math.max(1, _logins.get());
+		final long loads = Math.max(1, _loads.get());
+		return new String[] {
+			"Character Logins:",
+			" |- Logins:          " + _logins.get(),
+			" |- Loads:           " + _loads.get(),
+			" |- AvgLoad(ms):     " + (NANOSECONDS.toMillis(_totalLoadTime.get()) / loads),
+			" |- AvgLogin(ms):    " + (NANOSECONDS.toMillis(_totalLoginTime.get()) / logins),
+			" |- MaxLogin(ms):    " + NANOSECONDS.toMillis(_maxLoginTime.get())
+		};
+	}
+	
 	private int getObjectIdForSlot(int charSlot) {
 		final CharSelectInfoPackage info = getCharSelection(charSlot);
 		if (info == null) {
@@ -308,7 +308,7 @@ public class EnterWorld extends L2GameClientPacket {
 			}
 		}
 		
-		activeChar.broadcastUserInfo();
+		activeChar.broadcastUserInfoNow();
 		
 		// Send keybinds
 		if (character().storeUISettings()) {
@@ -502,6 +502,8 @@ public class EnterWorld extends L2GameClientPacket {
 		
 		// Unstuck players that had client open when server crashed.
 		activeChar.sendPacket(ActionFailed.STATIC_PACKET);
+		
+		getClient().onEnterWorld();
 	}
 	
 	private static void engage(L2PcInstance cha) {
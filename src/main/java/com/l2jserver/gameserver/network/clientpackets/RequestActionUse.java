@@ -323,14 +323,14 @@ public final class RequestActionUse extends L2GameClientPacket {
 			case 67: // Steer
 				if (activeChar.isInAirShip()) {
 					if (activeChar.getAirShip().setCaptain(activeChar)) {
-						activeChar.broadcastUserInfo();
+						activeChar.broadcastUserInfoNow();
 					}
 				}
 				break;
 			case 68: // Cancel Control
 				if (activeChar.isInAirShip() && activeChar.getAirShip().isCaptain(activeChar)) {
 					if (activeChar.getAirShip().setCaptain(null)) {
-						activeChar.broadcastUserInfo();
+						activeChar.broadcastUserInfoNow();
 					}
 				}
 				break;
@@ -341,7 +341,7 @@ public final class RequestActionUse extends L2GameClientPacket {
 				if (activeChar.isInAirShip()) {
 					if (activeChar.getAirShip().isCaptain(activeChar)) {
 						if (activeChar.getAirShip().setCaptain(null)) {
-							activeChar.broadcastUserInfo();
+							activeChar.broadcastUserInfoNow();
 						}
 					} else if (activeChar.getAirShip().isInDock()) {
 						activeChar.getAirShip().oustPlayer(activeChar);
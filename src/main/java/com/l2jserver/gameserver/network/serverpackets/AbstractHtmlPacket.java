@@ -18,9 +18,13 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.logging.Level;
 
 import com.l2jserver.gameserver.cache.HtmCache;
+import com.l2jserver.gameserver.cache.HtmTemplate;
 import com.l2jserver.gameserver.enums.HtmlActionScope;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.util.Util;
@@ -33,6 +37,11 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket {
 	
 	private final int _npcObjId;
 	private String _html = null;
+	/** Template of the page, until a replacement needs the rendered page. */
+	private HtmTemplate _template = null;
+	private Map<String, String> _values = null;
+	/** Whether the template actions are the actions of the rendered page. */
+	private boolean _templateActions = true;
 	private boolean _disabledValidation = false;
 	
 	protected AbstractHtmlPacket() {
@@ -66,6 +75,8 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket {
 	}
 	
 	public final void setHtml(String html) {
+		_template = null;
+		_values = null;
 		if (html.length() > 17200) {
 			_log.log(Level.WARNING, "Html is too long! this will crash the client!", new Throwable());
 			_html = html.substring(0, 17200);
@@ -79,21 +90,81 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket {
 	}
 	
 	public final boolean setFile(String prefix, String path) {
-		String content = HtmCache.getInstance().getHtm(prefix, path);
-		if (content == null) {
+		final HtmTemplate template = HtmCache.getInstance().getTemplate(prefix, path);
+		if (template == null) {
 			setHtml("<html><body>My Text is missing:<br>" + path + "</body></html>");
 			_log.warning("missing html page " + path);
 			return false;
 		}
 		
-		setHtml(content);
+		final String content = template.getContent();
+		if ((content.length() > 17200) || !content.contains("<html")) {
+			setHtml(content);
+			return true;
+		}
+		
+		_html = null;
+		_template = template;
+		_values = null;
+		_templateActions = true;
 		return true;
 	}
 	
 	public final void replace(String pattern, String value) {
+		if (_template != null) {
+			// Values can be put in the template slots as long as they don't hold other placeholders.
+			if (isSlot(pattern) && (value.indexOf('%') == -1)) {
+				if (_template.hasSlot(pattern)) {
+					if (_values == null) {
+						_values = new HashMap<>();
+					}
+					// Once replaced, the placeholder is gone.
+					if (_values.putIfAbsent(pattern, value) == null) {
+						_templateActions &= !containsAction(value);
+					}
+					return;
+				}
+				
+				if (!_template.getContent().contains(pattern)) {
+					return;
+				}
+			}
+			
+			_html = _template.render(_values);
+			_template = null;
+			_values = null;
+		}
 		_html = _html.replaceAll(pattern, value.replaceAll("\\$", "\\\\\\$"));
 	}
 	
+	private static boolean isSlot(String pattern) {
+		if ((pattern.length() < 3) || (pattern.charAt(0) != '%') || (pattern.charAt(pattern.length() - 1) != '%')) {
+			return false;
+		}
+		
+		for (int i = 1; i < (pattern.length() - 1); i++) {
+			final char c = pattern.charAt(i);
+			if (!Character.isLetterOrDigit(c) && (c != '_')) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Empty values are unsafe too, they may leave a trailing space or an empty link that parsing would trim or drop.
+	 * @param value a replacement value
+	 * @return {@code true} if the value may hold or change an html action, so the rendered page must be parsed
+	 */
+	private static boolean containsAction(String value) {
+		if (value.isEmpty() || (value.indexOf('"') != -1) || (value.indexOf(VAR_PARAM_START_CHAR) != -1) || value.contains("..")) {
+			return true;
+		}
+		
+		final String lower = value.toLowerCase(Locale.ENGLISH);
+		return lower.contains("bypass") || lower.contains("link") || lower.contains("-h") || !value.trim().equals(value);
+	}
+	
 	public final void replace(String pattern, boolean val) {
 		replace(pattern, String.valueOf(val));
 	}
@@ -123,7 +194,11 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket {
 			return;
 		}
 		
-		Util.buildHtmlActionCache(player, getScope(), _npcObjId, _html);
+		if ((_template != null) && _templateActions) {
+			Util.buildHtmlActionCache(player, getScope(), _npcObjId, _template.getActions(_values));
+		} else {
+			Util.buildHtmlActionCache(player, getScope(), _npcObjId, getHtml());
+		}
 	}
 	
 	public final int getNpcObjId() {
@@ -131,7 +206,8 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket {
 	}
 	
 	public final String getHtml() {
-		return _html;
+		final HtmTemplate template = _template;
+		return template != null ? template.render(_values) : _html;
 	}
 	
 	public abstract HtmlActionScope getScope();
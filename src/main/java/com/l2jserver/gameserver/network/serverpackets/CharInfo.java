@@ -107,6 +107,12 @@ public class CharInfo extends L2GameServerPacket {
 		_heading = decoy.getHeading();
 	}
 	
+	@Override
+	protected boolean isRecipientIndependent() {
+		// Invisible characters are only shown to game masters.
+		return !isInvisible();
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		boolean gmSeeInvis = false;
@@ -34,6 +34,11 @@ public abstract class L2GameServerPacket extends SendablePacket<L2GameClient> {
 	
 	private boolean _invisible = false;
 	
+	/** Number of times this packet was written, only used by recipient independent packets. */
+	private int _writes = 0;
+	/** Body written for a previous recipient, copied to the next ones. */
+	private volatile byte[] _body;
+	
 	private static final int[] PAPERDOLL_ORDER = new int[] {
 		Inventory.PAPERDOLL_UNDER,
 		Inventory.PAPERDOLL_REAR,
@@ -93,10 +98,38 @@ public abstract class L2GameServerPacket extends SendablePacket<L2GameClient> {
 		return PAPERDOLL_ORDER;
 	}
 	
+	/**
+	 * Verifies if the body of this packet is the same for every recipient.<br>
+	 * When such a packet is broadcasted, its body is only written for the first recipients, the next ones get a copy of it.<br>
+	 * Packets reading the recipient, or whose content can change after being sent, must not override this method.
+	 * @return {@code true} if the body of this packet does not depend on its recipient
+	 */
+	protected boolean isRecipientIndependent() {
+		return false;
+	}
+	
 	@Override
 	protected void write() {
 		try {
+			if (!isRecipientIndependent()) {
+				writeImpl();
+				return;
+			}
+			
+			final byte[] body = _body;
+			if (body != null) {
+				_buf.put(body);
+				return;
+			}
+			
+			final int start = _buf.position();
 			writeImpl();
+			// The body is only kept from the second write on, so packets sent to a single recipient do not pay for a copy.
+			if (++_writes > 1) {
+				final byte[] written = new byte[_buf.position() - start];
+				_buf.get(start, written);
+				_body = written;
+			}
 		} catch (Exception e) {
 			_log.log(Level.SEVERE, "Client: " + getClient().toString() + " - Failed writing: " + getClass().getSimpleName() + " ; " + e.getMessage(), e);
 		}
@@ -54,6 +54,11 @@ public final class MagicSkillUse extends L2GameServerPacket {
 		this(cha, cha, skillId, skillLevel, hitTime, reuseDelay);
 	}
 	
+	@Override
+	protected boolean isRecipientIndependent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x48);
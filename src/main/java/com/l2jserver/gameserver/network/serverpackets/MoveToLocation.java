@@ -33,6 +33,11 @@ public final class MoveToLocation extends L2GameServerPacket {
 		_zDst = cha.getZdestination();
 	}
 	
+	@Override
+	protected boolean isRecipientIndependent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x2f);
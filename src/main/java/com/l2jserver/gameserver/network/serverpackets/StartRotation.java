@@ -28,6 +28,11 @@ public final class StartRotation extends L2GameServerPacket {
 		_speed = speed;
 	}
 	
+	@Override
+	protected boolean isRecipientIndependent() {
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl() {
 		writeC(0x7a);
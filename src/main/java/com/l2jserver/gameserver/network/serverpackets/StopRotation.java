@@ -27,6 +27,11 @@ public class StopRotation extends L2GameServerPacket {
 		_speed = speed;
 	}
 	
+	@Override
+	protected boolean isRecipientIndependent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x61);
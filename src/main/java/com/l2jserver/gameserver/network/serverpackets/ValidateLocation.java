@@ -30,6 +30,11 @@ public class ValidateLocation extends L2GameServerPacket {
 		_loc = obj.getLocation();
 	}
 	
+	@Override
+	protected boolean isRecipientIndependent() {
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl() {
 		writeC(0x79);
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.pathfinding;
+
+import static com.l2jserver.gameserver.config.Configuration.geodata;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.l2jserver.gameserver.GeoData;
+
+/**
+ * Path found by the path finding, stored as packed world X, Y and Z coordinates of its waypoints.<br>
+ * Paths are immutable, so they can be shared through the path cache, and cell paths are smoothed lazily: when a waypoint is reached, the following waypoints in line of movement are skipped.
+ */
+public final class GeoPath {
+	private static final AtomicLong _smoothChecks = new AtomicLong();
+	private static final AtomicLong _smoothSkips = new AtomicLong();
+	
+	private final int[] _points;
+	/** If {@code true} the waypoints in line of movement are skipped while the path is followed. */
+	private final boolean _smooth;
+	
+	/**
+	 * @param points the packed X, Y and Z coordinates of the waypoints, not copied
+	 * @param smooth if {@code true} the path is smoothed while it's followed
+	 */
+	public GeoPath(int[] points, boolean smooth) {
+		_points = points;
+		_smooth = smooth;
+	}
+	
+	/**
+	 * Creates a path from path nodes, geonode paths aren't smoothed.
+	 * @param nodes the path nodes
+	 * @return the path
+	 */
+	public static GeoPath of(List<AbstractNodeLoc> nodes) {
+		final int[] points = new int[nodes.size() * 3];
+		int i = 0;
+		for (AbstractNodeLoc node : nodes) {
+			points[i++] = node.getX();
+			points[i++] = node.getY();
+			points[i++] = node.getZ();
+		}
+		return new GeoPath(points, false);
+	}
+	
+	public int size() {
+		return _points.length / 3;
+	}
+	
+	public boolean isEmpty() {
+		return _points.length == 0;
+	}
+	
+	public int getX(int index) {
+		return _points[index * 3];
+	}
+	
+	public int getY(int index) {
+		return _points[(index * 3) + 1];
+	}
+	
+	public int getZ(int index) {
+		return _points[(index * 3) + 2];
+	}
+	
+	/**
+	 * Gets the next waypoint to move to, skipping the waypoints that can be bypassed by moving straight from the given position.<br>
+	 * At most {@code MaxPostfilterPasses} waypoints are checked ahead, so the cost of smoothing is spread over the path.<br>
+	 * Paths that aren't smoothed always return the given index.
+	 * @param index the index of the next waypoint of the path
+	 * @param x the current X coordinate
+	 * @param y the current Y coordinate
+	 * @param z the current Z coordinate
+	 * @param instanceId the instance ID
+	 * @return the index of the waypoint to move to
+	 */
+	public int getNextWaypoint(int index, int x, int y, int z, int instanceId) {
+		if (!_smooth) {
+			return index;
+		}
+		
+		final int last = Math.min(size() - 1, index + geodata().getMaxPostfilterPasses());
+		int next = index;
+		while (next < last) {
+			_smoothChecks.incrementAndGet();
+			if (!GeoData.getInstance().canMove(x, y, z, getX(next + 1), getY(next + 1), getZ(next + 1), instanceId)) {
+				break;
+			}
+			next++;
+		}
+		
+		if (next > index) {
+			_smoothSkips.addAndGet(next - index);
+		}
+		return next;
+	}
+	
+	public static String getSmoothingStats() {
+		return "LOS postfilter checks/skipped waypoints:" + _smoothChecks.get() + "/" + _smoothSkips.get();
+	}
+}
@@ -20,8 +20,6 @@ package com.l2jserver.gameserver.pathfinding;
 
 import static com.l2jserver.gameserver.config.Configuration.geodata;
 
-import java.util.List;
-
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.pathfinding.cellnodes.CellPathFinding;
 import com.l2jserver.gameserver.pathfinding.geonodes.GeoPathFinding;
@@ -41,7 +39,7 @@ public abstract class PathFinding {
 	
 	public abstract boolean pathNodesExist(short regionoffset);
 	
-	public abstract List<AbstractNodeLoc> findPath(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable);
+	public abstract GeoPath findPath(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable);
 	
 	// @formatter:off
 	/*
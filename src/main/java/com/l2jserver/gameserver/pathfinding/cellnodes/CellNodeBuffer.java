@@ -20,20 +20,41 @@ package com.l2jserver.gameserver.pathfinding.cellnodes;
 
 import static com.l2jserver.gameserver.config.Configuration.geodata;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+
+import com.l2jserver.gameserver.GeoData;
+import com.l2jserver.geodriver.Cell;
 
 /**
+ * Cell path finding work buffer.<br>
+ * Nodes are held in primitive arrays indexed by their position in the buffer, the open set being a binary heap of node indexes.<br>
+ * Nodes are invalidated by bumping a generation counter instead of being cleared, so a search doesn't allocate nor reset the buffer.<br>
+ * A buffer is not thread safe, it must only be used by one search at once.
  * @author Diamond
  * @author DS
  */
 public class CellNodeBuffer {
 	private static final int MAX_ITERATIONS = 3500;
+	/** Index meaning no node. */
+	public static final int NO_NODE = -1;
+	/** Cost of a node loaded but not opened yet. */
+	private static final float NOT_OPENED = -1000;
 	
-	private final ReentrantLock _lock = new ReentrantLock();
 	private final int _mapSize;
-	private final CellNode[][] _buffer;
+	/** Generation of the search that loaded each node, a node is only valid for the current generation. */
+	private final int[] _generations;
+	private final int[] _parents;
+	private final float[] _costs;
+	/** Opening order of each node, keeps the open set FIFO for nodes of equal cost. */
+	private final int[] _orders;
+	private final short[] _heights;
+	private final byte[] _nswe;
+	private int[] _heap = new int[1024];
+	private int _heapSize = 0;
+	private int _generation = 0;
+	private int _order = 0;
 	
 	private int _baseX = 0;
 	private int _baseY = 0;
@@ -45,191 +66,242 @@ public class CellNodeBuffer {
 	private long _timeStamp = 0;
 	private long _lastElapsedTime = 0;
 	
-	private CellNode _current = null;
+	private int _current = NO_NODE;
 	
 	public CellNodeBuffer(int size) {
 		_mapSize = size;
-		_buffer = new CellNode[_mapSize][_mapSize];
+		_generations = new int[_mapSize * _mapSize];
+		_parents = new int[_mapSize * _mapSize];
+		_costs = new float[_mapSize * _mapSize];
+		_orders = new int[_mapSize * _mapSize];
+		_heights = new short[_mapSize * _mapSize];
+		_nswe = new byte[_mapSize * _mapSize];
 	}
 	
-	public final boolean lock() {
-		return _lock.tryLock();
+	public final int getMapSize() {
+		return _mapSize;
 	}
 	
-	public final CellNode findPath(int x, int y, int z, int tx, int ty, int tz) {
-		_timeStamp = System.currentTimeMillis();
+	/**
+	 * Searches a path between two geo cells.
+	 * @return the index of the target node, {@link #NO_NODE} if no path was found
+	 */
+	public final int findPath(int x, int y, int z, int tx, int ty, int tz) {
+		_timeStamp = System.nanoTime();
+		if (++_generation == Integer.MAX_VALUE) {
+			Arrays.fill(_generations, 0);
+			_generation = 1;
+		}
+		_heapSize = 0;
+		_order = 0;
+		
 		_baseX = x + ((tx - x - _mapSize) / 2); // middle of the line (x,y) - (tx,ty)
 		_baseY = y + ((ty - y - _mapSize) / 2); // will be in the center of the buffer
 		_targetX = tx;
 		_targetY = ty;
 		_targetZ = tz;
 		_current = getNode(x, y, z);
-		_current.setCost(getCost(x, y, z, geodata().getHighWeight()));
+		if (_current == NO_NODE) {
+			return NO_NODE;
+		}
+		_costs[_current] = getCost(x, y, z, geodata().getHighWeight());
 		
 		for (int count = 0; count < MAX_ITERATIONS; count++) {
-			if ((_current.getLoc().getNodeX() == _targetX) && (_current.getLoc().getNodeY() == _targetY) && (Math.abs(_current.getLoc().getZ() - _targetZ) < 64)) {
+			if ((getNodeX(_current) == _targetX) && (getNodeY(_current) == _targetY) && (Math.abs(_heights[_current] - _targetZ) < 64)) {
 				return _current; // found
 			}
 			
 			getNeighbors();
-			if (_current.getNext() == null) {
-				return null; // no more ways
+			if (_heapSize == 0) {
+				return NO_NODE; // no more ways
 			}
 			
-			_current = _current.getNext();
+			_current = poll();
 		}
-		return null;
+		return NO_NODE;
 	}
 	
 	public final void free() {
-		_current = null;
-		
-		CellNode node;
-		for (int i = 0; i < _mapSize; i++) {
-			for (int j = 0; j < _mapSize; j++) {
-				node = _buffer[i][j];
-				if (node != null) {
-					node.free();
-				}
-			}
-		}
-		
-		_lock.unlock();
-		_lastElapsedTime = System.currentTimeMillis() - _timeStamp;
+		_current = NO_NODE;
+		_lastElapsedTime = (System.nanoTime() - _timeStamp) / 1000000;
 	}
 	
 	public final long getElapsedTime() {
 		return _lastElapsedTime;
 	}
 	
+	public final int getNodeX(int node) {
+		return _baseX + (node / _mapSize);
+	}
+	
+	public final int getNodeY(int node) {
+		return _baseY + (node % _mapSize);
+	}
+	
+	public final int getNodeZ(int node) {
+		return _heights[node];
+	}
+	
+	public final int getParent(int node) {
+		return _parents[node];
+	}
+	
+	/**
+	 * Creates the location of a node, detached from this buffer.
+	 * @param node the node index
+	 * @return the node location
+	 */
+	public final NodeLoc getNodeLoc(int node) {
+		return new NodeLoc(getNodeX(node), getNodeY(node), _heights[node], _nswe[node]);
+	}
+	
 	public final List<CellNode> debugPath() {
 		final List<CellNode> result = new LinkedList<>();
-		for (CellNode n = _current; n.getParent() != null; n = (CellNode) n.getParent()) {
-			result.add(n);
-			n.setCost(-n.getCost());
+		final boolean[] inPath = new boolean[_costs.length];
+		for (int n = _current; (n != NO_NODE) && (_parents[n] != NO_NODE); n = _parents[n]) {
+			final CellNode node = new CellNode(getNodeLoc(n));
+			node.setCost(-_costs[n]);
+			result.add(node);
+			inPath[n] = true;
 		}
 		
-		for (int i = 0; i < _mapSize; i++) {
-			for (int j = 0; j < _mapSize; j++) {
-				CellNode n = _buffer[i][j];
-				if ((n == null) || !n.isInUse() || (n.getCost() <= 0)) {
-					continue;
-				}
-				
-				result.add(n);
+		for (int n = 0; n < _costs.length; n++) {
+			if ((_generations[n] != _generation) || inPath[n] || (_costs[n] <= 0)) {
+				continue;
 			}
+			
+			final CellNode node = new CellNode(getNodeLoc(n));
+			node.setCost(_costs[n]);
+			result.add(node);
 		}
 		return result;
 	}
 	
 	private void getNeighbors() {
-		if (_current.getLoc().canGoNone()) {
+		final int nswe = _nswe[_current];
+		if (nswe == 0) {
 			return;
 		}
 		
-		final int x = _current.getLoc().getNodeX();
-		final int y = _current.getLoc().getNodeY();
-		final int z = _current.getLoc().getZ();
+		final int x = getNodeX(_current);
+		final int y = getNodeY(_current);
+		final int z = _heights[_current];
 		
-		CellNode nodeE = null;
-		CellNode nodeS = null;
-		CellNode nodeW = null;
-		CellNode nodeN = null;
+		int nodeE = NO_NODE;
+		int nodeS = NO_NODE;
+		int nodeW = NO_NODE;
+		int nodeN = NO_NODE;
 		
 		// East
-		if (_current.getLoc().canGoEast()) {
+		if ((nswe & Cell.NSWE_EAST) != 0) {
 			nodeE = addNode(x + 1, y, z, false);
 		}
 		
 		// South
-		if (_current.getLoc().canGoSouth()) {
+		if ((nswe & Cell.NSWE_SOUTH) != 0) {
 			nodeS = addNode(x, y + 1, z, false);
 		}
 		
 		// West
-		if (_current.getLoc().canGoWest()) {
+		if ((nswe & Cell.NSWE_WEST) != 0) {
 			nodeW = addNode(x - 1, y, z, false);
 		}
 		
 		// North
-		if (_current.getLoc().canGoNorth()) {
+		if ((nswe & Cell.NSWE_NORTH) != 0) {
 			nodeN = addNode(x, y - 1, z, false);
 		}
 		
 		if (geodata().advancedDiagonalStrategy()) {
 			// SouthEast
-			if ((nodeE != null) && (nodeS != null)) {
-				if (nodeE.getLoc().canGoSouth() && nodeS.getLoc().canGoEast()) {
+			if ((nodeE != NO_NODE) && (nodeS != NO_NODE)) {
+				if (canGo(nodeE, Cell.NSWE_SOUTH) && canGo(nodeS, Cell.NSWE_EAST)) {
 					addNode(x + 1, y + 1, z, true);
 				}
 			}
 			
 			// SouthWest
-			if ((nodeS != null) && (nodeW != null)) {
-				if (nodeW.getLoc().canGoSouth() && nodeS.getLoc().canGoWest()) {
+			if ((nodeS != NO_NODE) && (nodeW != NO_NODE)) {
+				if (canGo(nodeW, Cell.NSWE_SOUTH) && canGo(nodeS, Cell.NSWE_WEST)) {
 					addNode(x - 1, y + 1, z, true);
 				}
 			}
 			
 			// NorthEast
-			if ((nodeN != null) && (nodeE != null)) {
-				if (nodeE.getLoc().canGoNorth() && nodeN.getLoc().canGoEast()) {
+			if ((nodeN != NO_NODE) && (nodeE != NO_NODE)) {
+				if (canGo(nodeE, Cell.NSWE_NORTH) && canGo(nodeN, Cell.NSWE_EAST)) {
 					addNode(x + 1, y - 1, z, true);
 				}
 			}
 			
 			// NorthWest
-			if ((nodeN != null) && (nodeW != null)) {
-				if (nodeW.getLoc().canGoNorth() && nodeN.getLoc().canGoWest()) {
+			if ((nodeN != NO_NODE) && (nodeW != NO_NODE)) {
+				if (canGo(nodeW, Cell.NSWE_NORTH) && canGo(nodeN, Cell.NSWE_WEST)) {
 					addNode(x - 1, y - 1, z, true);
 				}
 			}
 		}
 	}
 	
-	private CellNode getNode(int x, int y, int z) {
+	private boolean canGo(int node, int direction) {
+		return (_nswe[node] & direction) != 0;
+	}
+	
+	/**
+	 * Gets the index of a node, loading its geodata on first access in the current search.
+	 * @return the node index, {@link #NO_NODE} if outside of this buffer
+	 */
+	private int getNode(int x, int y, int z) {
 		final int aX = x - _baseX;
 		if ((aX < 0) || (aX >= _mapSize)) {
-			return null;
+			return NO_NODE;
 		}
 		
 		final int aY = y - _baseY;
 		if ((aY < 0) || (aY >= _mapSize)) {
-			return null;
+			return NO_NODE;
 		}
 		
-		CellNode result = _buffer[aX][aY];
-		if (result == null) {
-			result = new CellNode(new NodeLoc(x, y, z));
-			_buffer[aX][aY] = result;
-		} else if (!result.isInUse()) {
-			result.setInUse();
-			// reinit node if needed
-			if (result.getLoc() != null) {
-				result.getLoc().set(x, y, z);
-			} else {
-				result.setLoc(new NodeLoc(x, y, z));
+		final int node = (aX * _mapSize) + aY;
+		if (_generations[node] != _generation) {
+			_generations[node] = _generation;
+			_parents[node] = NO_NODE;
+			_costs[node] = NOT_OPENED;
+			
+			int nswe = 0;
+			if (GeoData.getInstance().checkNearestNswe(x, y, z, Cell.NSWE_NORTH)) {
+				nswe |= Cell.NSWE_NORTH;
+			}
+			if (GeoData.getInstance().checkNearestNswe(x, y, z, Cell.NSWE_EAST)) {
+				nswe |= Cell.NSWE_EAST;
+			}
+			if (GeoData.getInstance().checkNearestNswe(x, y, z, Cell.NSWE_SOUTH)) {
+				nswe |= Cell.NSWE_SOUTH;
+			}
+			if (GeoData.getInstance().checkNearestNswe(x, y, z, Cell.NSWE_WEST)) {
+				nswe |= Cell.NSWE_WEST;
 			}
+			_nswe[node] = (byte) nswe;
+			_heights[node] = (short) GeoData.getInstance().getNearestZ(x, y, z);
 		}
-		
-		return result;
+		return node;
 	}
 	
-	private CellNode addNode(int x, int y, int z, boolean diagonal) {
-		CellNode newNode = getNode(x, y, z);
-		if (newNode == null) {
-			return null;
+	private int addNode(int x, int y, int z, boolean diagonal) {
+		final int node = getNode(x, y, z);
+		if (node == NO_NODE) {
+			return NO_NODE;
 		}
-		if (newNode.getCost() >= 0) {
-			return newNode;
+		if (_costs[node] >= 0) {
+			return node;
 		}
 		
-		final int geoZ = newNode.getLoc().getZ();
+		final int geoZ = _heights[node];
 		
-		final int stepZ = Math.abs(geoZ - _current.getLoc().getZ());
+		final int stepZ = Math.abs(geoZ - _heights[_current]);
 		float weight = diagonal ? geodata().getDiagonalWeight() : geodata().getLowWeight();
 		
-		if (!newNode.getLoc().canGoAll() || (stepZ > 16)) {
+		if ((_nswe[node] != Cell.NSWE_ALL) || (stepZ > 16)) {
 			weight = geodata().getHighWeight();
 		} else {
 			if (isHighWeight(x + 1, y, geoZ)) {
@@ -243,42 +315,26 @@ public class CellNodeBuffer {
 			}
 		}
 		
-		newNode.setParent(_current);
-		newNode.setCost(getCost(x, y, geoZ, weight));
-		
-		CellNode node = _current;
-		int count = 0;
-		while ((node.getNext() != null) && (count < (MAX_ITERATIONS * 4))) {
-			count++;
-			if (node.getNext().getCost() > newNode.getCost()) {
-				// insert node into a chain
-				newNode.setNext(node.getNext());
-				break;
-			}
-			node = node.getNext();
-		}
-		if (count == (MAX_ITERATIONS * 4)) {
-			System.err.println("Pathfinding: too long loop detected, cost:" + newNode.getCost());
-		}
-		
-		node.setNext(newNode); // add last
-		
-		return newNode;
+		_parents[node] = _current;
+		_costs[node] = getCost(x, y, geoZ, weight);
+		_orders[node] = _order++;
+		offer(node);
+		return node;
 	}
 	
 	private boolean isHighWeight(int x, int y, int z) {
-		final CellNode result = getNode(x, y, z);
-		if (result == null) {
+		final int node = getNode(x, y, z);
+		if (node == NO_NODE) {
 			return true;
 		}
 		
-		if (!result.getLoc().canGoAll()) {
+		if (_nswe[node] != Cell.NSWE_ALL) {
 			return true;
 		}
-		return Math.abs(result.getLoc().getZ() - z) > 16;
+		return Math.abs(_heights[node] - z) > 16;
 	}
 	
-	private double getCost(int x, int y, int z, float weight) {
+	private float getCost(int x, int y, int z, float weight) {
 		final int dX = x - _targetX;
 		final int dY = y - _targetY;
 		final int dZ = z - _targetZ;
@@ -292,6 +348,51 @@ public class CellNodeBuffer {
 			result = Float.MAX_VALUE;
 		}
 		
+		return (float) result;
+	}
+	
+	private boolean isLower(int a, int b) {
+		return (_costs[a] < _costs[b]) || ((_costs[a] == _costs[b]) && (_orders[a] < _orders[b]));
+	}
+	
+	private void offer(int node) {
+		if (_heapSize == _heap.length) {
+			_heap = Arrays.copyOf(_heap, _heapSize * 2);
+		}
+		
+		int i = _heapSize++;
+		while (i > 0) {
+			final int parent = (i - 1) >>> 1;
+			if (!isLower(node, _heap[parent])) {
+				break;
+			}
+			_heap[i] = _heap[parent];
+			i = parent;
+		}
+		_heap[i] = node;
+	}
+	
+	private int poll() {
+		final int result = _heap[0];
+		final int last = _heap[--_heapSize];
+		int i = 0;
+		while (true) {
+			int child = (i << 1) + 1;
+			if (child >= _heapSize) {
+				break;
+			}
+			if (((child + 1) < _heapSize) && isLower(_heap[child + 1], _heap[child])) {
+				child++;
+			}
+			if (!isLower(_heap[child], last)) {
+				break;
+			}
+			_heap[i] = _heap[child];
+			i = child;
+		}
+		if (_heapSize > 0) {
+			_heap[i] = last;
+		}
 		return result;
 	}
-}
\ No newline at end of file
+}
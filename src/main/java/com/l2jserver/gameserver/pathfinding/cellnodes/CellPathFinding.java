@@ -20,10 +20,16 @@ package com.l2jserver.gameserver.pathfinding.cellnodes;
 
 import static com.l2jserver.gameserver.config.Configuration.geodata;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,25 +38,31 @@ import com.l2jserver.gameserver.config.Configuration;
 import com.l2jserver.gameserver.idfactory.IdFactory;
 import com.l2jserver.gameserver.model.itemcontainer.Inventory;
 import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
-import com.l2jserver.gameserver.pathfinding.AbstractNode;
-import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
+import com.l2jserver.gameserver.pathfinding.GeoPath;
 import com.l2jserver.gameserver.pathfinding.PathFinding;
 import com.l2jserver.gameserver.util.StringUtil;
 
 /**
+ * Cell path finding.<br>
+ * Searches use pooled buffers, and recently computed paths are cached by start and end geo cells until a door changes state.<br>
+ * Paths are returned unfiltered, the LOS postfilter being applied lazily while they are followed.
  * @author Sami
  * @author Diamond
  * @author DS
  */
 public class CellPathFinding extends PathFinding {
 	private static final Logger _log = Logger.getLogger(CellPathFinding.class.getName());
+	/** Number of geo cells the path cache keys are rounded to, as a shift. */
+	private static final int CACHE_CELL_SHIFT = 1;
+	
 	private final BufferInfo[] _allBuffers;
+	private final Map<PathKey, CachedPath> _pathCache;
+	private final AtomicLong _cacheHits = new AtomicLong();
+	private final AtomicLong _cacheMisses = new AtomicLong();
+	private final AtomicLong _searches = new AtomicLong();
+	private final AtomicLong _searchTime = new AtomicLong();
 	private int _findSuccess = 0;
 	private int _findFails = 0;
-	private int _postFilterUses = 0;
-	private int _postFilterPlayableUses = 0;
-	private int _postFilterPasses = 0;
-	private long _postFilterElapsed = 0;
 	
 	private List<L2ItemInstance> _debugItems = null;
 	
@@ -79,6 +91,16 @@ public class CellPathFinding extends PathFinding {
 			_log.log(Level.WARNING, "CellPathFinding: Problem during buffer init: " + e.getMessage(), e);
 			throw new Error("CellPathFinding: load aborted");
 		}
+		
+		final int cacheSize = geodata().getPathCacheSize();
+		_pathCache = cacheSize > 0 ? new LinkedHashMap<>(cacheSize, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Entry<PathKey, CachedPath> eldest) {
+				return size() > cacheSize;
+			}
+		} : null;
 	}
 	
 	@Override
@@ -87,7 +109,7 @@ public class CellPathFinding extends PathFinding {
 	}
 	
 	@Override
-	public List<AbstractNodeLoc> findPath(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable) {
+	public GeoPath findPath(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable) {
 		int gx = GeoData.getInstance().getGeoX(x);
 		int gy = GeoData.getInstance().getGeoY(y);
 		if (!GeoData.getInstance().hasGeo(x, y)) {
@@ -100,13 +122,22 @@ public class CellPathFinding extends PathFinding {
 			return null;
 		}
 		int gtz = GeoData.getInstance().getHeight(tx, ty, tz);
+		
+		boolean debug = playable && geodata().debugPath();
+		
+		final PathKey key = (_pathCache != null) && !debug ? new PathKey(gx, gy, gz, gtx, gty, gtz, instanceId) : null;
+		if (key != null) {
+			final GeoPath cached = getCachedPath(key, x, y, z, instanceId);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		
 		CellNodeBuffer buffer = alloc(64 + (2 * Math.max(Math.abs(gx - gtx), Math.abs(gy - gty))), playable);
 		if (buffer == null) {
 			return null;
 		}
 		
-		boolean debug = playable && geodata().debugPath();
-		
 		if (debug) {
 			if (_debugItems == null) {
 				_debugItems = new CopyOnWriteArrayList<>();
@@ -119,108 +150,111 @@ public class CellPathFinding extends PathFinding {
 			}
 		}
 		
-		List<AbstractNodeLoc> path;
+		final GeoPath path;
+		final long searchStart = System.nanoTime();
 		try {
-			CellNode result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
+			int result = buffer.findPath(gx, gy, gz, gtx, gty, gtz);
 			
 			if (debug) {
 				for (CellNode n : buffer.debugPath()) {
 					if (n.getCost() < 0) {
-						dropDebugItem(1831, (int) (-n.getCost() * 10), n.getLoc());
+						dropDebugItem(1831, (int) (-n.getCost() * 10), n.getLoc().getX(), n.getLoc().getY(), n.getLoc().getZ());
 					} else {
 						// known nodes
-						dropDebugItem(Inventory.ADENA_ID, (int) (n.getCost() * 10), n.getLoc());
+						dropDebugItem(Inventory.ADENA_ID, (int) (n.getCost() * 10), n.getLoc().getX(), n.getLoc().getY(), n.getLoc().getZ());
 					}
 				}
 			}
 			
-			if (result == null) {
+			if (result == CellNodeBuffer.NO_NODE) {
+				// Failed searches aren't cached, a door opening may free the way at any time.
 				_findFails++;
 				return null;
 			}
 			
-			path = constructPath(result);
+			path = constructPath(buffer, result);
 		} catch (Exception e) {
 			_log.log(Level.WARNING, "", e);
 			return null;
 		} finally {
-			buffer.free();
+			release(buffer);
+			_searches.incrementAndGet();
+			_searchTime.addAndGet(System.nanoTime() - searchStart);
 		}
 		
-		if ((path.size() < 3) || (geodata().getMaxPostfilterPasses() <= 0)) {
-			_findSuccess++;
-			return path;
+		// The LOS postfilter is applied lazily by the moving character, see GeoPath.getNextWaypoint.
+		if (debug) {
+			for (int i = 0; i < path.size(); i++) {
+				dropDebugItem(65, 1, path.getX(i), path.getY(i), path.getZ(i));
+			}
 		}
 		
-		long timeStamp = System.currentTimeMillis();
-		_postFilterUses++;
-		if (playable) {
-			_postFilterPlayableUses++;
+		_findSuccess++;
+		// Empty paths (start and target in the same cell) have no first waypoint to check a cached path against.
+		if ((key != null) && !path.isEmpty()) {
+			putCachedPath(key, path);
+		}
+		return path;
+	}
+	
+	/**
+	 * Gets a cached path, if no door changed state since it was computed and it's still valid from the given start point.
+	 * @return the cached path, {@code null} if there is no usable cached path
+	 */
+	private GeoPath getCachedPath(PathKey key, int x, int y, int z, int instanceId) {
+		final CachedPath cached;
+		synchronized (_pathCache) {
+			cached = _pathCache.get(key);
 		}
 		
-		boolean remove;
-		int pass = 0;
-		do {
-			pass++;
-			_postFilterPasses++;
-			
-			remove = false;
-			final Iterator<AbstractNodeLoc> endPoint = path.iterator();
-			endPoint.next();
-			int currentX = x;
-			int currentY = y;
-			int currentZ = z;
-			
-			int midPoint = 0;
-			while (endPoint.hasNext()) {
-				AbstractNodeLoc locMiddle = path.get(midPoint);
-				AbstractNodeLoc locEnd = endPoint.next();
-				if (GeoData.getInstance().canMove(currentX, currentY, currentZ, locEnd.getX(), locEnd.getY(), locEnd.getZ(), instanceId)) {
-					path.remove(midPoint);
-					remove = true;
-					if (debug) {
-						dropDebugItem(735, 1, locMiddle);
-					}
-				} else {
-					currentX = locMiddle.getX();
-					currentY = locMiddle.getY();
-					currentZ = locMiddle.getZ();
-					midPoint++;
-				}
-			}
+		if ((cached == null) || (cached.expireTime < System.currentTimeMillis()) || (cached.doorEpoch != GeoData.getInstance().getDoorEpoch())) {
+			_cacheMisses.incrementAndGet();
+			return null;
 		}
-		// only one postfilter pass for AI
-		while (playable && remove && (path.size() > 2) && (pass < geodata().getMaxPostfilterPasses()));
 		
-		if (debug) {
-			path.forEach(n -> dropDebugItem(65, 1, n));
+		// The cached path may have been computed from a neighbour cell.
+		if (cached.path.isEmpty() || !GeoData.getInstance().canMove(x, y, z, cached.path.getX(0), cached.path.getY(0), cached.path.getZ(0), instanceId)) {
+			_cacheMisses.incrementAndGet();
+			return null;
 		}
 		
-		_findSuccess++;
-		_postFilterElapsed += System.currentTimeMillis() - timeStamp;
-		return path;
+		_cacheHits.incrementAndGet();
+		return cached.path;
 	}
 	
-	private List<AbstractNodeLoc> constructPath(AbstractNode<NodeLoc> node) {
-		final List<AbstractNodeLoc> path = new CopyOnWriteArrayList<>();
+	private void putCachedPath(PathKey key, GeoPath path) {
+		final CachedPath cached = new CachedPath(path, System.currentTimeMillis() + geodata().getPathCacheTime(), GeoData.getInstance().getDoorEpoch());
+		synchronized (_pathCache) {
+			_pathCache.put(key, cached);
+		}
+	}
+	
+	/**
+	 * Constructs the path from the target node back to the start node, only keeping the nodes where the moving direction changes.
+	 */
+	private GeoPath constructPath(CellNodeBuffer buffer, int node) {
+		// Waypoints are collected from the end, in reverse order.
+		int[] points = new int[3 * 16];
+		int length = 0;
 		int previousDirectionX = Integer.MIN_VALUE;
 		int previousDirectionY = Integer.MIN_VALUE;
 		int directionX, directionY;
 		
-		while (node.getParent() != null) {
-			if (!geodata().advancedDiagonalStrategy() && (node.getParent().getParent() != null)) {
-				int tmpX = node.getLoc().getNodeX() - node.getParent().getParent().getLoc().getNodeX();
-				int tmpY = node.getLoc().getNodeY() - node.getParent().getParent().getLoc().getNodeY();
+		while (buffer.getParent(node) != CellNodeBuffer.NO_NODE) {
+			final int parent = buffer.getParent(node);
+			if (!geodata().advancedDiagonalStrategy() && (buffer.getParent(parent) != CellNodeBuffer.NO_NODE)) {
+				int tmpX = buffer.getNodeX(node) - buffer.getNodeX(buffer.getParent(parent));
+				int tmpY = buffer.getNodeY(node) - buffer.getNodeY(buffer.getParent(parent));
 				if (Math.abs(tmpX) == Math.abs(tmpY)) {
 					directionX = tmpX;
 					directionY = tmpY;
 				} else {
-					directionX = node.getLoc().getNodeX() - node.getParent().getLoc().getNodeX();
-					directionY = node.getLoc().getNodeY() - node.getParent().getLoc().getNodeY();
+					directionX = buffer.getNodeX(node) - buffer.getNodeX(parent);
+					directionY = buffer.getNodeY(node) - buffer.getNodeY(parent);
 				}
 			} else {
-				directionX = node.getLoc().getNodeX() - node.getParent().getLoc().getNodeX();
-				directionY = node.getLoc().getNodeY() - node.getParent().getLoc().getNodeY();
+				directionX = buffer.getNodeX(node) - buffer.getNodeX(parent);
+				directionY = buffer.getNodeY(node) - buffer.getNodeY(parent);
 			}
 			
 			// only add a new route point if moving direction changes
@@ -228,68 +262,100 @@ public class CellPathFinding extends PathFinding {
 				previousDirectionX = directionX;
 				previousDirectionY = directionY;
 				
-				path.add(0, node.getLoc());
-				node.setLoc(null);
+				if (length == points.length) {
+					points = Arrays.copyOf(points, length * 2);
+				}
+				points[length++] = buffer.getNodeZ(node);
+				points[length++] = GeoData.getInstance().getWorldY(buffer.getNodeY(node));
+				points[length++] = GeoData.getInstance().getWorldX(buffer.getNodeX(node));
 			}
 			
-			node = node.getParent();
+			node = parent;
 		}
-		return path;
+		
+		final int[] path = new int[length];
+		for (int i = 0; i < length; i++) {
+			path[i] = points[length - 1 - i];
+		}
+		return new GeoPath(path, true);
 	}
 	
+	/**
+	 * Gets a buffer of at least the given size.<br>
+	 * The smallest size with a buffer left in its count is used, reusing an idle buffer if any, else a temporary buffer of the smallest size is created.
+	 */
 	private CellNodeBuffer alloc(int size, boolean playable) {
-		CellNodeBuffer current = null;
+		BufferInfo info = null;
 		for (BufferInfo i : _allBuffers) {
-			if (i.mapSize >= size) {
-				for (CellNodeBuffer buf : i.bufs) {
-					if (buf.lock()) {
-						i.uses++;
-						if (playable) {
-							i.playableUses++;
-						}
-						i.elapsed += buf.getElapsedTime();
-						current = buf;
-						break;
-					}
-				}
-				if (current != null) {
-					break;
-				}
-				
-				// not found, allocate temporary buffer
-				current = new CellNodeBuffer(i.mapSize);
-				current.lock();
-				if (i.bufs.size() < i.count) {
-					i.bufs.add(current);
-					i.uses++;
+			if (i.mapSize < size) {
+				continue;
+			}
+			
+			if (i.inUse.incrementAndGet() <= i.count) {
+				info = i;
+				break;
+			}
+			i.inUse.decrementAndGet();
+		}
+		
+		if (info == null) {
+			// not found, allocate temporary buffer
+			for (BufferInfo i : _allBuffers) {
+				if (i.mapSize >= size) {
+					i.inUse.incrementAndGet();
+					i.overflows++;
 					if (playable) {
-						i.playableUses++;
+						i.playableOverflows++;
 					}
-					break;
-				}
-				
-				i.overflows++;
-				if (playable) {
-					i.playableOverflows++;
-					// System.err.println("Overflow, size requested: " + size + " playable:"+playable);
+					return new CellNodeBuffer(i.mapSize);
 				}
 			}
+			return null;
+		}
+		
+		CellNodeBuffer current = info.idle.poll();
+		if (current == null) {
+			current = new CellNodeBuffer(info.mapSize);
 		}
 		
+		info.uses++;
+		if (playable) {
+			info.playableUses++;
+		}
+		info.elapsed += current.getElapsedTime();
 		return current;
 	}
 	
-	private void dropDebugItem(int itemId, int num, AbstractNodeLoc loc) {
+	/**
+	 * Releases a buffer, it's kept for later searches unless its size already has as many idle buffers as its count.
+	 */
+	private void release(CellNodeBuffer buffer) {
+		buffer.free();
+		for (BufferInfo i : _allBuffers) {
+			if (i.mapSize == buffer.getMapSize()) {
+				if (i.idle.size() < i.count) {
+					i.idle.offer(buffer);
+				}
+				i.inUse.decrementAndGet();
+				return;
+			}
+		}
+	}
+	
+	private void dropDebugItem(int itemId, int num, int x, int y, int z) {
 		final L2ItemInstance item = new L2ItemInstance(IdFactory.getInstance().getNextId(), itemId);
 		item.setCount(num);
-		item.spawnMe(loc.getX(), loc.getY(), loc.getZ());
+		item.spawnMe(x, y, z);
 		_debugItems.add(item);
 	}
 	
 	private static final class BufferInfo {
 		final int mapSize;
 		final int count;
-		List<CellNodeBuffer> bufs;
+		/** Number of buffers of this size used by searches in progress. */
+		final AtomicInteger inUse = new AtomicInteger();
+		/** Buffers kept for later searches, at most {@code count}. */
+		final Queue<CellNodeBuffer> idle = new ConcurrentLinkedQueue<>();
 		int uses = 0;
 		int playableUses = 0;
 		int overflows = 0;
@@ -299,13 +365,12 @@ public class CellPathFinding extends PathFinding {
 		public BufferInfo(int size, int cnt) {
 			mapSize = size;
 			count = cnt;
-			bufs = new ArrayList<>(count);
 		}
 		
 		@Override
 		public String toString() {
 			final StringBuilder stat = new StringBuilder(100);
-			StringUtil.append(stat, String.valueOf(mapSize), "x", String.valueOf(mapSize), " num:", String.valueOf(bufs.size()), "/", String.valueOf(count), " uses:", String.valueOf(uses), "/", String.valueOf(playableUses));
+			StringUtil.append(stat, String.valueOf(mapSize), "x", String.valueOf(mapSize), " num:", String.valueOf(idle.size()), "/", String.valueOf(count), " uses:", String.valueOf(uses), "/", String.valueOf(playableUses));
 			if (uses > 0) {
 				StringUtil.append(stat, " total/avg(ms):", String.valueOf(elapsed), "/", String.format("%1.2f", (double) elapsed / uses));
 			}
@@ -324,17 +389,89 @@ public class CellPathFinding extends PathFinding {
 		}
 		
 		final StringBuilder stat = new StringBuilder(100);
-		StringUtil.append(stat, "LOS postfilter uses:", String.valueOf(_postFilterUses), "/", String.valueOf(_postFilterPlayableUses));
-		if (_postFilterUses > 0) {
-			StringUtil.append(stat, " total/avg(ms):", String.valueOf(_postFilterElapsed), "/", String.format("%1.2f", (double) _postFilterElapsed / _postFilterUses), //
-				" passes total/avg:", String.valueOf(_postFilterPasses), "/", String.format("%1.1f", (double) _postFilterPasses / _postFilterUses), Configuration.EOL);
-		}
+		StringUtil.append(stat, GeoPath.getSmoothingStats(), Configuration.EOL);
 		StringUtil.append(stat, "Pathfind success/fail:", String.valueOf(_findSuccess), "/", String.valueOf(_findFails));
+		final long searches = _searches.get();
+		if (searches > 0) {
+			StringUtil.append(stat, " search total/avg(ms):", String.valueOf(_searchTime.get() / 1000000), "/", String.format("%1.3f", _searchTime.get() / 1000000.0 / searches));
+		}
+		if (_pathCache != null) {
+			final long hits = _cacheHits.get();
+			final long lookups = hits + _cacheMisses.get();
+			final int size;
+			synchronized (_pathCache) {
+				size = _pathCache.size();
+			}
+			StringUtil.append(stat, Configuration.EOL, "Path cache size:", String.valueOf(size), " hits/lookups:", String.valueOf(hits), "/", String.valueOf(lookups));
+			if (lookups > 0) {
+				StringUtil.append(stat, " hit rate:", String.format("%1.1f%%", (hits * 100.0) / lookups));
+			}
+		}
 		result[result.length - 1] = stat.toString();
 		
 		return result;
 	}
 	
+	/**
+	 * Path cache key, geo cells are rounded so near identical requests share a path.
+	 */
+	private static final class PathKey {
+		private final int _x;
+		private final int _y;
+		private final int _z;
+		private final int _tx;
+		private final int _ty;
+		private final int _tz;
+		private final int _instanceId;
+		
+		protected PathKey(int x, int y, int z, int tx, int ty, int tz, int instanceId) {
+			_x = x >> CACHE_CELL_SHIFT;
+			_y = y >> CACHE_CELL_SHIFT;
+			// Rounded to the geodata layer height.
+			_z = z >> 4;
+			_tx = tx >> CACHE_CELL_SHIFT;
+			_ty = ty >> CACHE_CELL_SHIFT;
+			_tz = tz >> 4;
+			_instanceId = instanceId;
+		}
+		
+		@Override
+		public int hashCode() {
+			int result = _x;
+			result = (31 * result) + _y;
+			result = (31 * result) + _z;
+			result = (31 * result) + _tx;
+			result = (31 * result) + _ty;
+			result = (31 * result) + _tz;
+			return (31 * result) + _instanceId;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof PathKey)) {
+				return false;
+			}
+			final PathKey other = (PathKey) obj;
+			return (_x == other._x) && (_y == other._y) && (_z == other._z) && (_tx == other._tx) && (_ty == other._ty) && (_tz == other._tz) && (_instanceId == other._instanceId);
+		}
+	}
+	
+	private static final class CachedPath {
+		final GeoPath path;
+		final long expireTime;
+		/** Door epoch when the path was computed, the path is stale once a door changed state. */
+		final int doorEpoch;
+		
+		protected CachedPath(GeoPath path, long expireTime, int doorEpoch) {
+			this.path = path;
+			this.expireTime = expireTime;
+			this.doorEpoch = doorEpoch;
+		}
+	}
+	
 	private static class SingletonHolder {
 		protected static final CellPathFinding _instance = new CellPathFinding();
 	}
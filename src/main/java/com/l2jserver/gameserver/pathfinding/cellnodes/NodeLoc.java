@@ -39,6 +39,23 @@ public class NodeLoc extends AbstractNodeLoc {
 		set(x, y, z);
 	}
 	
+	/**
+	 * Creates a node location from geodata already read by the path finding buffer.
+	 * @param x the geo X
+	 * @param y the geo Y
+	 * @param geoHeight the geo height
+	 * @param nswe the NSWE flags
+	 */
+	public NodeLoc(int x, int y, int geoHeight, byte nswe) {
+		_x = x;
+		_y = y;
+		_goNorth = (nswe & Cell.NSWE_NORTH) != 0;
+		_goEast = (nswe & Cell.NSWE_EAST) != 0;
+		_goSouth = (nswe & Cell.NSWE_SOUTH) != 0;
+		_goWest = (nswe & Cell.NSWE_WEST) != 0;
+		_geoHeight = geoHeight;
+	}
+	
 	public void set(int x, int y, int z) {
 		_x = x;
 		_y = y;
@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.gameserver.ThreadPoolManager;
+
+/**
+ * AI task manager.<br>
+ * Hashed timing wheel running the periodic AI tasks (think and follow) of all actors.<br>
+ * Tasks are bucketed by tick slot, each slot being run in batches on the AI tick pool, instead of having one scheduled future per actor.
+ */
+public final class AITaskManager {
+	private static final Logger _log = Logger.getLogger(AITaskManager.class.getName());
+	
+	/** Duration of a tick in milliseconds. */
+	public static final long TICK = 100;
+	/** Number of slots in the wheel, must be a power of two. */
+	private static final int WHEEL_SIZE = 512;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	/** Maximum number of tasks run by a single worker job. */
+	private static final int BATCH_SIZE = 128;
+	
+	private final List<List<AITask>> _wheel = new ArrayList<>(WHEEL_SIZE);
+	private final long _startTime = System.currentTimeMillis();
+	/** Next tick to process, only written by the ticker under the lock of the processed slot. */
+	private volatile long _nextTick = 0;
+	
+	private final AtomicInteger _registered = new AtomicInteger();
+	private final AtomicLong _executed = new AtomicLong();
+	private volatile long _lastLag = 0;
+	private volatile long _maxLag = 0;
+	
+	protected AITaskManager() {
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			_wheel.add(new ArrayList<>());
+		}
+		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this::tick, TICK, TICK);
+	}
+	
+	/**
+	 * Schedules a periodic AI task.
+	 * @param task the task to run
+	 * @param initialDelay the delay before the first run, in milliseconds
+	 * @param period the period between runs, in milliseconds
+	 * @return the AI task, to be used to cancel it
+	 */
+	public AITask schedule(Runnable task, long initialDelay, long period) {
+		final AITask aiTask = new AITask(task, toTicks(period));
+		_registered.incrementAndGet();
+		insert(aiTask, currentTick() + toTicks(initialDelay));
+		return aiTask;
+	}
+	
+	private void insert(AITask task, long deadline) {
+		while (true) {
+			final long target = Math.max(deadline, _nextTick);
+			final List<AITask> slot = _wheel.get((int) (target & WHEEL_MASK));
+			synchronized (slot) {
+				// The ticker may have processed the target slot meanwhile.
+				if (target >= _nextTick) {
+					task._deadline = target;
+					slot.add(task);
+					return;
+				}
+			}
+		}
+	}
+	
+	private void tick() {
+		try {
+			final long now = currentTick();
+			while (_nextTick <= now) {
+				process(_nextTick);
+			}
+		} catch (Exception e) {
+			_log.log(Level.WARNING, getClass().getSimpleName() + ": Error processing tick " + _nextTick + "!", e);
+		}
+	}
+	
+	private void process(long tick) {
+		final List<AITask> due = new ArrayList<>();
+		final List<AITask> slot = _wheel.get((int) (tick & WHEEL_MASK));
+		synchronized (slot) {
+			final Iterator<AITask> it = slot.iterator();
+			while (it.hasNext()) {
+				final AITask task = it.next();
+				if (task.isCancelled()) {
+					it.remove();
+				} else if (task._deadline <= tick) {
+					it.remove();
+					due.add(task);
+				}
+			}
+			_nextTick = tick + 1;
+		}
+		
+		final long lag = System.currentTimeMillis() - (_startTime + (tick * TICK));
+		_lastLag = lag;
+		if (lag > _maxLag) {
+			_maxLag = lag;
+		}
+		
+		for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+			final List<AITask> batch = due.subList(from, Math.min(from + BATCH_SIZE, due.size()));
+			ThreadPoolManager.getInstance().executeAiTick(() -> {
+				for (AITask task : batch) {
+					task.run();
+				}
+			});
+		}
+	}
+	
+	private long currentTick() {
+		return (System.currentTimeMillis() - _startTime) / TICK;
+	}
+	
+	private static long toTicks(long millis) {
+		return Math.max(1, (millis + TICK - 1) / TICK);
+	}
+	
+	/**
+	 * Gets the number of tasks in each slot of the wheel.
+	 * @return the task count per slot
+	 */
+	public int[] getSlotCounts() {
+		final int[] counts = new int[WHEEL_SIZE];
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			final List<AITask> slot = _wheel.get(i);
+			synchronized (slot) {
+				counts[i] = slot.size();
+			}
+		}
+		return counts;
+	}
+	
+	public String[] getStats() {
+		final int[] counts = getSlotCounts();
+		int used = 0;
+		int max = 0;
+		long total = 0;
+		for (int count : counts) {
+			if (count > 0) {
+				used++;
+			}
+			max = Math.max(max, count);
+			total += count;
+		}
+		return new String[] {
+			"AI Task Manager:",
+			" |- Tick(ms):        " + TICK,
+			" |- CurrentTick:     " + _nextTick,
+			" |- TickLag(ms):     " + _lastLag,
+			" |- MaxTickLag(ms):  " + _maxLag,
+			" |- Registered:      " + _registered.get(),
+			" |- Executed:        " + _executed.get(),
+			" + Slots:",
+			" |- Size:            " + WHEEL_SIZE,
+			" |- Used:            " + used,
+			" |- MaxTasks:        " + max,
+			" |- AvgTasks:        " + (total / WHEEL_SIZE)
+		};
+	}
+	
+	/**
+	 * Periodic task registered in the wheel.<br>
+	 * A task is only re-inserted once its run is over, so it never runs concurrently with itself.
+	 */
+	public final class AITask {
+		private final Runnable _task;
+		private final long _period;
+		private final AtomicBoolean _cancelled = new AtomicBoolean();
+		/** Tick of the next run, guarded by the lock of the slot holding the task. */
+		protected long _deadline;
+		
+		protected AITask(Runnable task, long period) {
+			_task = task;
+			_period = period;
+		}
+		
+		protected void run() {
+			if (isCancelled()) {
+				return;
+			}
+			
+			try {
+				_task.run();
+			} catch (Throwable t) {
+				_log.log(Level.WARNING, AITaskManager.class.getSimpleName() + ": Error running AI task " + _task + "!", t);
+			}
+			_executed.incrementAndGet();
+			
+			if (!isCancelled()) {
+				insert(this, _deadline + _period);
+			}
+		}
+		
+		/**
+		 * Cancels this task, it is lazily removed from the wheel.
+		 */
+		public void cancel() {
+			if (_cancelled.compareAndSet(false, true)) {
+				_registered.decrementAndGet();
+			}
+		}
+		
+		public boolean isCancelled() {
+			return _cancelled.get();
+		}
+	}
+	
+	public static AITaskManager getInstance() {
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder {
+		protected static final AITaskManager _instance = new AITaskManager();
+	}
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.commons.database.ConnectionFactory;
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+
+/**
+ * Item update task manager.<br>
+ * Write-behind store for item updates, dirty items are coalesced by object ID and written in JDBC batches by a dedicated thread.<br>
+ * Inserts and deletes are still done right away by the item, only updates of items already in database are delayed.<br>
+ * The write mode and interval are read once at startup, so reloading the configuration never strands pending updates.
+ */
+public final class ItemUpdateTaskManager implements Runnable {
+	private static final Logger _log = Logger.getLogger(ItemUpdateTaskManager.class.getName());
+	
+	private final Map<Integer, L2ItemInstance> _dirtyItems = new ConcurrentHashMap<>();
+	private final Object _flushLock = new Object();
+	private final boolean _enabled;
+	private final long _interval;
+	private final Thread _thread;
+	private volatile boolean _running;
+	
+	private final AtomicLong _flushCount = new AtomicLong();
+	private final AtomicLong _batchCount = new AtomicLong();
+	private final AtomicLong _itemCount = new AtomicLong();
+	private final AtomicLong _flushTime = new AtomicLong();
+	private volatile int _lastBatchSize = 0;
+	private volatile int _maxBatchSize = 0;
+	private volatile long _lastFlushTime = 0;
+	private volatile long _maxFlushTime = 0;
+	private volatile int _maxQueueSize = 0;
+	
+	protected ItemUpdateTaskManager() {
+		_interval = general().getItemUpdateInterval();
+		_enabled = _interval > 0;
+		_running = _enabled;
+		if (_running) {
+			_thread = new Thread(this, getClass().getSimpleName());
+			_thread.setDaemon(true);
+			_thread.start();
+		} else {
+			_thread = null;
+		}
+	}
+	
+	/**
+	 * @return {@code true} if item updates are written behind
+	 */
+	public static boolean isEnabled() {
+		return getInstance()._enabled;
+	}
+	
+	/**
+	 * Adds an item with pending changes, it will be written with the next flush.
+	 * @param item the item
+	 */
+	public void add(L2ItemInstance item) {
+		if (_dirtyItems.put(item.getObjectId(), item) == null) {
+			final int size = _dirtyItems.size();
+			if (size > _maxQueueSize) {
+				_maxQueueSize = size;
+			}
+			if (size >= general().getItemUpdateBatchSize()) {
+				requestFlush();
+			}
+		}
+	}
+	
+	/**
+	 * Removes a pending item update, when the item is deleted from database.
+	 * @param item the item
+	 */
+	public void remove(L2ItemInstance item) {
+		_dirtyItems.remove(item.getObjectId(), item);
+	}
+	
+	/**
+	 * Wakes up the writer thread to flush the pending updates without waiting for the next interval.
+	 */
+	public void requestFlush() {
+		if (_thread != null) {
+			LockSupport.unpark(_thread);
+		}
+	}
+	
+	@Override
+	public void run() {
+		while (_running) {
+			LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(_interval));
+			try {
+				flush();
+			} catch (Exception e) {
+				_log.log(Level.WARNING, getClass().getSimpleName() + ": Error flushing item updates!", e);
+			}
+		}
+	}
+	
+	/**
+	 * Writes all the pending item updates in the calling thread.
+	 */
+	public void flush() {
+		flush(item -> true);
+	}
+	
+	/**
+	 * Writes the pending item updates of the given owners in the calling thread.
+	 * @param ownerIds the object IDs of the owners
+	 */
+	public void flushOwners(int... ownerIds) {
+		flush(item -> {
+			for (int ownerId : ownerIds) {
+				if (item.getOwnerId() == ownerId) {
+					return true;
+				}
+			}
+			return false;
+		});
+	}
+	
+	private void flush(Predicate<L2ItemInstance> filter) {
+		if (_dirtyItems.isEmpty()) {
+			return;
+		}
+		
+		synchronized (_flushLock) {
+			final long start = System.nanoTime();
+			final int batchSize = Math.max(1, general().getItemUpdateBatchSize());
+			final List<L2ItemInstance> batch = new ArrayList<>(batchSize);
+			try (var con = ConnectionFactory.getInstance().getConnection();
+				var ps = con.prepareStatement(L2ItemInstance.UPDATE_ITEM)) {
+				final Iterator<L2ItemInstance> it = _dirtyItems.values().iterator();
+				while (it.hasNext()) {
+					final L2ItemInstance item = it.next();
+					if (!filter.test(item)) {
+						continue;
+					}
+					it.remove();
+					if (item.addUpdateBatch(ps)) {
+						batch.add(item);
+					}
+					
+					if (batch.size() >= batchSize) {
+						executeBatch(ps, batch);
+					}
+				}
+				
+				if (!batch.isEmpty()) {
+					executeBatch(ps, batch);
+				}
+			} catch (Exception e) {
+				_log.log(Level.WARNING, getClass().getSimpleName() + ": Could not update " + batch.size() + " items in database!", e);
+				// Keep the items of the failed batch for the next flush.
+				for (L2ItemInstance item : batch) {
+					item.updateFailed();
+					_dirtyItems.putIfAbsent(item.getObjectId(), item);
+				}
+			}
+			
+			final long time = (System.nanoTime() - start) / 1000;
+			_flushCount.incrementAndGet();
+			_flushTime.addAndGet(time);
+			_lastFlushTime = time;
+			if (time > _maxFlushTime) {
+				_maxFlushTime = time;
+			}
+		}
+	}
+	
+	private void executeBatch(PreparedStatement ps, List<L2ItemInstance> batch) throws SQLException {
+		ps.executeBatch();
+		_batchCount.incrementAndGet();
+		_itemCount.addAndGet(batch.size());
+		_lastBatchSize = batch.size();
+		if (batch.size() > _maxBatchSize) {
+			_maxBatchSize = batch.size();
+		}
+		batch.clear();
+	}
+	
+	/**
+	 * Stops the writer thread and writes the pending item updates.
+	 */
+	public void shutdown() {
+		_running = false;
+		requestFlush();
+		flush();
+	}
+	
+	public String[] getStats() {
+		final long flushes = _flushCount.get();
+		final long batches = _batchCount.get();
+		return new String[] {
+			"Item Update Task Manager:",
+			" |- Enabled:         " + _enabled,
+			" |- QueueSize:       " + _dirtyItems.size(),
+			" |- MaxQueueSize:    " + _maxQueueSize,
+			" + Batches:",
+			" |- Count:           " + batches,
+			" |- Items:           " + _itemCount.get(),
+			" |- LastSize:        " + _lastBatchSize,
+			" |- MaxSize:         " + _maxBatchSize,
+			" |- AvgSize:         " + (batches > 0 ? _itemCount.get() / batches : 0),
+			" + Flushes:",
+			" |- Count:           " + flushes,
+			" |- LastTime(us):    " + _lastFlushTime,
+			" |- MaxTime(us):     " + _maxFlushTime,
+			" |- AvgTime(us):     " + (flushes > 0 ? _flushTime.get() / flushes : 0)
+		};
+	}
+	
+	public static ItemUpdateTaskManager getInstance() {
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder {
+		protected static final ItemUpdateTaskManager _instance = new ItemUpdateTaskManager();
+	}
+}
@@ -22,8 +22,11 @@ import static com.l2jserver.gameserver.config.Configuration.general;
 import static com.l2jserver.gameserver.config.Configuration.npc;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,7 +37,13 @@ import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Playable;
 import com.l2jserver.gameserver.model.actor.instance.L2GuardInstance;
+import com.l2jserver.gameserver.util.Util;
 
+/**
+ * Knownlist update task manager.<br>
+ * By default all active world regions are periodically swept to update knownlists.<br>
+ * When incremental knownlist is enabled, knownlists are updated from movement events and the periodic sweep is only a consistency check.
+ */
 public class KnownListUpdateTaskManager {
 	protected static final Logger _log = Logger.getLogger(KnownListUpdateTaskManager.class.getName());
 	
@@ -45,8 +54,19 @@ public class KnownListUpdateTaskManager {
 	
 	protected static final Set<L2WorldRegion> FAILED_REGIONS = ConcurrentHashMap.newKeySet(1);
 	
+	/** Objects with a pending incremental update. */
+	private final Set<Integer> _pendingUpdates = ConcurrentHashMap.newKeySet();
+	
+	private final AtomicLong _sweepCount = new AtomicLong();
+	private final AtomicLong _sweepObjects = new AtomicLong();
+	private final AtomicLong _sweepTime = new AtomicLong();
+	private final AtomicLong _incrementalCount = new AtomicLong();
+	private final AtomicLong _incrementalObjects = new AtomicLong();
+	private final AtomicLong _incrementalTime = new AtomicLong();
+	
 	protected KnownListUpdateTaskManager() {
-		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new KnownListUpdate(), 1000, general().getKnownListUpdateInterval());
+		final long interval = general().incrementalKnownList() ? general().getKnownListConsistencyCheckInterval() : general().getKnownListUpdateInterval();
+		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new KnownListUpdate(), 1000, interval);
 	}
 	
 	private class KnownListUpdate implements Runnable {
@@ -56,6 +76,7 @@ public class KnownListUpdateTaskManager {
 		@Override
 		public void run() {
 			try {
+				final long start = System.nanoTime();
 				boolean failed;
 				for (L2WorldRegion[] regions : L2World.getInstance().getWorldRegions()) {
 					for (L2WorldRegion r : regions) // go through all world regions
@@ -77,6 +98,8 @@ public class KnownListUpdateTaskManager {
 					}
 				}
 				updatePass = !updatePass;
+				_sweepCount.incrementAndGet();
+				_sweepTime.addAndGet(System.nanoTime() - start);
 				
 				if (_fullUpdateTimer > 0) {
 					_fullUpdateTimer--;
@@ -97,6 +120,8 @@ public class KnownListUpdateTaskManager {
 				continue; // skip dying objects
 			}
 			
+			_sweepObjects.incrementAndGet();
+			
 			// Some mobs need faster knownlist update
 			final boolean aggro = (npc().guardAttackAggroMob() && (object instanceof L2GuardInstance));
 			
@@ -127,6 +152,115 @@ public class KnownListUpdateTaskManager {
 		}
 	}
 	
+	/**
+	 * Notifies a position change of the given object.<br>
+	 * If the object changed world region or moved farther than the configured distance since its last update, an incremental update is scheduled.
+	 * @param object the object that moved
+	 * @param regionChanged {@code true} if the object changed world region
+	 */
+	public void onPositionChange(L2Object object, boolean regionChanged) {
+		if (regionChanged || object.getKnownList().hasMovedSinceLastUpdate(general().getIncrementalKnownListDistance())) {
+			scheduleUpdate(object);
+		}
+	}
+	
+	/**
+	 * Schedules an incremental knownlist update for the given object.<br>
+	 * Updates requested while one is already pending for the same object are coalesced.
+	 * @param object the object to update
+	 */
+	public void scheduleUpdate(L2Object object) {
+		object.getKnownList().setLastUpdatePosition();
+		if (_pendingUpdates.add(object.getObjectId())) {
+			ThreadPoolManager.getInstance().executeAi(() -> {
+				_pendingUpdates.remove(object.getObjectId());
+				try {
+					updateObject(object);
+				} catch (Exception e) {
+					_log.log(Level.WARNING, "KnownListUpdateTaskManager: updateObject() failed for " + object + ". " + e.getMessage(), e);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Incrementally updates the knownlists around the given object.<br>
+	 * Only the object, the objects it knows and the objects in its surrounding regions are visited.
+	 * @param object the object to update
+	 */
+	public void updateObject(L2Object object) {
+		final L2WorldRegion region = object.getWorldRegion();
+		if ((region == null) || !region.isActive()) {
+			return;
+		}
+		
+		final long start = System.nanoTime();
+		long visited = 0;
+		
+		// Objects that are no longer in range forget the object, then the object forgets them
+		final Iterator<L2Object> it = object.getKnownList().getKnownObjects().values().iterator();
+		while (it.hasNext()) {
+			final L2Object known = it.next();
+			visited++;
+			if (known.isVisible() && known.getKnownList().knowsObject(object) && !Util.checkIfInShortRadius(known.getKnownList().getDistanceToForgetObject(object), known, object, true)) {
+				known.getKnownList().removeKnownObject(object);
+			}
+		}
+		object.getKnownList().forgetObjects(true);
+		
+		final boolean aggro = (npc().guardAttackAggroMob() && (object instanceof L2GuardInstance));
+		for (L2WorldRegion worldRegion : region.getSurroundingRegions()) {
+			if ((object instanceof L2Playable) || (aggro && worldRegion.isActive())) {
+				for (L2Object obj : worldRegion.getVisibleObjects().values()) {
+					if (obj != object) {
+						visited++;
+						object.getKnownList().addKnownObject(obj);
+						obj.getKnownList().addKnownObject(object);
+					}
+				}
+			} else if (object instanceof L2Character) {
+				if (worldRegion.isActive()) {
+					for (L2Playable playable : worldRegion.getVisiblePlayable().values()) {
+						if (playable != object) {
+							visited++;
+							object.getKnownList().addKnownObject(playable);
+							playable.getKnownList().addKnownObject(object);
+						}
+					}
+				}
+			} else {
+				// Objects that do not track others are only offered to the playables around
+				for (L2Playable playable : worldRegion.getVisiblePlayable().values()) {
+					visited++;
+					playable.getKnownList().addKnownObject(object);
+				}
+			}
+		}
+		
+		_incrementalCount.incrementAndGet();
+		_incrementalObjects.addAndGet(visited);
+		_incrementalTime.addAndGet(System.nanoTime() - start);
+	}
+	
+	public String[] getStats() {
+		final long sweeps = _sweepCount.get();
+		final long updates = _incrementalCount.get();
+		return new String[] {
+			"KnownList update mode: " + (general().incrementalKnownList() ? "incremental" : "sweep"),
+			" + Sweep:",
+			" |- Passes:          " + sweeps,
+			" |- VisitedObjects:  " + _sweepObjects.get(),
+			" |- TotalTime(ms):   " + TimeUnit.NANOSECONDS.toMillis(_sweepTime.get()),
+			" |- AvgTime(us):     " + (sweeps > 0 ? TimeUnit.NANOSECONDS.toMicros(_sweepTime.get() / sweeps) : 0),
+			" + Incremental:",
+			" |- Updates:         " + updates,
+			" |- Pending:         " + _pendingUpdates.size(),
+			" |- VisitedObjects:  " + _incrementalObjects.get(),
+			" |- TotalTime(ms):   " + TimeUnit.NANOSECONDS.toMillis(_incrementalTime.get()),
+			" |- AvgTime(us):     " + (updates > 0 ? TimeUnit.NANOSECONDS.toMicros(_incrementalTime.get() / updates) : 0)
+		};
+	}
+	
 	public static KnownListUpdateTaskManager getInstance() {
 		return SingletonHolder._instance;
 	}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import static com.l2jserver.gameserver.config.Configuration.general;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.L2World;
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+
+/**
+ * User info task manager.<br>
+ * Players whose user info changed are flagged dirty, and get a single UserInfo/CharInfo broadcast on the next tick, whatever the number of changes meanwhile.<br>
+ * The delay is read once at startup, so reloading the configuration never strands pending broadcasts.
+ */
+public final class UserInfoTaskManager implements Runnable {
+	private static final Logger _log = Logger.getLogger(UserInfoTaskManager.class.getName());
+	
+	private final Map<Integer, L2PcInstance> _dirtyPlayers = new ConcurrentHashMap<>();
+	private final int _delay;
+	
+	private final AtomicLong _requested = new AtomicLong();
+	private final AtomicLong _broadcasted = new AtomicLong();
+	private final AtomicLong _suppressed = new AtomicLong();
+	private long _rateStartTime = System.currentTimeMillis();
+	private long _rateStartSuppressed = 0;
+	private volatile long _suppressedPerSecond = 0;
+	private volatile long _maxSuppressedPerSecond = 0;
+	
+	protected UserInfoTaskManager() {
+		_delay = general().getUserInfoBroadcastDelay();
+		if (_delay > 0) {
+			ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this, _delay, _delay);
+		}
+	}
+	
+	/**
+	 * @return {@code true} if user info broadcasts are coalesced
+	 */
+	public static boolean isEnabled() {
+		return getInstance()._delay > 0;
+	}
+	
+	/**
+	 * Flags the user info of a player dirty, it will be broadcasted on the next tick.
+	 * @param player the player
+	 */
+	public void add(L2PcInstance player) {
+		_requested.incrementAndGet();
+		if (_dirtyPlayers.putIfAbsent(player.getObjectId(), player) != null) {
+			_suppressed.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Removes the pending broadcast of a player, when its user info is broadcasted right away.
+	 * @param player the player
+	 * @return {@code true} if a broadcast was pending
+	 */
+	public boolean remove(L2PcInstance player) {
+		return _dirtyPlayers.remove(player.getObjectId(), player);
+	}
+	
+	@Override
+	public void run() {
+		final Iterator<L2PcInstance> it = _dirtyPlayers.values().iterator();
+		while (it.hasNext()) {
+			final L2PcInstance player = it.next();
+			it.remove();
+			// The player may have logged out meanwhile.
+			if (L2World.getInstance().getPlayer(player.getObjectId()) != player) {
+				continue;
+			}
+			
+			try {
+				player.broadcastUserInfoNow();
+				_broadcasted.incrementAndGet();
+			} catch (Exception e) {
+				_log.log(Level.WARNING, getClass().getSimpleName() + ": Error broadcasting user info of " + player + "!", e);
+			}
+		}
+		
+		final long now = System.currentTimeMillis();
+		if ((now - _rateStartTime) >= 1000) {
+			final long suppressed = _suppressed.get();
+			_suppressedPerSecond = ((suppressed - _rateStartSuppressed) * 1000) / (now - _rateStartTime);
+			if (_suppressedPerSecond > _maxSuppressedPerSecond) {
+				_maxSuppressedPerSecond = _suppressedPerSecond;
+			}
+			_rateStartTime = now;
+			_rateStartSuppressed = suppressed;
+		}
+	}
+	
+	public String[] getStats() {
+		return new String[] {
+			"User Info Task Manager:",
+			" |- Enabled:         " + (_delay > 0),
+			" |- Delay(ms):       " + _delay,
+			" |- Pending:         " + _dirtyPlayers.size(),
+			" |- Requested:       " + _requested.get(),
+			" |- Broadcasted:     " + _broadcasted.get(),
+			" |- Suppressed:      " + _suppressed.get(),
+			" |- Suppressed/s:    " + _suppressedPerSecond,
+			" |- MaxSuppressed/s: " + _maxSuppressedPerSecond
+		};
+	}
+	
+	public static UserInfoTaskManager getInstance() {
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder {
+		protected static final UserInfoTaskManager _instance = new UserInfoTaskManager();
+	}
+}
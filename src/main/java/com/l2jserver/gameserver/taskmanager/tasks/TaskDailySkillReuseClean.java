@@ -18,12 +18,10 @@
  */
 package com.l2jserver.gameserver.taskmanager.tasks;
 
-import java.sql.PreparedStatement;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.l2jserver.commons.database.ConnectionFactory;
+import com.l2jserver.gameserver.dao.factory.impl.DAOFactory;
 import com.l2jserver.gameserver.taskmanager.Task;
 import com.l2jserver.gameserver.taskmanager.TaskManager;
 import com.l2jserver.gameserver.taskmanager.TaskManager.ExecutedTask;
@@ -47,16 +45,7 @@ public class TaskDailySkillReuseClean extends Task {
 	
 	@Override
 	public void onTimeElapsed(ExecutedTask task) {
-		try (var con = ConnectionFactory.getInstance().getConnection()) {
-			for (int skill_id : DAILY_SKILLS) {
-				try (PreparedStatement ps = con.prepareStatement("DELETE FROM character_skills_save WHERE skill_id=?")) {
-					ps.setInt(1, skill_id);
-					ps.execute();
-				}
-			}
-		} catch (Exception ex) {
-			LOG.warn("Could not reset daily skill reuse!", ex);
-		}
+		DAOFactory.getInstance().getPlayerSkillSaveDAO().deleteSkills(DAILY_SKILLS);
 		LOG.info("Daily skill reuse cleaned.");
 	}
 	
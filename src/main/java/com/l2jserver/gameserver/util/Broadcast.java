@@ -29,7 +29,6 @@ import com.l2jserver.gameserver.network.serverpackets.CharInfo;
 import com.l2jserver.gameserver.network.serverpackets.CreatureSay;
 import com.l2jserver.gameserver.network.serverpackets.ExShowScreenMessage;
 import com.l2jserver.gameserver.network.serverpackets.L2GameServerPacket;
-import com.l2jserver.gameserver.network.serverpackets.RelationChanged;
 
 /**
  * @since 2004/06/27 08:12:59
@@ -73,14 +72,7 @@ public final class Broadcast {
 			try {
 				player.sendPacket(mov);
 				if ((mov instanceof CharInfo) && (character instanceof L2PcInstance)) {
-					int relation = ((L2PcInstance) character).getRelation(player);
-					Integer oldrelation = character.getKnownList().getKnownRelations().get(player.getObjectId());
-					if ((oldrelation != null) && (oldrelation != relation)) {
-						player.sendPacket(new RelationChanged((L2PcInstance) character, relation, character.isAutoAttackable(player)));
-						if (character.hasSummon()) {
-							player.sendPacket(new RelationChanged(character.getSummon(), relation, character.isAutoAttackable(player)));
-						}
-					}
+					((L2PcInstance) character).sendRelationChanged(player, false);
 				}
 			} catch (NullPointerException e) {
 				_log.log(Level.WARNING, e.getMessage(), e);
@@ -104,11 +96,11 @@ public final class Broadcast {
 			radius = 1500;
 		}
 		
-		for (L2PcInstance player : character.getKnownList().getKnownPlayers().values()) {
-			if (character.isInsideRadius(player, radius, false, false)) {
-				player.sendPacket(mov);
+		L2World.getInstance().forEachPlayableInRadius(character, radius, playable -> {
+			if (playable.isPlayer() && playable.getKnownList().knowsObject(character)) {
+				playable.sendPacket(mov);
 			}
-		}
+		});
 	}
 	
 	/**
@@ -32,6 +32,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.Locale;
 import java.util.StringJoiner;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import com.l2jserver.gameserver.GeoData;
@@ -415,7 +416,7 @@ public final class Util {
 		return dateFormat.format(date.getTime());
 	}
 	
-	private static void buildHtmlBypassCache(L2PcInstance player, HtmlActionScope scope, String html) {
+	private static void findHtmlBypasses(String html, Consumer<String> consumer) {
 		String htmlLower = html.toLowerCase(Locale.ENGLISH);
 		int bypassEnd = 0;
 		int bypassStart = htmlLower.indexOf("=\"bypass ", bypassEnd);
@@ -440,15 +441,12 @@ public final class Util {
 				bypass = bypass.substring(0, firstParameterStart + 1);
 			}
 			
-			if (general().htmlActionCacheDebug()) {
-				LOGGER.info("Cached html bypass(" + scope.toString() + "): '" + bypass + "'");
-			}
-			player.addHtmlAction(scope, bypass);
+			consumer.accept(bypass);
 			bypassStart = htmlLower.indexOf("=\"bypass ", bypassEnd);
 		}
 	}
 	
-	private static void buildHtmlLinkCache(L2PcInstance player, HtmlActionScope scope, String html) {
+	private static void findHtmlLinks(String html, Consumer<String> consumer) {
 		String htmlLower = html.toLowerCase(Locale.ENGLISH);
 		int linkEnd = 0;
 		int linkStart = htmlLower.indexOf("=\"link ", linkEnd);
@@ -461,6 +459,7 @@ public final class Util {
 			}
 			
 			String htmlLink = html.substring(linkStartEnd, linkEnd).trim();
+			linkStart = htmlLower.indexOf("=\"link ", linkEnd);
 			if (htmlLink.isEmpty()) {
 				LOGGER.warning("Html link path is empty!");
 				continue;
@@ -471,15 +470,21 @@ public final class Util {
 				continue;
 			}
 			
-			if (general().htmlActionCacheDebug()) {
-				LOGGER.info("Cached html link(" + scope.toString() + "): '" + htmlLink + "'");
-			}
 			// let's keep an action cache with "link " lowercase literal kept
-			player.addHtmlAction(scope, "link " + htmlLink);
-			linkStart = htmlLower.indexOf("=\"link ", linkEnd);
+			consumer.accept("link " + htmlLink);
 		}
 	}
 	
+	/**
+	 * Finds the bypass and link actions of the given html code, as they are stored in the html action cache.
+	 * @param html the html code to parse
+	 * @param consumer the consumer of the actions
+	 */
+	public static void findHtmlActions(String html, Consumer<String> consumer) {
+		findHtmlBypasses(html, consumer);
+		findHtmlLinks(html, consumer);
+	}
+	
 	/**
 	 * Builds the html action cache for the specified scope.<br>
 	 * An {@code npcObjId} of 0 means, the cached actions can be clicked<br>
@@ -498,8 +503,36 @@ public final class Util {
 			LOGGER.info("Set html action npc(" + scope.toString() + "): " + npcObjId);
 		}
 		player.setHtmlActionOriginObjectId(scope, npcObjId);
-		buildHtmlBypassCache(player, scope, html);
-		buildHtmlLinkCache(player, scope, html);
+		findHtmlActions(html, action -> addHtmlAction(player, scope, action));
+	}
+	
+	/**
+	 * Builds the html action cache for the specified scope from actions already found in the html code.
+	 * @param player the player to build the html action cache for
+	 * @param scope the scope to build the html action cache for
+	 * @param npcObjId the npc object id the html actions are cached for
+	 * @param actions the actions of the html code
+	 * @see #findHtmlActions(String, Consumer)
+	 */
+	public static void buildHtmlActionCache(L2PcInstance player, HtmlActionScope scope, int npcObjId, Iterable<String> actions) {
+		if ((player == null) || (scope == null) || (npcObjId < 0) || (actions == null)) {
+			throw new IllegalArgumentException();
+		}
+		
+		if (general().htmlActionCacheDebug()) {
+			LOGGER.info("Set html action npc(" + scope.toString() + "): " + npcObjId);
+		}
+		player.setHtmlActionOriginObjectId(scope, npcObjId);
+		for (String action : actions) {
+			addHtmlAction(player, scope, action);
+		}
+	}
+	
+	private static void addHtmlAction(L2PcInstance player, HtmlActionScope scope, String action) {
+		if (general().htmlActionCacheDebug()) {
+			LOGGER.info("Cached html action(" + scope.toString() + "): '" + action + "'");
+		}
+		player.addHtmlAction(scope, action);
 	}
 	
 	/**
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Game Crypt test.
+ */
+public class GameCryptTest {
+	
+	private static final int[] SIZES = {
+		0,
+		1,
+		7,
+		8,
+		9,
+		15,
+		16,
+		17,
+		31,
+		64,
+		255,
+		1024,
+		16384
+	};
+	
+	@ParameterizedTest
+	@ValueSource(booleans = {
+		false,
+		true
+	})
+	public void testEncrypt(boolean direct) {
+		final Random random = new Random(1);
+		final byte[] key = newKey(random);
+		final GameCrypt crypt = new GameCrypt();
+		crypt.setKey(key);
+		final ReferenceCrypt reference = new ReferenceCrypt(key);
+		
+		// The first packet is sent in clear.
+		crypt.encrypt(new byte[4], 0, 4);
+		
+		for (int round = 0; round < 3; round++) {
+			for (int size : SIZES) {
+				final int offset = random.nextInt(8);
+				final byte[] raw = new byte[offset + size + 3];
+				random.nextBytes(raw);
+				final byte[] expected = raw.clone();
+				reference.encrypt(expected, offset, size);
+				
+				final ByteBuffer buf = direct ? ByteBuffer.allocateDirect(raw.length) : ByteBuffer.allocate(raw.length);
+				buf.put(raw).clear();
+				crypt.encrypt(buf, offset, size);
+				assertArrayEquals(expected, toArray(buf), "size " + size);
+			}
+		}
+	}
+	
+	@ParameterizedTest
+	@ValueSource(booleans = {
+		false,
+		true
+	})
+	public void testDecrypt(boolean direct) {
+		final Random random = new Random(2);
+		final byte[] key = newKey(random);
+		final GameCrypt crypt = new GameCrypt();
+		crypt.setKey(key);
+		final ReferenceCrypt reference = new ReferenceCrypt(key);
+		
+		crypt.encrypt(new byte[4], 0, 4);
+		
+		for (int round = 0; round < 3; round++) {
+			for (int size : SIZES) {
+				final int offset = random.nextInt(8);
+				final byte[] raw = new byte[offset + size + 3];
+				random.nextBytes(raw);
+				final byte[] expected = raw.clone();
+				reference.decrypt(expected, offset, size);
+				
+				final ByteBuffer buf = direct ? ByteBuffer.allocateDirect(raw.length) : ByteBuffer.allocate(raw.length);
+				buf.put(raw).clear();
+				crypt.decrypt(buf, offset, size);
+				assertArrayEquals(expected, toArray(buf), "size " + size);
+			}
+		}
+	}
+	
+	@Test
+	public void testRoundTrip() {
+		final Random random = new Random(3);
+		final byte[] key = newKey(random);
+		final GameCrypt server = new GameCrypt();
+		server.setKey(key);
+		final GameCrypt client = new GameCrypt();
+		client.setKey(key);
+		server.encrypt(new byte[4], 0, 4);
+		client.encrypt(new byte[4], 0, 4);
+		
+		for (int size : SIZES) {
+			final byte[] raw = new byte[size];
+			random.nextBytes(raw);
+			final byte[] data = raw.clone();
+			server.encrypt(data, 0, size);
+			client.decrypt(data, 0, size);
+			assertArrayEquals(raw, data, "size " + size);
+		}
+	}
+	
+	private static byte[] newKey(Random random) {
+		final byte[] key = new byte[16];
+		random.nextBytes(key);
+		// Let the key counter carry into its upper bytes.
+		key[8] = (byte) 0xF0;
+		key[9] = (byte) 0xFF;
+		return key;
+	}
+	
+	private static byte[] toArray(ByteBuffer buf) {
+		final byte[] array = new byte[buf.capacity()];
+		buf.get(0, array);
+		return array;
+	}
+	
+	/**
+	 * Byte per byte implementation of the cipher, as it was before working on 8 bytes at a time.
+	 */
+	private static final class ReferenceCrypt {
+		private final byte[] _inKey = new byte[16];
+		private final byte[] _outKey = new byte[16];
+		
+		ReferenceCrypt(byte[] key) {
+			System.arraycopy(key, 0, _inKey, 0, 16);
+			System.arraycopy(key, 0, _outKey, 0, 16);
+		}
+		
+		void decrypt(byte[] raw, int offset, int size) {
+			int temp = 0;
+			for (int i = 0; i < size; i++) {
+				int temp2 = raw[offset + i] & 0xFF;
+				raw[offset + i] = (byte) (temp2 ^ _inKey[i & 15] ^ temp);
+				temp = temp2;
+			}
+			increaseCounter(_inKey, size);
+		}
+		
+		void encrypt(byte[] raw, int offset, int size) {
+			int temp = 0;
+			for (int i = 0; i < size; i++) {
+				int temp2 = raw[offset + i] & 0xFF;
+				temp = temp2 ^ _outKey[i & 15] ^ temp;
+				raw[offset + i] = (byte) temp;
+			}
+			increaseCounter(_outKey, size);
+		}
+		
+		private static void increaseCounter(byte[] key, int size) {
+			int old = key[8] & 0xff;
+			old |= (key[9] << 8) & 0xff00;
+			old |= (key[10] << 0x10) & 0xff0000;
+			old |= (key[11] << 0x18) & 0xff000000;
+			
+			old += size;
+			
+			key[8] = (byte) (old & 0xff);
+			key[9] = (byte) ((old >> 0x08) & 0xff);
+			key[10] = (byte) ((old >> 0x10) & 0xff);
+			key[11] = (byte) ((old >> 0x18) & 0xff);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2004-2021 L2J Server
+ *
+ * This file is part of L2J Server.
+ *
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.pathfinding.cellnodes;
+
+import static com.l2jserver.gameserver.config.Configuration.geodata;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.l2jserver.gameserver.GeoData;
+import com.l2jserver.gameserver.pathfinding.GeoPath;
+
+/**
+ * Cell path finding test.
+ * @version 2.6.3.0
+ */
+@ExtendWith(MockitoExtension.class)
+class CellPathFindingTest {
+	
+	private static final int X = 100;
+	
+	private static final int Y = 200;
+	
+	private static final int Z = -3000;
+	
+	@Mock
+	private GeoData geoData;
+	
+	private static MockedStatic<GeoData> mockedStaticGeoData;
+	
+	@BeforeAll
+	static void before() {
+		geodata().setProperty("PathCacheSize", "16");
+		mockedStaticGeoData = mockStatic(GeoData.class);
+	}
+	
+	@AfterAll
+	static void after() {
+		mockedStaticGeoData.close();
+	}
+	
+	@Test
+	void testFindPathSameCellTwice() {
+		final var pathFinding = new CellPathFinding();
+		when(GeoData.getInstance()).thenReturn(geoData);
+		when(geoData.hasGeo(X, Y)).thenReturn(true);
+		
+		final GeoPath first = pathFinding.findPath(X, Y, Z, X, Y, Z, 0, false);
+		assertNotNull(first);
+		assertTrue(first.isEmpty());
+		
+		final GeoPath second = pathFinding.findPath(X, Y, Z, X, Y, Z, 0, false);
+		assertNotNull(second);
+		assertTrue(second.isEmpty());
+	}
+}